@@ -0,0 +1,48 @@
+plugins {
+    java
+    id("me.champeau.jmh") version "0.7.3"
+}
+
+// JMH benchmarks for the app's plain Java text code: summarization and
+// sentence segmentation. Kept out of the unit tests; run them with
+// ./gradlew :benchmark:jmh after adding include(":benchmark") to the settings.
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+repositories {
+    mavenCentral()
+}
+
+sourceSets {
+    main {
+        java {
+            srcDir("../src/main/java")
+            include("com/example/translator/services/summarization/**")
+            include("com/example/translator/utils/SentenceSegmenter.java")
+        }
+    }
+    named("jmh") {
+        java {
+            // The generated text the unit tests use
+            srcDir("../src/test/java")
+            include("com/example/translator/benchmark/**")
+            include("com/example/translator/testing/**")
+        }
+    }
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    // Reports gc.alloc.rate.norm, the bytes allocated per operation
+    profilers.add("gc")
+}
@@ -0,0 +1,69 @@
+package com.example.translator.benchmark;
+
+import com.example.translator.services.summarization.KeywordAutomaton;
+import com.example.translator.testing.TextFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cue word scoring of every sentence in a text, by the automaton in one
+ * pass per sentence and by the lowercase copy and one contains() per
+ * keyword that the summarizer used before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KeywordAutomatonBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int length;
+
+    private final KeywordAutomaton automaton = new KeywordAutomaton(TextFixtures.CUE_WORDS);
+    private List<String> sentences;
+
+    @Setup
+    public void setUp() {
+        String text = TextFixtures.generateText(new Random(7), length,
+                TextFixtures.reportWords(TextFixtures.CUE_WORDS));
+        sentences = TextFixtures.sentences(text, 1);
+    }
+
+    @Benchmark
+    public int automaton() {
+        int total = 0;
+        for (String sentence : sentences) {
+            total += automaton.countDistinct(sentence);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int countKeywords() {
+        int total = 0;
+        for (String sentence : sentences) {
+            total += countKeywords(sentence);
+        }
+        return total;
+    }
+
+    // The scoring the automaton replaced
+    private static int countKeywords(String sentence) {
+        String lower = sentence.toLowerCase(Locale.ROOT);
+        int count = 0;
+        for (String keyword : TextFixtures.CUE_WORDS) {
+            if (lower.contains(keyword)) count++;
+        }
+        return count;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.example.translator.benchmark;
+
+import com.example.translator.testing.TextFixtures;
+import com.example.translator.utils.SentenceSegmenter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Segmenter throughput, and what reading sentences as spans saves over
+ * copying them out. Run with the gc profiler: gc.alloc.rate.norm for
+ * spans should stay a small fraction of the text size, while split()
+ * and the old regex split copy every sentence.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SentenceSegmenterBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int length;
+
+    private final SentenceSegmenter segmenter = SentenceSegmenter.forLanguage("en");
+    private String text;
+
+    @Setup
+    public void setUp() {
+        text = TextFixtures.generateText(new Random(42), length, TextFixtures.reviewWords());
+    }
+
+    // Offsets only, the way the summarizers read sentences
+    @Benchmark
+    public int spans() {
+        SentenceSegmenter.Spans spans = segmenter.segment(text);
+        int characters = 0;
+        for (int i = 0; i < spans.size(); i++) {
+            characters += spans.length(i);
+        }
+        return characters;
+    }
+
+    @Benchmark
+    public List<String> substrings() {
+        return segmenter.split(text);
+    }
+
+    // What the summarizers did before the segmenter
+    @Benchmark
+    public List<String> regexSplit() {
+        return TextFixtures.sentences(text, 1);
+    }
+}
\ No newline at end of file
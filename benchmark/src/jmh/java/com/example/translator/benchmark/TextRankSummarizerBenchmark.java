@@ -0,0 +1,51 @@
+package com.example.translator.benchmark;
+
+import com.example.translator.services.summarization.TextRankSummarizer;
+import com.example.translator.testing.TextFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TextRank over generated product reviews, from a 10k character page up to
+ * a long document. The graph is sparse, so time should grow close to
+ * linearly with the number of sentences rather than with its square.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TextRankSummarizerBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int length;
+
+    private final TextRankSummarizer summarizer = new TextRankSummarizer();
+    private List<String> sentences;
+    private int[][] vectors;
+
+    @Setup
+    public void setUp() {
+        String text = TextFixtures.generateText(new Random(42), length, TextFixtures.reviewWords());
+        sentences = TextFixtures.sentences(text, 11);
+        vectors = TextRankSummarizer.tokenize(sentences);
+    }
+
+    @Benchmark
+    public List<String> summarize() {
+        return summarizer.summarize(sentences, 5);
+    }
+
+    @Benchmark
+    public TextRankSummarizer.Graph buildGraph() {
+        return TextRankSummarizer.buildGraph(vectors);
+    }
+}
\ No newline at end of file
@@ -29,6 +29,10 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        // The streaming translator logs through android.util.Log
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
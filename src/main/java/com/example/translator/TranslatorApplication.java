@@ -3,8 +3,10 @@ package com.example.translator;
 import android.app.Application;
 import android.util.Log;
 import com.example.translator.data.local.AppDatabase;
+import com.example.translator.data.repository.BatchTranslationRepository;
 import com.example.translator.data.repository.LanguageRepository;
 import com.example.translator.data.repository.UserRepository;
+import com.example.translator.utils.BitmapPool;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -18,6 +20,7 @@ public class TranslatorApplication extends Application {
     private AppDatabase database;
     private LanguageRepository languageRepository;
     private UserRepository userRepository;
+    private BatchTranslationRepository batchTranslationRepository;
 
     public AppDatabase getDatabase() {
         if (database == null) {
@@ -55,6 +58,18 @@ public class TranslatorApplication extends Application {
         return userRepository;
     }
 
+    public BatchTranslationRepository getBatchTranslationRepository() {
+        if (batchTranslationRepository == null) {
+            synchronized (this) {
+                if (batchTranslationRepository == null) {
+                    batchTranslationRepository = new BatchTranslationRepository(this);
+                    Log.d(TAG, "BatchTranslationRepository initialized");
+                }
+            }
+        }
+        return batchTranslationRepository;
+    }
+
     @Override
     public void onCreate() {
         super.onCreate();
@@ -90,6 +105,18 @@ public class TranslatorApplication extends Application {
         }
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+
+        if (level >= TRIM_MEMORY_BACKGROUND) {
+            BitmapPool.getInstance().clear();
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            BitmapPool.getInstance().trim();
+        }
+        Log.d(TAG, "onTrimMemory(" + level + "): " + BitmapPool.getInstance().getStats());
+    }
+
     @Override
     public void onTerminate() {
         super.onTerminate();
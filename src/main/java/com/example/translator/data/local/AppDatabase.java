@@ -1,26 +1,53 @@
 package com.example.translator.data.local;
 
 import android.content.Context;
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import com.example.translator.data.local.dao.BatchTranslationDao;
 import com.example.translator.data.local.dao.LanguageDao;
 import com.example.translator.data.local.dao.UserPreferencesDao;
+import com.example.translator.data.model.BatchTranslationItem;
 import com.example.translator.data.model.Language;
 import com.example.translator.data.model.UserPreferences;
 
 @Database(
-        entities = {Language.class, UserPreferences.class},
-        version = 2, // Đã tăng từ 1 lên 2 để sửa lỗi schema mismatch
+        entities = {Language.class, UserPreferences.class, BatchTranslationItem.class},
+        version = 3, // 3: batch_translation_items
         exportSchema = false
 )
 public abstract class AppDatabase extends RoomDatabase {
 
     public abstract LanguageDao languageDao();
     public abstract UserPreferencesDao userPreferencesDao();
+    public abstract BatchTranslationDao batchTranslationDao();
 
     private static volatile AppDatabase INSTANCE;
 
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `batch_translation_items` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`batchId` INTEGER NOT NULL, "
+                    + "`position` INTEGER NOT NULL, "
+                    + "`sourceUri` TEXT, "
+                    + "`sourceLanguage` TEXT, "
+                    + "`targetLanguage` TEXT, "
+                    + "`status` TEXT, "
+                    + "`detectedText` TEXT, "
+                    + "`translatedText` TEXT, "
+                    + "`errorMessage` TEXT, "
+                    + "`createdAt` INTEGER NOT NULL, "
+                    + "`updatedAt` INTEGER NOT NULL)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_batch_translation_items_batchId` "
+                    + "ON `batch_translation_items` (`batchId`)");
+        }
+    };
+
     public static AppDatabase getDatabase(Context context) {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
@@ -30,6 +57,7 @@ public abstract class AppDatabase extends RoomDatabase {
                                     AppDatabase.class,
                                     "translator_database"
                             )
+                            .addMigrations(MIGRATION_2_3)
                             .fallbackToDestructiveMigration()
                             .build();
                 }
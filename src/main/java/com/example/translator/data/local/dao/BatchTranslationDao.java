@@ -0,0 +1,31 @@
+package com.example.translator.data.local.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import com.example.translator.data.model.BatchTranslationItem;
+import java.util.List;
+
+@Dao
+public interface BatchTranslationDao {
+    @Query("SELECT * FROM batch_translation_items WHERE batchId = :batchId ORDER BY position")
+    LiveData<List<BatchTranslationItem>> getBatchItems(long batchId);
+
+    @Query("SELECT * FROM batch_translation_items WHERE batchId = " +
+            "(SELECT MAX(batchId) FROM batch_translation_items) ORDER BY position")
+    List<BatchTranslationItem> getLatestBatch();
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    List<Long> insertItems(List<BatchTranslationItem> items);
+
+    @Query("UPDATE batch_translation_items SET status = :status, detectedText = :detectedText, " +
+            "translatedText = :translatedText, errorMessage = :errorMessage, updatedAt = :updatedAt " +
+            "WHERE id = :id")
+    void updateResult(long id, String status, String detectedText, String translatedText,
+                      String errorMessage, long updatedAt);
+
+    @Query("DELETE FROM batch_translation_items WHERE batchId = :batchId")
+    void deleteBatch(long batchId);
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.example.translator.data.model;
+
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * One image of a batch translation. Rows are written when a batch starts and
+ * updated as each image finishes, so results survive the activity.
+ */
+@Entity(tableName = "batch_translation_items", indices = {@Index("batchId")})
+public class BatchTranslationItem {
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    private long batchId;
+    private int position;
+    private String sourceUri;
+    private String sourceLanguage;
+    private String targetLanguage;
+    private String status; // PENDING, DONE, FAILED, CANCELLED
+    private String detectedText;
+    private String translatedText;
+    private String errorMessage;
+    private long createdAt;
+    private long updatedAt;
+
+    public BatchTranslationItem(long batchId, int position, String sourceUri,
+                                String sourceLanguage, String targetLanguage,
+                                String status, long createdAt) {
+        this.batchId = batchId;
+        this.position = position;
+        this.sourceUri = sourceUri;
+        this.sourceLanguage = sourceLanguage;
+        this.targetLanguage = targetLanguage;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.updatedAt = createdAt;
+    }
+
+    // Getters and Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public long getBatchId() { return batchId; }
+    public void setBatchId(long batchId) { this.batchId = batchId; }
+
+    public int getPosition() { return position; }
+    public void setPosition(int position) { this.position = position; }
+
+    public String getSourceUri() { return sourceUri; }
+    public void setSourceUri(String sourceUri) { this.sourceUri = sourceUri; }
+
+    public String getSourceLanguage() { return sourceLanguage; }
+    public void setSourceLanguage(String sourceLanguage) { this.sourceLanguage = sourceLanguage; }
+
+    public String getTargetLanguage() { return targetLanguage; }
+    public void setTargetLanguage(String targetLanguage) { this.targetLanguage = targetLanguage; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getDetectedText() { return detectedText; }
+    public void setDetectedText(String detectedText) { this.detectedText = detectedText; }
+
+    public String getTranslatedText() { return translatedText; }
+    public void setTranslatedText(String translatedText) { this.translatedText = translatedText; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public long getCreatedAt() { return createdAt; }
+    public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+
+    public long getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(long updatedAt) { this.updatedAt = updatedAt; }
+}
\ No newline at end of file
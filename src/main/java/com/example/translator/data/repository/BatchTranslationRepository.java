@@ -0,0 +1,74 @@
+package com.example.translator.data.repository;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.lifecycle.LiveData;
+import com.example.translator.data.local.AppDatabase;
+import com.example.translator.data.local.dao.BatchTranslationDao;
+import com.example.translator.data.model.BatchTranslationItem;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class BatchTranslationRepository {
+    private static final String TAG = "BatchTranslationRepository";
+    private BatchTranslationDao batchTranslationDao;
+    // Single thread so result updates land in the order they were made
+    private ExecutorService executor;
+
+    public BatchTranslationRepository(Context context) {
+        AppDatabase database = AppDatabase.getDatabase(context);
+        batchTranslationDao = database.batchTranslationDao();
+        executor = Executors.newSingleThreadExecutor();
+        Log.d(TAG, "BatchTranslationRepository initialized");
+    }
+
+    public LiveData<List<BatchTranslationItem>> getBatchItems(long batchId) {
+        return batchTranslationDao.getBatchItems(batchId);
+    }
+
+    /**
+     * Inserts the rows of a new batch and assigns their ids. Blocks; call off
+     * the main thread.
+     */
+    public void insertItems(List<BatchTranslationItem> items) {
+        List<Long> ids = batchTranslationDao.insertItems(items);
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).setId(ids.get(i));
+        }
+        Log.d(TAG, "Inserted " + items.size() + " batch items");
+    }
+
+    public void updateResult(BatchTranslationItem item) {
+        if (item == null) {
+            Log.w(TAG, "Attempted to update null batch item");
+            return;
+        }
+
+        // Capture the values now, the item keeps changing on pipeline threads
+        long id = item.getId();
+        String status = item.getStatus();
+        String detectedText = item.getDetectedText();
+        String translatedText = item.getTranslatedText();
+        String errorMessage = item.getErrorMessage();
+        long updatedAt = System.currentTimeMillis();
+
+        executor.execute(() -> {
+            try {
+                batchTranslationDao.updateResult(id, status, detectedText, translatedText, errorMessage, updatedAt);
+            } catch (Exception e) {
+                Log.e(TAG, "Error updating batch item " + id, e);
+            }
+        });
+    }
+
+    public void deleteBatch(long batchId) {
+        executor.execute(() -> {
+            try {
+                batchTranslationDao.deleteBatch(batchId);
+            } catch (Exception e) {
+                Log.e(TAG, "Error deleting batch " + batchId, e);
+            }
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.example.translator.services;
+
+/**
+ * Decides that the speaker has stopped talking from the recognizer's RMS
+ * levels, so listening can stop without waiting for the recognizer's own
+ * end-of-speech timeout.
+ *
+ * A level counts as voice when it is {@code marginDb} above the noise floor.
+ * The floor follows the quietest recent levels: it drops at once and rises
+ * slowly while nobody speaks, so a fan or traffic does not read as speech.
+ * Once at least {@code minSpeechMs} of speech was heard, or the recognizer
+ * reported the beginning of speech, {@code hangoverMs} without voice ends the
+ * utterance. Short pauses between words stay below the hangover.
+ *
+ * Not thread safe; feed it from the recognizer's callback thread.
+ */
+public class RmsEndpointer {
+
+    public static final float DEFAULT_MARGIN_DB = 3.0f;
+    public static final long DEFAULT_HANGOVER_MS = 700L;
+    public static final long DEFAULT_MIN_SPEECH_MS = 250L;
+
+    // How fast the floor rises towards the level while nobody speaks
+    private static final float FLOOR_RISE = 0.05f;
+
+    private final float marginDb;
+    private final long hangoverMs;
+    private final long minSpeechMs;
+
+    private boolean hasFloor;
+    private float noiseFloor;
+    private long speechStartMs;
+    private long lastVoiceMs;
+    private boolean speechConfirmed;
+    private boolean ended;
+
+    public RmsEndpointer() {
+        this(DEFAULT_MARGIN_DB, DEFAULT_HANGOVER_MS, DEFAULT_MIN_SPEECH_MS);
+    }
+
+    public RmsEndpointer(float marginDb, long hangoverMs, long minSpeechMs) {
+        this.marginDb = marginDb;
+        this.hangoverMs = hangoverMs;
+        this.minSpeechMs = minSpeechMs;
+        reset();
+    }
+
+    /**
+     * Starts over for a new utterance.
+     */
+    public void reset() {
+        hasFloor = false;
+        noiseFloor = 0f;
+        speechStartMs = -1L;
+        lastVoiceMs = -1L;
+        speechConfirmed = false;
+        ended = false;
+    }
+
+    /**
+     * The recognizer heard speech, which confirms voice the levels showed
+     * only briefly so far. Without voice in the levels nothing ends early,
+     * so a quiet speaker falls back to the recognizer's own timeout.
+     */
+    public void onSpeechBegin() {
+        speechConfirmed = true;
+    }
+
+    /**
+     * @return true once, for the level at which the utterance ended
+     */
+    public boolean onRms(float rmsdB, long timeMs) {
+        if (ended) return false;
+
+        if (!hasFloor) {
+            hasFloor = true;
+            noiseFloor = rmsdB;
+        }
+
+        boolean voice = rmsdB > noiseFloor + marginDb;
+        if (voice) {
+            if (speechStartMs < 0) speechStartMs = timeMs;
+            lastVoiceMs = timeMs;
+            if (timeMs - speechStartMs >= minSpeechMs) speechConfirmed = true;
+        } else {
+            noiseFloor = rmsdB < noiseFloor ? rmsdB : noiseFloor + (rmsdB - noiseFloor) * FLOOR_RISE;
+            if (!speechConfirmed && lastVoiceMs >= 0 && timeMs - lastVoiceMs >= hangoverMs) {
+                // A click or a cough, not speech
+                speechStartMs = -1L;
+                lastVoiceMs = -1L;
+            }
+        }
+
+        if (speechConfirmed && lastVoiceMs >= 0 && timeMs - lastVoiceMs >= hangoverMs) {
+            ended = true;
+        }
+        return ended;
+    }
+
+    public boolean hasEnded() {
+        return ended;
+    }
+
+    public float getNoiseFloor() {
+        return noiseFloor;
+    }
+}
\ No newline at end of file
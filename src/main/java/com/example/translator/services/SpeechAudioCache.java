@@ -0,0 +1,240 @@
+package com.example.translator.services;
+
+import android.content.Context;
+import android.util.Log;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Synthesized speech kept on disk as WAV files, keyed by text, locale, rate
+ * and pitch, so replaying a phrase plays a file instead of running the
+ * engine again.
+ *
+ * Files are written to a temporary name and only enter the cache through
+ * {@link #commit}, so a synthesis that was interrupted never gets played.
+ * The cache holds at most {@code maxBytes} and deletes the least recently
+ * played clips beyond that; file modification times carry the order across
+ * restarts.
+ */
+public class SpeechAudioCache {
+
+    private static final String TAG = "SpeechAudioCache";
+
+    public static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+    private static final String CLIP_SUFFIX = ".wav";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final long FNV64_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV64_PRIME = 0x100000001b3L;
+
+    private static final int MAX_REQUESTED_KEYS = 256;
+
+    private static SpeechAudioCache instance;
+
+    private final File directory;
+    private final long maxBytes;
+    // Clip sizes by key, least recently played first
+    private final LinkedHashMap<String, Long> clips = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0L;
+    private boolean loaded = false;
+    // Keys of phrases spoken since start without being cached, least recently requested first
+    private final LinkedHashMap<String, Boolean> requested = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_REQUESTED_KEYS;
+        }
+    };
+
+    public static synchronized SpeechAudioCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new SpeechAudioCache(new File(context.getApplicationContext().getCacheDir(), "tts"),
+                    DEFAULT_MAX_BYTES);
+        }
+        return instance;
+    }
+
+    public SpeechAudioCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Cache key for one utterance. Rate and pitch are part of the key because
+     * they are baked into the audio.
+     */
+    public static String keyFor(CharSequence text, Locale locale, float rate, float pitch) {
+        long hash = FNV64_OFFSET;
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * FNV64_PRIME;
+        }
+        String tag = locale != null ? locale.toLanguageTag() : "";
+        for (int i = 0; i < tag.length(); i++) {
+            hash = (hash ^ tag.charAt(i)) * FNV64_PRIME;
+        }
+        hash = (hash ^ Float.floatToIntBits(rate)) * FNV64_PRIME;
+        hash = (hash ^ Float.floatToIntBits(pitch)) * FNV64_PRIME;
+        return String.format(Locale.US, "%016x_%d", hash, text.length());
+    }
+
+    /**
+     * The clip for {@code key}, marked as recently played, or null.
+     */
+    public synchronized File get(String key) {
+        ensureLoaded();
+        if (clips.get(key) == null) return null;
+
+        File clip = clipFile(key);
+        if (!clip.isFile()) {
+            // Deleted behind our back, e.g. the system cleared the cache directory
+            remove(key);
+            return null;
+        }
+        clip.setLastModified(System.currentTimeMillis());
+        return clip;
+    }
+
+    /**
+     * Notes a request to speak the phrase for {@code key}. Caching costs a
+     * second synthesis, so only phrases that come back are worth it.
+     *
+     * @return true if the phrase was requested before
+     */
+    public synchronized boolean markRequested(String key) {
+        return requested.put(key, Boolean.TRUE) != null;
+    }
+
+    public synchronized boolean contains(String key) {
+        ensureLoaded();
+        return clips.containsKey(key);
+    }
+
+    /**
+     * Where to synthesize the clip for {@code key} before committing it.
+     */
+    public synchronized File newTempFile(String key) {
+        // Load first so the stale-file sweep cannot delete a synthesis in progress
+        ensureLoaded();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.w(TAG, "Could not create cache directory " + directory);
+        }
+        return new File(directory, key + TEMP_SUFFIX);
+    }
+
+    /**
+     * Moves a finished synthesis into the cache and evicts old clips if the
+     * cache grew past its limit.
+     */
+    public synchronized boolean commit(String key, File temp) {
+        ensureLoaded();
+        long size = temp.length();
+        if (size <= 0 || size > maxBytes) {
+            discard(temp);
+            return false;
+        }
+
+        File clip = clipFile(key);
+        if (clips.containsKey(key)) {
+            remove(key);
+        }
+        if (!temp.renameTo(clip)) {
+            Log.w(TAG, "Could not move " + temp + " into the cache");
+            discard(temp);
+            return false;
+        }
+
+        clips.put(key, size);
+        requested.remove(key);
+        totalBytes += size;
+        trimToSize();
+        Log.d(TAG, "Cached clip " + key + " (" + size + " bytes, " + clips.size() + " clips, "
+                + totalBytes + " bytes total)");
+        return true;
+    }
+
+    /**
+     * Drops the clip for {@code key}, e.g. because it could not be played.
+     */
+    public synchronized void evict(String key) {
+        ensureLoaded();
+        remove(key);
+        Log.d(TAG, "Evicted clip " + key);
+    }
+
+    public void discard(File temp) {
+        if (temp != null && temp.exists() && !temp.delete()) {
+            Log.w(TAG, "Could not delete " + temp);
+        }
+    }
+
+    public synchronized long getSizeBytes() {
+        ensureLoaded();
+        return totalBytes;
+    }
+
+    public synchronized int getClipCount() {
+        ensureLoaded();
+        return clips.size();
+    }
+
+    public synchronized void clear() {
+        ensureLoaded();
+        for (String key : clips.keySet()) {
+            clipFile(key).delete();
+        }
+        clips.clear();
+        totalBytes = 0L;
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Long>> iterator = clips.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            clipFile(eldest.getKey()).delete();
+            totalBytes -= eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    private void remove(String key) {
+        Long size = clips.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+            clipFile(key).delete();
+        }
+    }
+
+    /**
+     * Rebuilds the index from the directory on first use, oldest clips first,
+     * and removes temporary files left by a synthesis that never finished.
+     */
+    private void ensureLoaded() {
+        if (loaded) return;
+        loaded = true;
+
+        File[] files = directory.listFiles();
+        if (files == null) return;
+
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(TEMP_SUFFIX)) {
+                file.delete();
+            } else if (name.endsWith(CLIP_SUFFIX)) {
+                long size = file.length();
+                clips.put(name.substring(0, name.length() - CLIP_SUFFIX.length()), size);
+                totalBytes += size;
+            }
+        }
+        trimToSize();
+        Log.d(TAG, "Loaded " + clips.size() + " cached clips (" + totalBytes + " bytes)");
+    }
+
+    private File clipFile(String key) {
+        return new File(directory, key + CLIP_SUFFIX);
+    }
+}
\ No newline at end of file
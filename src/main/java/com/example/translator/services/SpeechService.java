@@ -2,21 +2,38 @@ package com.example.translator.services;
 
 import android.content.Context;
 import android.content.Intent;
+import android.media.MediaPlayer;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.speech.RecognitionListener;
 import android.speech.RecognizerIntent;
 import android.speech.SpeechRecognizer;
 import android.speech.tts.TextToSpeech;
 import android.speech.tts.UtteranceProgressListener;
+import android.speech.tts.Voice;
 import android.util.Log;
+
+import com.example.translator.utils.SentenceSegmenter;
+
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 public class SpeechService {
 
     private static final String TAG = "SpeechService";
-    private static final int MAX_TEXT_LENGTH = 4000;
     private static final String TTS_UTTERANCE_ID = "TTS_UTTERANCE";
+    private static final String CACHE_UTTERANCE_ID = "TTS_CACHE_";
+    private static final String WARM_UP_UTTERANCE_ID = "TTS_WARM_UP";
+    private static final String WARM_UP_TEXT = "ok";
+    // Chunks handed to the engine ahead of the one playing; the rest are queued as playback advances
+    private static final int QUEUE_AHEAD = 3;
 
     // Speed constants
     public static final float SPEED_VERY_SLOW = 0.5f;
@@ -28,6 +45,13 @@ public class SpeechService {
     private Context context;
     private TextToSpeech textToSpeech;
     private SpeechRecognizer speechRecognizer;
+    // Callback of the session in progress on the reused recognizer
+    private volatile SpeechRecognitionCallback recognitionCallback;
+    // Latency trace of the current or last recognition session
+    private volatile long recognitionTrace = VoiceLatencyTracer.NO_INTERACTION;
+    private final VoiceLatencyTracer latencyTracer = VoiceLatencyTracer.getInstance();
+    // Stops listening once the levels go quiet, ahead of the recognizer's own timeout; null when off
+    private RmsEndpointer endpointer = new RmsEndpointer();
     private boolean isInitialized = false;
     private boolean isSpeaking = false;
     private boolean isListening = false;
@@ -36,6 +60,29 @@ public class SpeechService {
     private float speechRate = SPEED_NORMAL;
     private float speechPitch = 1.0f;
 
+    // What the engine can speak, queried once after init, and what it is set to
+    // now, so speakText only talks to the engine when something changes.
+    // Guarded by languageLock.
+    private final Object languageLock = new Object();
+    private final Set<String> installedLanguages = new HashSet<>();
+    private final Map<String, Locale> resolvedLocales = new HashMap<>();
+    private Locale activeLocale;
+    private float activeRate = Float.NaN;
+
+    // Language to warm up once the engine is ready, and the one warmed up last
+    private String pendingWarmUp;
+    private String warmedUpLanguage;
+
+    // Chunked playback state, guarded by playbackLock
+    private final Object playbackLock = new Object();
+    private Playback playback;
+    private int playbackCounter = 0;
+    private PlaybackListener playbackListener;
+
+    // Replays of cached phrases play a file instead of running the engine
+    private SpeechAudioCache audioCache;
+    private MediaPlayer clipPlayer;
+
     // Callback interfaces
     public interface InitializationCallback {
         void onComplete(boolean success);
@@ -50,6 +97,59 @@ public class SpeechService {
         void onError(int errorCode);
     }
 
+    /**
+     * Progress of chunked playback. Called on the TTS engine's thread.
+     */
+    public interface PlaybackListener {
+        /**
+         * Chunk {@code index} of {@code count} started; {@code start} and
+         * {@code end} are its offsets in the text passed to speakText.
+         */
+        void onChunkStarted(int index, int count, int start, int end);
+        void onPlaybackCompleted();
+        void onChunkError(int index);
+    }
+
+    /**
+     * Text split into sentence-sized chunks, each spoken as its own utterance.
+     * Utterance IDs carry the playback id so callbacks from a flushed or
+     * replaced playback are ignored.
+     */
+    private static class Playback {
+        final int id;
+        final String text;
+        final int[] starts;
+        final int[] ends;
+        final int count;
+        // Chunk playing (or to resume from) and the next one not yet handed to the engine
+        int current;
+        int nextToQueue;
+        boolean paused;
+        // Played from the audio cache as a single clip
+        boolean clip;
+        // A clip still loading, which cannot be paused or sought yet, and its
+        // language in case it has to be synthesized instead
+        boolean preparing;
+        String languageCode;
+        // Where the finished playback is cached, or the key of the clip being played;
+        // null when not cacheable
+        String cacheKey;
+        // Voice interaction this playback ends, or NO_INTERACTION
+        long trace = VoiceLatencyTracer.NO_INTERACTION;
+
+        Playback(int id, String text, int[] starts, int[] ends, int count) {
+            this.id = id;
+            this.text = text;
+            this.starts = starts;
+            this.ends = ends;
+            this.count = count;
+        }
+
+        String utteranceId(int index) {
+            return TTS_UTTERANCE_ID + "_" + id + "_" + index;
+        }
+    }
+
     public SpeechService(Context context) {
         this.context = context;
     }
@@ -70,6 +170,11 @@ public class SpeechService {
                     // Set default speech rate and pitch
                     textToSpeech.setSpeechRate(speechRate);
                     textToSpeech.setPitch(speechPitch);
+                    loadLanguageCapabilities();
+                    warmedUpLanguage = null;
+                    if (pendingWarmUp != null) {
+                        warmUp(pendingWarmUp);
+                    }
                     Log.d(TAG, "TextToSpeech initialized successfully");
                 } else {
                     Log.e(TAG, "TextToSpeech initialization failed with status: " + status);
@@ -87,28 +192,400 @@ public class SpeechService {
         textToSpeech.setOnUtteranceProgressListener(new UtteranceProgressListener() {
             @Override
             public void onStart(String utteranceId) {
-                isSpeaking = true;
-                Log.d(TAG, "TTS started speaking");
+                onChunkStart(utteranceId);
             }
 
             @Override
             public void onDone(String utteranceId) {
-                isSpeaking = false;
-                Log.d(TAG, "TTS finished speaking");
+                if (isCacheUtterance(utteranceId)) {
+                    onCacheSynthesisFinished(utteranceId, true);
+                } else {
+                    onChunkFinished(utteranceId, false);
+                }
             }
 
             @Override
             public void onError(String utteranceId) {
-                isSpeaking = false;
-                Log.e(TAG, "TTS error occurred");
+                Log.e(TAG, "TTS error occurred on " + utteranceId);
+                if (isCacheUtterance(utteranceId)) {
+                    onCacheSynthesisFinished(utteranceId, false);
+                } else {
+                    onChunkFinished(utteranceId, true);
+                }
+            }
+
+            @Override
+            public void onStop(String utteranceId, boolean interrupted) {
+                // A new utterance flushed the queue before the clip was written
+                if (isCacheUtterance(utteranceId)) {
+                    onCacheSynthesisFinished(utteranceId, false);
+                }
             }
         });
     }
 
+    /**
+     * Records which languages have an installed voice. Engines that do not
+     * list their voices are asked per language instead, once.
+     */
+    private void loadLanguageCapabilities() {
+        Set<Voice> voices = null;
+        try {
+            voices = textToSpeech.getVoices();
+        } catch (Exception e) {
+            Log.w(TAG, "Could not list TTS voices", e);
+        }
+
+        synchronized (languageLock) {
+            installedLanguages.clear();
+            resolvedLocales.clear();
+            activeLocale = null;
+            activeRate = speechRate;
+            if (voices == null) return;
+
+            for (Voice voice : voices) {
+                Set<String> features = voice.getFeatures();
+                if (voice.getLocale() == null
+                        || (features != null && features.contains(TextToSpeech.Engine.KEY_FEATURE_NOT_INSTALLED))) {
+                    continue;
+                }
+                installedLanguages.add(voice.getLocale().toLanguageTag().toLowerCase(Locale.ROOT));
+                installedLanguages.add(voice.getLocale().getLanguage());
+            }
+            Log.d(TAG, "TTS voices installed for " + installedLanguages.size() + " languages and locales");
+        }
+    }
+
+    /**
+     * The locale to speak {@code languageCode} in: the language itself when
+     * the engine has it, the default locale otherwise. Resolved once per
+     * language. Caller holds languageLock.
+     */
+    private Locale resolveLocale(String languageCode) {
+        Locale resolved = resolvedLocales.get(languageCode);
+        if (resolved != null) return resolved;
+
+        Locale requested = Locale.forLanguageTag(languageCode);
+        boolean supported;
+        if (!installedLanguages.isEmpty()) {
+            supported = installedLanguages.contains(requested.toLanguageTag().toLowerCase(Locale.ROOT))
+                    || installedLanguages.contains(requested.getLanguage());
+        } else {
+            supported = textToSpeech.isLanguageAvailable(requested) >= TextToSpeech.LANG_AVAILABLE;
+        }
+        if (!supported) {
+            Log.w(TAG, "Language not supported: " + languageCode + ", using default");
+        }
+        resolved = supported ? requested : Locale.getDefault();
+        resolvedLocales.put(languageCode, resolved);
+        return resolved;
+    }
+
+    /**
+     * Switches the engine to {@code languageCode} unless it already speaks it.
+     *
+     * @return the locale the engine speaks now
+     */
+    private Locale applyLanguage(String languageCode) {
+        synchronized (languageLock) {
+            Locale locale = resolveLocale(languageCode);
+            if (locale.equals(activeLocale)) return locale;
+
+            int result = textToSpeech.setLanguage(locale);
+            if (result == TextToSpeech.LANG_MISSING_DATA || result == TextToSpeech.LANG_NOT_SUPPORTED) {
+                // Voice data went away since the capabilities were loaded
+                Log.w(TAG, "Could not set language " + languageCode + " (" + result + "), using default");
+                locale = Locale.getDefault();
+                resolvedLocales.put(languageCode, locale);
+                textToSpeech.setLanguage(locale);
+            } else {
+                Log.d(TAG, "Language set successfully: " + languageCode);
+            }
+            activeLocale = locale;
+            return locale;
+        }
+    }
+
+    private void applySpeechRate(float rate) {
+        synchronized (languageLock) {
+            if (rate == activeRate) return;
+            textToSpeech.setSpeechRate(rate);
+            activeRate = rate;
+        }
+    }
+
+    /**
+     * Loads the voice for {@code languageCode} by speaking a short word at
+     * zero volume, so the first real utterance does not pay for the engine's
+     * cold start. A silent utterance would not load the voice. Anything
+     * spoken in the meantime flushes the warm-up.
+     *
+     * Call whenever the language to be spoken next becomes known or changes;
+     * before init it is remembered and warmed up once the engine is ready,
+     * and the language warmed up last is not warmed up again.
+     */
+    public void warmUp(String languageCode) {
+        if (languageCode == null) return;
+        if (!isTextToSpeechAvailable()) {
+            pendingWarmUp = languageCode;
+            return;
+        }
+        pendingWarmUp = null;
+        if (languageCode.equals(warmedUpLanguage)) return;
+        synchronized (playbackLock) {
+            if (playback != null) return;
+        }
+
+        try {
+            applyLanguage(languageCode);
+            Bundle params = new Bundle();
+            params.putString(TextToSpeech.Engine.KEY_PARAM_UTTERANCE_ID, WARM_UP_UTTERANCE_ID);
+            params.putFloat(TextToSpeech.Engine.KEY_PARAM_VOLUME, 0f);
+            textToSpeech.speak(WARM_UP_TEXT, TextToSpeech.QUEUE_ADD, params, WARM_UP_UTTERANCE_ID);
+            warmedUpLanguage = languageCode;
+            Log.d(TAG, "Warming up TTS for " + languageCode);
+        } catch (Exception e) {
+            Log.w(TAG, "TTS warm-up failed", e);
+        }
+    }
+
+    private void onChunkStart(String utteranceId) {
+        PlaybackListener listener;
+        int index;
+        int count;
+        int start;
+        int end;
+        long trace;
+        synchronized (playbackLock) {
+            index = chunkIndexOf(utteranceId);
+            if (index < 0) return;
+            isSpeaking = true;
+            playback.current = index;
+            queueAhead(playback);
+            listener = playbackListener;
+            count = playback.count;
+            start = playback.starts[index];
+            end = playback.ends[index];
+            trace = playback.trace;
+        }
+        latencyTracer.mark(trace, VoiceLatencyTracer.Mark.TTS_START);
+        Log.d(TAG, "TTS started chunk " + (index + 1) + "/" + count);
+        if (listener != null) {
+            listener.onChunkStarted(index, count, start, end);
+        }
+    }
+
+    private void onChunkFinished(String utteranceId, boolean error) {
+        PlaybackListener listener;
+        boolean completed;
+        int index;
+        long trace;
+        synchronized (playbackLock) {
+            index = chunkIndexOf(utteranceId);
+            if (index < 0) return;
+            completed = index == playback.count - 1;
+            trace = playback.trace;
+            if (completed) {
+                // The engine is idle now, so writing the clip does not delay anything the user hears
+                if (playback.cacheKey != null) {
+                    cacheInBackground(playback.text, playback.cacheKey);
+                }
+                playback = null;
+                isSpeaking = false;
+            } else {
+                // An error skips the chunk; keep the queue filled so playback carries on
+                playback.current = index + 1;
+                queueAhead(playback);
+            }
+            listener = playbackListener;
+        }
+        if (completed) {
+            Log.d(TAG, "TTS finished speaking");
+            finishTrace(trace);
+        }
+        if (listener != null) {
+            if (error) listener.onChunkError(index);
+            if (completed) listener.onPlaybackCompleted();
+        }
+    }
+
+    /**
+     * Chunk index of an utterance from the active, unpaused playback, or -1.
+     * Caller holds playbackLock.
+     */
+    private int chunkIndexOf(String utteranceId) {
+        if (playback == null || playback.paused || playback.clip || utteranceId == null) return -1;
+        String prefix = TTS_UTTERANCE_ID + "_" + playback.id + "_";
+        if (!utteranceId.startsWith(prefix)) return -1;
+        try {
+            return Integer.parseInt(utteranceId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public void setPlaybackListener(PlaybackListener listener) {
+        synchronized (playbackLock) {
+            playbackListener = listener;
+        }
+    }
+
+    /**
+     * Speaks repeated phrases from {@code cache}: a phrase requested a second
+     * time is written to the cache once spoken in full, and later requests
+     * with the same locale, rate and pitch play the file.
+     */
+    public void setAudioCache(SpeechAudioCache cache) {
+        synchronized (playbackLock) {
+            audioCache = cache;
+        }
+    }
+
+    private static boolean isCacheUtterance(String utteranceId) {
+        return utteranceId != null && utteranceId.startsWith(CACHE_UTTERANCE_ID);
+    }
+
+    /**
+     * Queues a synthesis of {@code text} into the cache's temporary file.
+     * Caller holds playbackLock.
+     */
+    private void cacheInBackground(String text, String key) {
+        if (audioCache == null || audioCache.contains(key)) return;
+        File temp = audioCache.newTempFile(key);
+        Bundle params = new Bundle();
+        String utteranceId = CACHE_UTTERANCE_ID + key;
+        params.putString(TextToSpeech.Engine.KEY_PARAM_UTTERANCE_ID, utteranceId);
+        int result = textToSpeech.synthesizeToFile(text, params, temp, utteranceId);
+        if (result != TextToSpeech.SUCCESS) {
+            Log.w(TAG, "Could not queue synthesis for the audio cache: " + result);
+            audioCache.discard(temp);
+        }
+    }
+
+    private void onCacheSynthesisFinished(String utteranceId, boolean success) {
+        SpeechAudioCache cache;
+        synchronized (playbackLock) {
+            cache = audioCache;
+        }
+        if (cache == null) return;
+
+        String key = utteranceId.substring(CACHE_UTTERANCE_ID.length());
+        File temp = cache.newTempFile(key);
+        if (success) {
+            cache.commit(key, temp);
+        } else {
+            cache.discard(temp);
+        }
+    }
+
+    /**
+     * Plays a cached clip as a one-chunk playback once the player has loaded
+     * it. Caller holds playbackLock.
+     *
+     * @return false when the clip could not be played and the text should be
+     * synthesized instead
+     */
+    private boolean playClip(File file, String text, String languageCode) {
+        try {
+            if (clipPlayer == null) {
+                clipPlayer = new MediaPlayer();
+                clipPlayer.setOnPreparedListener(mp -> onClipPrepared());
+                clipPlayer.setOnCompletionListener(mp -> onClipFinished(false));
+                clipPlayer.setOnErrorListener((mp, what, extra) -> {
+                    Log.e(TAG, "Cached clip playback failed: " + what + "/" + extra);
+                    onClipFinished(true);
+                    return true;
+                });
+            }
+            clipPlayer.reset();
+            clipPlayer.setDataSource(file.getAbsolutePath());
+            // Loads the file off this thread; onClipPrepared starts it
+            clipPlayer.prepareAsync();
+        } catch (IOException | IllegalStateException e) {
+            Log.w(TAG, "Could not play cached clip " + file, e);
+            return false;
+        }
+
+        playback = new Playback(++playbackCounter, text, new int[]{0}, new int[]{text.length()}, 1);
+        playback.clip = true;
+        playback.preparing = true;
+        playback.languageCode = languageCode;
+        playback.nextToQueue = 1;
+        isSpeaking = true;
+        return true;
+    }
+
+    private void onClipPrepared() {
+        PlaybackListener listener;
+        int length;
+        long trace;
+        synchronized (playbackLock) {
+            if (playback == null || !playback.clip || !playback.preparing) return;
+            playback.preparing = false;
+            // Paused while loading; resumeSpeaking starts it
+            if (playback.paused) return;
+            clipPlayer.start();
+            length = playback.text.length();
+            trace = playback.trace;
+            listener = playbackListener;
+        }
+        latencyTracer.mark(trace, VoiceLatencyTracer.Mark.TTS_START);
+        if (listener != null) {
+            listener.onChunkStarted(0, 1, 0, length);
+        }
+    }
+
+    /**
+     * Speaks a clip that could not be loaded with the engine instead, caching
+     * it again from that. Caller holds playbackLock.
+     *
+     * @return false when the engine refused it too
+     */
+    private boolean synthesizeInstead(Playback clip) {
+        Log.w(TAG, "Cached clip could not be loaded, synthesizing instead");
+        if (audioCache != null && clip.cacheKey != null) {
+            audioCache.evict(clip.cacheKey);
+        }
+        playback = createPlayback(clip.text, clip.languageCode);
+        playback.cacheKey = clip.cacheKey;
+        playback.trace = clip.trace;
+        if (queueAhead(playback)) return true;
+
+        textToSpeech.stop();
+        playback = clip;
+        return false;
+    }
+
+    private void onClipFinished(boolean error) {
+        PlaybackListener listener;
+        long trace;
+        String cacheKey;
+        SpeechAudioCache cache;
+        synchronized (playbackLock) {
+            if (playback == null || !playback.clip) return;
+            if (error && playback.preparing && synthesizeInstead(playback)) return;
+            trace = playback.trace;
+            cacheKey = playback.cacheKey;
+            cache = audioCache;
+            playback = null;
+            isSpeaking = false;
+            listener = playbackListener;
+        }
+        Log.d(TAG, "Cached clip finished");
+        if (error && cache != null && cacheKey != null) {
+            cache.evict(cacheKey);
+        }
+        finishTrace(trace);
+        if (listener != null) {
+            if (error) listener.onChunkError(0);
+            listener.onPlaybackCompleted();
+        }
+    }
+
     public void setSpeechRate(float rate) {
         speechRate = Math.max(0.1f, Math.min(rate, 3.0f));
         if (textToSpeech != null) {
-            textToSpeech.setSpeechRate(speechRate);
+            applySpeechRate(speechRate);
         }
     }
 
@@ -119,6 +596,10 @@ public class SpeechService {
         }
     }
 
+    public boolean isTextToSpeechAvailable() {
+        return isInitialized && textToSpeech != null;
+    }
+
     public float getSpeechRate() {
         return speechRate;
     }
@@ -132,56 +613,98 @@ public class SpeechService {
     }
 
     public void speakText(String text, String languageCode, float rate) {
+        speakText(text, languageCode, rate, VoiceLatencyTracer.NO_INTERACTION);
+    }
+
+    /**
+     * Speaks the last step of voice interaction {@code trace}; the tracer gets
+     * the start and end of playback and the interaction is finished after it.
+     *
+     * @return false when nothing was queued, so no playback callbacks follow
+     */
+    public boolean speakText(String text, String languageCode, float rate, long trace) {
         if (!isInitialized) {
             Log.w(TAG, "TextToSpeech not initialized");
-            return;
+            return false;
         }
 
-        if (text == null || text.trim().isEmpty() || text.length() > MAX_TEXT_LENGTH) {
+        if (text == null || text.trim().isEmpty()) {
             Log.w(TAG, "Invalid text for TTS: length=" + (text != null ? text.length() : 0));
-            return;
+            return false;
         }
 
         try {
-            Locale locale = Locale.forLanguageTag(languageCode);
-            int result = textToSpeech.setLanguage(locale);
-
-            switch (result) {
-                case TextToSpeech.LANG_MISSING_DATA:
-                case TextToSpeech.LANG_NOT_SUPPORTED:
-                    Log.w(TAG, "Language not supported: " + languageCode + ", using default");
-                    textToSpeech.setLanguage(Locale.getDefault());
-                    break;
-                case TextToSpeech.LANG_AVAILABLE:
-                case TextToSpeech.LANG_COUNTRY_AVAILABLE:
-                case TextToSpeech.LANG_COUNTRY_VAR_AVAILABLE:
-                    Log.d(TAG, "Language set successfully: " + languageCode);
-                    break;
-            }
+            // No engine call when the language is already set
+            Locale locale = applyLanguage(languageCode);
 
             // Stop any ongoing speech
             stopSpeaking();
 
             // Set speech rate for this utterance
-            textToSpeech.setSpeechRate(rate);
-
-            Bundle params = new Bundle();
-            params.putString(TextToSpeech.Engine.KEY_PARAM_UTTERANCE_ID, TTS_UTTERANCE_ID);
+            applySpeechRate(rate);
 
-            int speakResult = textToSpeech.speak(text, TextToSpeech.QUEUE_FLUSH, params, TTS_UTTERANCE_ID);
+            synchronized (playbackLock) {
+                // Phrases short enough for one synthesizeToFile call are cacheable
+                String cacheKey = null;
+                if (audioCache != null && text.length() <= TextToSpeech.getMaxSpeechInputLength()) {
+                    String key = SpeechAudioCache.keyFor(text, locale, rate, speechPitch);
+                    File clip = audioCache.get(key);
+                    if (clip != null) {
+                        if (playClip(clip, text, languageCode)) {
+                            Log.d(TAG, "Playing " + text.length() + " chars from the audio cache");
+                            playback.cacheKey = key;
+                            playback.trace = trace;
+                            return true;
+                        }
+                        // Synthesized below and cached again from that
+                        audioCache.evict(key);
+                        cacheKey = key;
+                    } else if (audioCache.markRequested(key)) {
+                        // Spoken before, so worth synthesizing a second time into the cache
+                        cacheKey = key;
+                    }
+                }
 
-            if (speakResult != TextToSpeech.SUCCESS) {
-                Log.e(TAG, "Failed to start TTS with result: " + speakResult);
+                // Sentence-sized chunks: the first one is synthesized and playing
+                // while the rest are still waiting, and there is no length limit
+                playback = createPlayback(text, languageCode);
+                playback.cacheKey = cacheKey;
+                playback.trace = trace;
+                Log.d(TAG, "Speaking " + text.length() + " chars in " + playback.count + " chunks");
+                if (!queueAhead(playback)) {
+                    // Drop chunks queued behind the one that failed
+                    textToSpeech.stop();
+                    playback = null;
+                    return false;
+                }
+                return true;
             }
 
         } catch (Exception e) {
             Log.e(TAG, "Error in speakText", e);
+            synchronized (playbackLock) {
+                playback = null;
+            }
+            return false;
         }
     }
 
     public void stopSpeaking() {
         try {
-            if (isSpeaking && textToSpeech != null) {
+            boolean active;
+            long trace = VoiceLatencyTracer.NO_INTERACTION;
+            synchronized (playbackLock) {
+                active = playback != null;
+                if (active && playback.clip && clipPlayer != null) {
+                    // Unlike stop(), also valid while the clip is still loading
+                    clipPlayer.reset();
+                }
+                if (active) trace = playback.trace;
+                playback = null;
+            }
+            // Keeps the legs up to the start of playback
+            latencyTracer.finish(trace);
+            if ((isSpeaking || active) && textToSpeech != null) {
                 textToSpeech.stop();
                 isSpeaking = false;
                 Log.d(TAG, "TTS stopped");
@@ -191,18 +714,181 @@ public class SpeechService {
         }
     }
 
-    public void startSpeechRecognition(String languageCode, SpeechRecognitionCallback callback) {
-        try {
-            if (isListening) {
-                stopSpeechRecognition();
+    /**
+     * Stops the engine but keeps the playback, so {@link #resumeSpeaking()}
+     * restarts from the beginning of the interrupted chunk.
+     */
+    public void pauseSpeaking() {
+        synchronized (playbackLock) {
+            if (playback == null || playback.paused) return;
+            playback.paused = true;
+            if (playback.clip) {
+                if (!playback.preparing) clipPlayer.pause();
+            } else if (textToSpeech != null) {
+                textToSpeech.stop();
             }
+            isSpeaking = false;
+            Log.d(TAG, "TTS paused at chunk " + (playback.current + 1) + "/" + playback.count);
+        }
+    }
 
+    public void resumeSpeaking() {
+        synchronized (playbackLock) {
+            if (playback == null || !playback.paused || textToSpeech == null) return;
+            if (playback.clip) {
+                // MediaPlayer pauses in place, unlike the engine
+                playback.paused = false;
+                if (!playback.preparing) clipPlayer.start();
+                isSpeaking = true;
+                return;
+            }
+            restartAt(playback, playback.current);
+            Log.d(TAG, "TTS resumed at chunk " + (playback.current + 1) + "/" + playback.count);
+        }
+    }
+
+    /**
+     * Jumps to chunk {@code index}. A paused playback stays paused and will
+     * resume from there.
+     */
+    public void seekToChunk(int index) {
+        synchronized (playbackLock) {
+            if (playback == null || textToSpeech == null) return;
+            int target = Math.max(0, Math.min(index, playback.count - 1));
+            if (playback.clip) {
+                if (!playback.preparing) clipPlayer.seekTo(0);
+            } else if (playback.paused) {
+                playback.current = target;
+                playback.nextToQueue = target;
+            } else {
+                textToSpeech.stop();
+                restartAt(playback, target);
+            }
+        }
+    }
+
+    public boolean isPaused() {
+        synchronized (playbackLock) {
+            return playback != null && playback.paused;
+        }
+    }
+
+    /**
+     * Index of the chunk playing or about to play, or -1 when idle.
+     */
+    public int getCurrentChunk() {
+        synchronized (playbackLock) {
+            return playback != null ? playback.current : -1;
+        }
+    }
+
+    public int getChunkCount() {
+        synchronized (playbackLock) {
+            return playback != null ? playback.count : 0;
+        }
+    }
+
+    /**
+     * Splits text at sentence boundaries, cutting sentences the engine cannot
+     * take in one utterance at the last space before its limit.
+     */
+    private Playback createPlayback(String text, String languageCode) {
+        SentenceSegmenter.Spans spans = SentenceSegmenter.forLanguage(languageCode).segment(text);
+        int maxLength = TextToSpeech.getMaxSpeechInputLength();
+        int[] starts = new int[Math.max(1, spans.size())];
+        int[] ends = new int[starts.length];
+        int count = 0;
+        for (int i = 0; i < spans.size(); i++) {
+            int start = spans.start(i);
+            int end = spans.end(i);
+            while (start < end) {
+                int cut = end;
+                if (end - start > maxLength) {
+                    cut = start + maxLength;
+                    int space = cut;
+                    while (space > start && !Character.isWhitespace(text.charAt(space))) space--;
+                    if (space > start) cut = space;
+                }
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                    ends = Arrays.copyOf(ends, count * 2);
+                }
+                starts[count] = start;
+                ends[count] = cut;
+                count++;
+                start = cut;
+                while (start < end && Character.isWhitespace(text.charAt(start))) start++;
+            }
+        }
+        return new Playback(++playbackCounter, text, starts, ends, count);
+    }
+
+    /**
+     * Clears the engine queue and plays from chunk {@code index}. Caller holds
+     * playbackLock.
+     */
+    private void restartAt(Playback current, int index) {
+        // New id so callbacks still in flight for the flushed chunks are ignored
+        playback = new Playback(++playbackCounter, current.text, current.starts, current.ends, current.count);
+        playback.cacheKey = current.cacheKey;
+        playback.trace = current.trace;
+        playback.current = index;
+        playback.nextToQueue = index;
+        queueAhead(playback);
+    }
+
+    /**
+     * Hands the engine chunks up to {@link #QUEUE_AHEAD} past the current
+     * one. The first chunk of a playback flushes whatever was queued before.
+     * Caller holds playbackLock.
+     *
+     * @return false when the engine refused the current chunk
+     */
+    private boolean queueAhead(Playback target) {
+        boolean queuedCurrent = true;
+        int limit = Math.min(target.count, target.current + 1 + QUEUE_AHEAD);
+        while (target.nextToQueue < limit) {
+            int index = target.nextToQueue++;
+            String utteranceId = target.utteranceId(index);
+            Bundle params = new Bundle();
+            params.putString(TextToSpeech.Engine.KEY_PARAM_UTTERANCE_ID, utteranceId);
+            int queueMode = index == target.current ? TextToSpeech.QUEUE_FLUSH : TextToSpeech.QUEUE_ADD;
+            CharSequence chunk = target.text.subSequence(target.starts[index], target.ends[index]);
+
+            int speakResult = textToSpeech.speak(chunk, queueMode, params, utteranceId);
+            if (speakResult != TextToSpeech.SUCCESS) {
+                Log.e(TAG, "Failed to queue TTS chunk " + index + " with result: " + speakResult);
+                if (index == target.current) queuedCurrent = false;
+            }
+        }
+        return queuedCurrent;
+    }
+
+    /**
+     * Listens once in {@code languageCode}. The recognizer is created on first
+     * use and reused afterwards; starting again while listening cancels the
+     * running session. Call on the main thread.
+     */
+    public void startSpeechRecognition(String languageCode, SpeechRecognitionCallback callback) {
+        try {
             if (!SpeechRecognizer.isRecognitionAvailable(context)) {
                 callback.onError(SpeechRecognizer.ERROR_RECOGNIZER_BUSY);
                 return;
             }
 
-            speechRecognizer = SpeechRecognizer.createSpeechRecognizer(context);
+            if (speechRecognizer == null) {
+                speechRecognizer = SpeechRecognizer.createSpeechRecognizer(context);
+                speechRecognizer.setRecognitionListener(new RecognitionDispatcher());
+                Log.d(TAG, "Speech recognizer created");
+            } else {
+                // Drop any session still running or delivering results, but keep the
+                // recognizer and its service connection
+                speechRecognizer.cancel();
+            }
+
+            recognitionCallback = callback;
+            recognitionTrace = latencyTracer.begin();
+            if (endpointer != null) endpointer.reset();
             isListening = true;
 
             Intent intent = new Intent(RecognizerIntent.ACTION_RECOGNIZE_SPEECH);
@@ -212,87 +898,173 @@ public class SpeechService {
             intent.putExtra(RecognizerIntent.EXTRA_MAX_RESULTS, 1);
             intent.putExtra(RecognizerIntent.EXTRA_CALLING_PACKAGE, context.getPackageName());
 
-            speechRecognizer.setRecognitionListener(new RecognitionListener() {
-                @Override
-                public void onReadyForSpeech(Bundle params) {
-                    Log.d(TAG, "Speech recognition ready");
-                    callback.onReady();
-                }
+            speechRecognizer.startListening(intent);
 
-                @Override
-                public void onBeginningOfSpeech() {
-                    Log.d(TAG, "Speech recognition started");
-                    callback.onSpeaking();
-                }
+        } catch (Exception e) {
+            Log.e(TAG, "Error starting speech recognition", e);
+            callback.onError(SpeechRecognizer.ERROR_CLIENT);
+            isListening = false;
+        }
+    }
 
-                @Override
-                public void onRmsChanged(float rmsdB) {
-                    callback.onRmsChanged(rmsdB);
-                }
+    /**
+     * Forwards recognizer events to the callback of the current session. One
+     * instance serves every session of the reused recognizer.
+     */
+    private class RecognitionDispatcher implements RecognitionListener {
+        @Override
+        public void onReadyForSpeech(Bundle params) {
+            Log.d(TAG, "Speech recognition ready");
+            SpeechRecognitionCallback callback = recognitionCallback;
+            if (callback == null) return;
+            latencyTracer.mark(recognitionTrace, VoiceLatencyTracer.Mark.READY_FOR_SPEECH);
+            callback.onReady();
+        }
 
-                @Override
-                public void onPartialResults(Bundle partialResults) {
-                    ArrayList<String> results = partialResults.getStringArrayList(SpeechRecognizer.RESULTS_RECOGNITION);
-                    if (results != null && !results.isEmpty()) {
-                        String result = results.get(0);
-                        if (result != null && !result.trim().isEmpty()) {
-                            callback.onPartialResult(result);
-                        }
-                    }
+        @Override
+        public void onBeginningOfSpeech() {
+            Log.d(TAG, "Speech recognition started");
+            SpeechRecognitionCallback callback = recognitionCallback;
+            if (callback == null) return;
+            latencyTracer.mark(recognitionTrace, VoiceLatencyTracer.Mark.BEGINNING_OF_SPEECH);
+            if (endpointer != null) endpointer.onSpeechBegin();
+            callback.onSpeaking();
+        }
+
+        @Override
+        public void onRmsChanged(float rmsdB) {
+            SpeechRecognitionCallback callback = recognitionCallback;
+            if (callback == null) return;
+            callback.onRmsChanged(rmsdB);
+
+            if (isListening && endpointer != null && endpointer.onRms(rmsdB, SystemClock.elapsedRealtime())) {
+                // The speaker is done; the recognizer would keep listening to silence
+                Log.d(TAG, "End of speech detected from levels (noise floor "
+                        + endpointer.getNoiseFloor() + " dB), stopping early");
+                latencyTracer.mark(recognitionTrace, VoiceLatencyTracer.Mark.END_OF_SPEECH);
+                stopSpeechRecognition();
+            }
+        }
+
+        @Override
+        public void onPartialResults(Bundle partialResults) {
+            SpeechRecognitionCallback callback = recognitionCallback;
+            if (callback == null) return;
+            ArrayList<String> results = partialResults.getStringArrayList(SpeechRecognizer.RESULTS_RECOGNITION);
+            if (results != null && !results.isEmpty()) {
+                String result = results.get(0);
+                if (result != null && !result.trim().isEmpty()) {
+                    callback.onPartialResult(result);
                 }
+            }
+        }
 
-                @Override
-                public void onResults(Bundle results) {
-                    ArrayList<String> resultList = results.getStringArrayList(SpeechRecognizer.RESULTS_RECOGNITION);
-                    String finalResult = null;
+        @Override
+        public void onResults(Bundle results) {
+            SpeechRecognitionCallback callback = recognitionCallback;
+            recognitionCallback = null;
+            isListening = false;
+            if (callback == null) return;
+            latencyTracer.mark(recognitionTrace, VoiceLatencyTracer.Mark.RESULTS);
 
-                    if (resultList != null && !resultList.isEmpty()) {
-                        finalResult = resultList.get(0);
-                    }
+            ArrayList<String> resultList = results.getStringArrayList(SpeechRecognizer.RESULTS_RECOGNITION);
+            String finalResult = null;
 
-                    if (finalResult != null && !finalResult.trim().isEmpty()) {
-                        Log.d(TAG, "Speech recognition completed: " + finalResult);
-                        callback.onFinalResult(finalResult);
-                    } else {
-                        Log.w(TAG, "Speech recognition returned empty result");
-                        callback.onError(SpeechRecognizer.ERROR_NO_MATCH);
-                    }
+            if (resultList != null && !resultList.isEmpty()) {
+                finalResult = resultList.get(0);
+            }
 
-                    isListening = false;
-                }
+            if (finalResult != null && !finalResult.trim().isEmpty()) {
+                Log.d(TAG, "Speech recognition completed: " + finalResult);
+                callback.onFinalResult(finalResult);
+            } else {
+                Log.w(TAG, "Speech recognition returned empty result");
+                latencyTracer.discard(recognitionTrace);
+                callback.onError(SpeechRecognizer.ERROR_NO_MATCH);
+            }
+        }
 
-                @Override
-                public void onError(int error) {
-                    String errorMessage = getSpeechErrorMessage(error);
-                    Log.e(TAG, "Speech recognition error: " + errorMessage + " (code: " + error + ")");
-                    callback.onError(error);
-                    isListening = false;
-                }
+        @Override
+        public void onError(int error) {
+            String errorMessage = getSpeechErrorMessage(error);
+            Log.e(TAG, "Speech recognition error: " + errorMessage + " (code: " + error + ")");
+            SpeechRecognitionCallback callback = recognitionCallback;
+            recognitionCallback = null;
+            isListening = false;
 
-                @Override
-                public void onBufferReceived(byte[] buffer) {
-                    // Not needed for this implementation
-                }
+            if (error == SpeechRecognizer.ERROR_CLIENT || error == SpeechRecognizer.ERROR_RECOGNIZER_BUSY) {
+                // The recognizer may be unusable; build a fresh one next time
+                destroyRecognizer();
+            }
+            if (callback == null) return;
+            latencyTracer.discard(recognitionTrace);
+            callback.onError(error);
+        }
 
-                @Override
-                public void onEndOfSpeech() {
-                    Log.d(TAG, "Speech recognition ended");
-                    isListening = false;
-                }
+        @Override
+        public void onBufferReceived(byte[] buffer) {
+            // Not needed for this implementation
+        }
 
-                @Override
-                public void onEvent(int eventType, Bundle params) {
-                    // Handle speech recognition events
-                    Log.d(TAG, "Speech recognition event: " + eventType);
-                }
-            });
+        @Override
+        public void onEndOfSpeech() {
+            Log.d(TAG, "Speech recognition ended");
+            isListening = false;
+            if (recognitionCallback != null) {
+                latencyTracer.mark(recognitionTrace, VoiceLatencyTracer.Mark.END_OF_SPEECH);
+            }
+        }
 
-            speechRecognizer.startListening(intent);
+        @Override
+        public void onEvent(int eventType, Bundle params) {
+            // Handle speech recognition events
+            Log.d(TAG, "Speech recognition event: " + eventType);
+        }
+    }
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error starting speech recognition", e);
-            callback.onError(SpeechRecognizer.ERROR_CLIENT);
+    /**
+     * Ends utterances from the audio levels instead of waiting for the
+     * recognizer's end-of-speech timeout. Null turns it off. Call on the main
+     * thread.
+     */
+    public void setEndpointer(RmsEndpointer endpointer) {
+        this.endpointer = endpointer;
+    }
+
+    /**
+     * Latency trace of the current recognition session, or of the last one
+     * once its result was delivered. Pass it on to whatever translates and
+     * speaks the result.
+     */
+    public long getRecognitionTrace() {
+        return recognitionTrace;
+    }
+
+    private void finishTrace(long trace) {
+        latencyTracer.mark(trace, VoiceLatencyTracer.Mark.TTS_DONE);
+        latencyTracer.finish(trace);
+    }
+
+    /**
+     * Abandons the current session without delivering a result.
+     */
+    public void cancelSpeechRecognition() {
+        try {
+            recognitionCallback = null;
+            if (isListening && speechRecognizer != null) {
+                speechRecognizer.cancel();
+                Log.d(TAG, "Speech recognition cancelled");
+            }
             isListening = false;
+        } catch (Exception e) {
+            Log.e(TAG, "Error cancelling speech recognition", e);
+        }
+    }
+
+    private void destroyRecognizer() {
+        if (speechRecognizer != null) {
+            speechRecognizer.destroy();
+            speechRecognizer = null;
         }
     }
 
@@ -347,12 +1119,22 @@ public class SpeechService {
             }
 
             // Release speech recognizer
-            if (speechRecognizer != null) {
-                speechRecognizer.destroy();
-                speechRecognizer = null;
+            recognitionCallback = null;
+            destroyRecognizer();
+
+            // Release the cached clip player
+            synchronized (playbackLock) {
+                if (clipPlayer != null) {
+                    clipPlayer.release();
+                    clipPlayer = null;
+                }
             }
 
             // Reset flags
+            synchronized (playbackLock) {
+                playback = null;
+                playbackListener = null;
+            }
             isInitialized = false;
             isSpeaking = false;
             isListening = false;
@@ -1,13 +1,20 @@
 package com.example.translator.services;
 
+import android.content.Context;
 import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.net.Uri;
 import android.util.Log;
+import com.example.translator.utils.BitmapPool;
+import com.example.translator.utils.SampledImageLoader;
 import com.google.android.gms.tasks.Task;
 import com.google.mlkit.vision.common.InputImage;
 import com.google.mlkit.vision.text.Text;
 import com.google.mlkit.vision.text.TextRecognition;
 import com.google.mlkit.vision.text.TextRecognizer;
 import com.google.mlkit.vision.text.latin.TextRecognizerOptions;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class TextRecognitionService {
 
@@ -17,6 +24,10 @@ public class TextRecognitionService {
 
     private TextRecognizer textRecognizer;
 
+    // Only available when constructed with a Context; used for region requests
+    private SampledImageLoader imageLoader;
+    private ExecutorService decodeExecutor;
+
     public TextRecognitionService() {
         try {
             // Use Latin script recognizer which works better for most languages
@@ -27,11 +38,56 @@ public class TextRecognitionService {
         }
     }
 
+    public TextRecognitionService(Context context) {
+        this();
+        this.imageLoader = new SampledImageLoader(context);
+        this.decodeExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    /**
+     * An image source plus the region to recognize. The region is in the
+     * source's displayed (EXIF-oriented) coordinates; null means the whole
+     * image. Only the region's pixels are decoded or copied, off the caller's
+     * thread.
+     */
+    public static class RegionRequest {
+        final Uri uri;
+        final SampledImageLoader.ImageInfo imageInfo;
+        final Bitmap bitmap;
+        final Rect region;
+
+        private RegionRequest(Uri uri, SampledImageLoader.ImageInfo imageInfo, Bitmap bitmap, Rect region) {
+            this.uri = uri;
+            this.imageInfo = imageInfo;
+            this.bitmap = bitmap;
+            this.region = region;
+        }
+
+        public static RegionRequest forUri(Uri uri, SampledImageLoader.ImageInfo imageInfo, Rect region) {
+            return new RegionRequest(uri, imageInfo, null, region != null ? new Rect(region) : null);
+        }
+
+        public static RegionRequest forBitmap(Bitmap bitmap, Rect region) {
+            return new RegionRequest(null, null, bitmap, region != null ? new Rect(region) : null);
+        }
+
+        @Override
+        public String toString() {
+            return "RegionRequest{" + (uri != null ? uri : "bitmap") + ", region=" + region + '}';
+        }
+    }
+
     public interface TextRecognitionCallback {
         void onSuccess(String recognizedText);
         void onFailure(Exception exception);
     }
 
+    // Same as TextRecognitionCallback, but also hands back the block/line layout
+    public interface TextLayoutCallback {
+        void onSuccess(String recognizedText, Text layout);
+        void onFailure(Exception exception);
+    }
+
     public void recognizeTextFromBitmap(Bitmap bitmap, TextRecognitionCallback callback) {
         if (callback == null) {
             Log.e(TAG, "Callback is null");
@@ -54,12 +110,102 @@ public class TextRecognitionService {
         }
     }
 
+    /**
+     * Decodes (URI) or copies (bitmap) only the requested region on a
+     * background thread, then recognizes it. The intermediate bitmap goes back
+     * to the pool once recognition finishes.
+     */
+    public void recognizeTextInRegion(RegionRequest request, TextRecognitionCallback callback) {
+        if (callback == null) {
+            Log.e(TAG, "Callback is null");
+            return;
+        }
+
+        if (decodeExecutor == null) {
+            callback.onFailure(new IllegalStateException("Region recognition requires a Context"));
+            return;
+        }
+
+        decodeExecutor.execute(() -> {
+            Bitmap regionBitmap;
+            try {
+                regionBitmap = loadRegion(request);
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading region for " + request, e);
+                callback.onFailure(e);
+                return;
+            }
+
+            boolean pooled = regionBitmap != request.bitmap;
+            recognizeTextFromBitmap(regionBitmap, new TextRecognitionCallback() {
+                @Override
+                public void onSuccess(String recognizedText) {
+                    if (pooled) imageLoader.getBitmapPool().release(regionBitmap);
+                    callback.onSuccess(recognizedText);
+                }
+
+                @Override
+                public void onFailure(Exception exception) {
+                    if (pooled) imageLoader.getBitmapPool().release(regionBitmap);
+                    callback.onFailure(exception);
+                }
+            });
+        });
+    }
+
+    private Bitmap loadRegion(RegionRequest request) throws Exception {
+        if (request.uri != null) {
+            SampledImageLoader.ImageInfo info = request.imageInfo != null
+                    ? request.imageInfo
+                    : imageLoader.readImageInfo(request.uri);
+            Rect region = request.region != null
+                    ? request.region
+                    : new Rect(0, 0, info.getOrientedWidth(), info.getOrientedHeight());
+            return imageLoader.decodeRegion(request.uri, info, region, SampledImageLoader.OCR_LONG_EDGE);
+        }
+
+        Bitmap source = request.bitmap;
+        if (!isValidBitmap(source)) {
+            throw new IllegalArgumentException("Invalid bitmap");
+        }
+
+        Rect region = request.region != null ? new Rect(request.region) : null;
+        if (region == null || (region.width() == source.getWidth() && region.height() == source.getHeight())) {
+            return source;
+        }
+        if (!region.intersect(0, 0, source.getWidth(), source.getHeight()) || region.isEmpty()) {
+            throw new IllegalArgumentException("Region outside bitmap: " + region);
+        }
+
+        BitmapPool pool = imageLoader.getBitmapPool();
+        return pool.crop(source, region);
+    }
+
     public void recognizeTextFromImage(InputImage inputImage, TextRecognitionCallback callback) {
         if (callback == null) {
             Log.e(TAG, "Callback is null");
             return;
         }
 
+        recognizeTextWithLayout(inputImage, new TextLayoutCallback() {
+            @Override
+            public void onSuccess(String recognizedText, Text layout) {
+                callback.onSuccess(recognizedText);
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                callback.onFailure(exception);
+            }
+        });
+    }
+
+    public void recognizeTextWithLayout(InputImage inputImage, TextLayoutCallback callback) {
+        if (callback == null) {
+            Log.e(TAG, "Callback is null");
+            return;
+        }
+
         if (inputImage == null) {
             Log.e(TAG, "InputImage is null");
             callback.onFailure(new IllegalArgumentException("InputImage is null"));
@@ -98,7 +244,7 @@ public class TextRecognitionService {
                     }
 
                     Log.d(TAG, "Text recognition successful: " + cleanedText.length() + " chars");
-                    callback.onSuccess(cleanedText);
+                    callback.onSuccess(cleanedText, result);
 
                 } catch (Exception e) {
                     Log.e(TAG, "Error processing recognition result", e);
@@ -180,6 +326,9 @@ public class TextRecognitionService {
                 textRecognizer.close();
                 Log.d(TAG, "TextRecognitionService closed successfully");
             }
+            if (decodeExecutor != null) {
+                decodeExecutor.shutdownNow();
+            }
         } catch (Exception e) {
             Log.e(TAG, "Error closing TextRecognitionService", e);
         }
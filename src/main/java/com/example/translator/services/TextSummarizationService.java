@@ -2,23 +2,53 @@ package com.example.translator.services;
 
 import android.content.Context;
 import android.util.Log;
+import com.example.translator.services.summarization.KeywordAutomaton;
+import com.example.translator.services.summarization.LanguageProfile;
+import com.example.translator.services.summarization.MapReduceSummarizer;
+import com.example.translator.services.summarization.SummaryAnalysis;
+import com.example.translator.services.summarization.TextRankSummarizer;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
 
 public class TextSummarizationService {
 
     private static final String TAG = "TextSummarizationService";
     private static final long SUMMARIZATION_TIMEOUT = 30000L; // 30 seconds
+    // Longer text is summarized section by section in parallel
     private static final int MAX_TEXT_LENGTH = 10000;
     private static final int MIN_TEXT_LENGTH = 100;
+    private static final int TEXT_RANK_SENTENCES = 4;
+    private static final int KEY_PHRASE_COUNT = 8;
+    // Recent texts; switching summary type or target language reuses their analysis
+    private static final int ANALYSIS_CACHE_SIZE = 8;
+
+    // Compiled once; scoring scans each sentence a single time. English cue words only
+    private static final KeywordAutomaton SUMMARY_KEYWORDS = new KeywordAutomaton(
+            "important", "significant", "key", "main", "primary", "essential",
+            "critical", "major", "fundamental", "crucial", "vital", "notable",
+            "first", "second", "third", "finally", "conclusion", "result",
+            "because", "therefore", "however", "although", "moreover"
+    );
 
     private TranslationService translationService;
+    private final TextRankSummarizer textRankSummarizer = new TextRankSummarizer();
+    private final MapReduceSummarizer mapReduceSummarizer = new MapReduceSummarizer(ForkJoinPool.commonPool());
+
+    // Keyed by language and text hash, access ordered for LRU eviction
+    private final LinkedHashMap<String, SummaryAnalysis> analysisCache =
+            new LinkedHashMap<String, SummaryAnalysis>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, SummaryAnalysis> eldest) {
+                    return size() > ANALYSIS_CACHE_SIZE;
+                }
+            };
 
     public enum SummaryType {
         BRIEF,          // 1-2 sentences
         DETAILED,       // 3-5 sentences
         BULLET_POINTS,  // Key points as bullets
-        KEY_PHRASES     // Important terms
+        KEY_PHRASES,    // Important terms
+        TEXT_RANK       // Most central sentences by similarity graph
     }
 
     public static class SummaryResult {
@@ -50,188 +80,174 @@ public class TextSummarizationService {
         this.translationService = new TranslationService(context);
     }
 
-    public void summarizeText(String text, SummaryType summaryType, String targetLanguage,
+    /**
+     * Summarizes {@code text} in its own language, then translates only the
+     * summary into {@code targetLanguage}. Pass the untranslated source text;
+     * the translator then sees a fraction of the document.
+     */
+    public void summarizeText(String text, SummaryType summaryType, String sourceLanguage, String targetLanguage,
                               SummarizationCallback callback) {
         if (!isValidInput(text)) {
-            callback.onFailure(new SummaryResult.Error("Text is too short or too long for summarization"));
+            callback.onFailure(new SummaryResult.Error("Text is too short for summarization"));
             return;
         }
 
         try {
-            String summary;
-            switch (summaryType) {
-                case BRIEF:
-                    summary = createBriefSummary(text);
-                    break;
-                case DETAILED:
-                    summary = createDetailedSummary(text);
-                    break;
-                case BULLET_POINTS:
-                    summary = createBulletPointSummary(text);
-                    break;
-                case KEY_PHRASES:
-                    summary = extractKeyPhrases(text);
-                    break;
-                default:
-                    summary = createBriefSummary(text);
-            }
-
-            // Translate summary if needed
-            if (!"en".equals(targetLanguage)) {
-                translationService.translateText(summary, "en", targetLanguage,
-                        new TranslationService.TranslationCallback() {
-                            @Override
-                            public void onSuccess(String translatedText) {
-                                callback.onSuccess(new SummaryResult.Success(translatedText, summaryType));
-                            }
-
-                            @Override
-                            public void onFailure(Exception exception) {
-                                // Use original summary if translation fails
-                                callback.onSuccess(new SummaryResult.Success(summary, summaryType));
-                            }
-                        });
+            SummaryAnalysis analysis = getAnalysis(text, LanguageProfile.forLanguage(sourceLanguage));
+            String summary = analysis.getOutput(summaryType.name());
+            if (summary == null) {
+                summary = createSummary(analysis, summaryType);
+                analysis.putOutput(summaryType.name(), summary);
             } else {
-                callback.onSuccess(new SummaryResult.Success(summary, summaryType));
+                Log.d(TAG, "Reusing " + summaryType + " summary");
             }
 
+            deliver(analysis, summary, summaryType, analysis.getProfile(), targetLanguage, callback);
         } catch (Exception e) {
             Log.e(TAG, "Summarization failed", e);
             callback.onFailure(new SummaryResult.Error("Failed to summarize text: " + e.getMessage()));
         }
     }
 
-    private boolean isValidInput(String text) {
-        if (text == null) return false;
-        String cleanText = text.trim();
-        return cleanText.length() >= MIN_TEXT_LENGTH && cleanText.length() <= MAX_TEXT_LENGTH;
+    /**
+     * Starts a summary of a document that arrives page by page, e.g. from a
+     * batch. Pages are ranked in the background as they are added.
+     */
+    public MapReduceSummarizer.Session newPageSession(String sourceLanguage) {
+        return mapReduceSummarizer.newSession(LanguageProfile.forLanguage(sourceLanguage));
     }
 
-    private String createBriefSummary(String text) {
-        List<String> sentences = splitIntoSentences(text);
-        List<String> importantSentences = extractImportantSentences(sentences, 2);
-        return String.join(" ", importantSentences);
-    }
+    /**
+     * Summarizes the pages added to {@code session} so far. Sentence summary
+     * types only; key phrases need the full text. Blocks while pages are
+     * still being ranked, so call off the main thread.
+     */
+    public void summarizePages(MapReduceSummarizer.Session session, SummaryType summaryType, String targetLanguage,
+                               SummarizationCallback callback) {
+        if (summaryType == SummaryType.KEY_PHRASES) {
+            callback.onFailure(new SummaryResult.Error("Key phrases need the full text"));
+            return;
+        }
 
-    private String createDetailedSummary(String text) {
-        List<String> sentences = splitIntoSentences(text);
-        List<String> importantSentences = extractImportantSentences(sentences, 5);
-        return String.join(" ", importantSentences);
+        try {
+            LanguageProfile profile = session.getProfile();
+            List<String> sentences = session.summarize(sentenceCount(summaryType));
+            if (sentences.isEmpty()) {
+                callback.onFailure(new SummaryResult.Error("No text to summarize yet"));
+                return;
+            }
+            String summary = formatSentences(sentences, summaryType, profile);
+            deliver(null, summary, summaryType, profile, targetLanguage, callback);
+        } catch (Exception e) {
+            Log.e(TAG, "Page summarization failed", e);
+            callback.onFailure(new SummaryResult.Error("Failed to summarize text: " + e.getMessage()));
+        }
     }
 
-    private String createBulletPointSummary(String text) {
-        List<String> sentences = splitIntoSentences(text);
-        List<String> keyPoints = extractImportantSentences(sentences, 4);
+    /**
+     * Translates the summary if needed and hands it to the callback. With an
+     * analysis, translations are cached on it per type and target language.
+     */
+    private void deliver(SummaryAnalysis analysis, String summary, SummaryType summaryType, LanguageProfile profile,
+                         String targetLanguage, SummarizationCallback callback) {
+        // Translate summary if needed
+        String summaryLanguage = profile.getLanguageCode();
+        if (targetLanguage != null && !summaryLanguage.equals(targetLanguage)) {
+            String translationKey = summaryType.name() + ":" + targetLanguage;
+            String cached = analysis != null ? analysis.getOutput(translationKey) : null;
+            if (cached != null) {
+                Log.d(TAG, "Reusing " + summaryType + " summary translated to " + targetLanguage);
+                callback.onSuccess(new SummaryResult.Success(cached, summaryType));
+                return;
+            }
 
-        StringBuilder result = new StringBuilder();
-        for (String sentence : keyPoints) {
-            result.append("• ").append(sentence.trim()).append("\n");
+            Log.d(TAG, "Translating " + summary.length() + " summary chars" +
+                    (analysis != null ? " of " + analysis.getText().length() : "") + " to " + targetLanguage);
+            translationService.translateText(summary, summaryLanguage, targetLanguage,
+                    new TranslationService.TranslationCallback() {
+                        @Override
+                        public void onSuccess(String translatedText) {
+                            if (analysis != null) {
+                                analysis.putOutput(translationKey, translatedText);
+                            }
+                            callback.onSuccess(new SummaryResult.Success(translatedText, summaryType));
+                        }
+
+                        @Override
+                        public void onFailure(Exception exception) {
+                            // Use original summary if translation fails
+                            callback.onSuccess(new SummaryResult.Success(summary, summaryType));
+                        }
+                    });
+        } else {
+            callback.onSuccess(new SummaryResult.Success(summary, summaryType));
         }
-
-        return result.toString().trim();
     }
 
-    private String extractKeyPhrases(String text) {
-        String[] words = text.toLowerCase()
-                .replaceAll("[^a-zA-Z\\s]", "")
-                .split("\\s+");
-
-        Map<String, Integer> wordFrequency = new HashMap<>();
-        for (String word : words) {
-            if (word.length() > 3) {
-                wordFrequency.put(word, wordFrequency.getOrDefault(word, 0) + 1);
+    private SummaryAnalysis getAnalysis(String text, LanguageProfile profile) {
+        String key = profile.getLanguageCode() + ":" + text.length() + ":" + text.hashCode();
+        synchronized (analysisCache) {
+            SummaryAnalysis analysis = analysisCache.get(key);
+            // Hash collisions are unlikely, but a wrong summary would be worse than a recount
+            if (analysis == null || !analysis.matches(text, profile)) {
+                analysis = new SummaryAnalysis(text, profile, textRankSummarizer,
+                        profile == LanguageProfile.ENGLISH ? SUMMARY_KEYWORDS : null);
+                analysisCache.put(key, analysis);
             }
+            return analysis;
         }
-
-        List<String> topWords = wordFrequency.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                .limit(8)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
-
-        return "Key terms: " + String.join(", ", topWords);
     }
 
-    private List<String> splitIntoSentences(String text) {
-        String[] sentences = text.split("[.!?]+");
-        List<String> result = new ArrayList<>();
-
-        for (String sentence : sentences) {
-            String trimmed = sentence.trim();
-            if (!trimmed.isEmpty() && trimmed.length() > 10) {
-                result.add(trimmed);
-            }
+    private String createSummary(SummaryAnalysis analysis, SummaryType summaryType) {
+        if (summaryType == SummaryType.KEY_PHRASES) {
+            return "Key phrases: " + String.join(", ", analysis.getKeyPhrases(KEY_PHRASE_COUNT));
         }
 
-        return result;
+        LanguageProfile profile = analysis.getProfile();
+        List<String> sentences;
+        if (analysis.getText().length() > MAX_TEXT_LENGTH) {
+            Log.d(TAG, "Summarizing " + analysis.getText().length() + " chars in sections");
+            sentences = analysis.getSections(mapReduceSummarizer).summarize(sentenceCount(summaryType));
+        } else if (summaryType == SummaryType.TEXT_RANK) {
+            sentences = analysis.selectByTextRank(TEXT_RANK_SENTENCES);
+        } else {
+            sentences = analysis.selectByHeuristic(sentenceCount(summaryType));
+        }
+        return formatSentences(sentences, summaryType, profile);
     }
 
-    private List<String> extractImportantSentences(List<String> sentences, int maxSentences) {
-        if (sentences.size() <= maxSentences) {
-            return sentences;
+    private static int sentenceCount(SummaryType summaryType) {
+        switch (summaryType) {
+            case DETAILED:
+                return 5;
+            case BULLET_POINTS:
+                return 4;
+            case TEXT_RANK:
+                return TEXT_RANK_SENTENCES;
+            default:
+                return 2;
         }
+    }
 
-        List<ScoredSentence> scoredSentences = new ArrayList<>();
-
-        for (int i = 0; i < sentences.size(); i++) {
-            String sentence = sentences.get(i);
-
-            // Simple scoring based on sentence length and position
-            double positionScore;
-            if (i == 0) {
-                positionScore = 3.0; // First sentence is important
-            } else if (i == sentences.size() - 1) {
-                positionScore = 2.0; // Last sentence
-            } else if (i < sentences.size() * 0.3) {
-                positionScore = 1.5; // Early sentences
-            } else {
-                positionScore = 1.0;
-            }
-
-            double lengthScore;
-            if (sentence.length() < 50) {
-                lengthScore = 0.5; // Too short
-            } else if (sentence.length() > 200) {
-                lengthScore = 0.7; // Too long
-            } else {
-                lengthScore = 1.0; // Good length
-            }
-
-            double keywordScore = countKeywords(sentence);
-            double totalScore = positionScore * lengthScore * (1 + keywordScore * 0.1);
-
-            scoredSentences.add(new ScoredSentence(sentence, totalScore, i));
+    private static String formatSentences(List<String> sentences, SummaryType summaryType, LanguageProfile profile) {
+        if (summaryType == SummaryType.BULLET_POINTS) {
+            return formatBullets(sentences);
         }
+        return profile.joinSentences(sentences);
+    }
 
-        // Sort by score and take top sentences
-        List<ScoredSentence> topSentences = scoredSentences.stream()
-                .sorted((a, b) -> Double.compare(b.score, a.score))
-                .limit(maxSentences)
-                .collect(Collectors.toList());
-
-        // Sort back by original order to maintain flow
-        return topSentences.stream()
-                .sorted(Comparator.comparingInt(s -> s.originalIndex))
-                .map(s -> s.sentence)
-                .collect(Collectors.toList());
+    private boolean isValidInput(String text) {
+        if (text == null) return false;
+        return text.trim().length() >= MIN_TEXT_LENGTH;
     }
 
-    private int countKeywords(String sentence) {
-        String[] keywords = {
-                "important", "significant", "key", "main", "primary", "essential",
-                "critical", "major", "fundamental", "crucial", "vital", "notable",
-                "first", "second", "third", "finally", "conclusion", "result",
-                "because", "therefore", "however", "although", "moreover"
-        };
-
-        String lowerSentence = sentence.toLowerCase();
-        int count = 0;
-        for (String keyword : keywords) {
-            if (lowerSentence.contains(keyword)) {
-                count++;
-            }
+    private static String formatBullets(List<String> sentences) {
+        StringBuilder result = new StringBuilder();
+        for (String sentence : sentences) {
+            result.append("• ").append(sentence.trim()).append("\n");
         }
-        return count;
+
+        return result.toString().trim();
     }
 
     public void close() {
@@ -239,16 +255,4 @@ public class TextSummarizationService {
             translationService.closeTranslators();
         }
     }
-
-    private static class ScoredSentence {
-        final String sentence;
-        final double score;
-        final int originalIndex;
-
-        ScoredSentence(String sentence, double score, int originalIndex) {
-            this.sentence = sentence;
-            this.score = score;
-            this.originalIndex = originalIndex;
-        }
-    }
 }
\ No newline at end of file
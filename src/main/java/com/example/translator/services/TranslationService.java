@@ -137,6 +137,40 @@ public class TranslationService {
         }
     }
 
+    /**
+     * Gets a language pair ready ahead of use: creates the translator,
+     * downloads its model if needed and runs a tiny translation so the model
+     * is loaded before the first real request.
+     */
+    public void warmUp(String sourceLanguage, String targetLanguage) {
+        if (sourceLanguage == null || targetLanguage == null || sourceLanguage.equals(targetLanguage)) {
+            return;
+        }
+
+        String translatorKey = sourceLanguage + "_" + targetLanguage;
+        Translator translator = getOrCreateTranslator(sourceLanguage, targetLanguage, translatorKey);
+        if (translator == null) {
+            Log.w(TAG, "Cannot warm up translator for " + translatorKey);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        downloadModelIfNeeded(translator, translatorKey, new ModelDownloadCallback() {
+            @Override
+            public void onSuccess() {
+                translator.translate("ok")
+                        .addOnSuccessListener(result -> Log.d(TAG, "Translator " + translatorKey + " warm after "
+                                + (System.currentTimeMillis() - start) + " ms"))
+                        .addOnFailureListener(e -> Log.w(TAG, "Warm-up translation failed for " + translatorKey, e));
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                Log.w(TAG, "Warm-up model download failed for " + translatorKey, e);
+            }
+        });
+    }
+
     private void performTranslation(Translator translator, String text, TranslationCallback callback) {
         try {
             Log.d(TAG, "Performing translation...");
@@ -0,0 +1,225 @@
+package com.example.translator.services;
+
+import android.os.SystemClock;
+import android.util.Log;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Timestamps along the voice path (recognizer, translation, speech) for one
+ * interaction at a time, and percentiles of the time between them over the
+ * recent interactions.
+ *
+ * {@link #begin} hands out an interaction id when recognition starts; the
+ * code handling that interaction marks it as it moves along and finishes it
+ * once the result was translated or spoken. Each mark is kept the first time
+ * it is reported, so marking from every partial result is fine. Interactions
+ * that never finish are dropped, and only finished ones count. Thread safe.
+ */
+public class VoiceLatencyTracer {
+
+    private static final String TAG = "VoiceLatencyTracer";
+
+    public static final long NO_INTERACTION = 0L;
+
+    // Latencies kept per leg; percentiles describe the most recent ones
+    static final int WINDOW = 200;
+    // Interactions in flight at once; older ones are abandoned
+    private static final int MAX_OPEN = 4;
+    private static final long MAX_AGE_MS = 60_000L;
+
+    public enum Mark {
+        LISTEN_START,
+        READY_FOR_SPEECH,
+        BEGINNING_OF_SPEECH,
+        END_OF_SPEECH,
+        RESULTS,
+        TRANSLATION_START,
+        TRANSLATION_END,
+        TTS_START,
+        TTS_DONE
+    }
+
+    /**
+     * Time between two marks of the same interaction.
+     */
+    private static class Leg {
+        final String name;
+        final Mark from;
+        final Mark to;
+        final long[] samples = new long[WINDOW];
+        int count;
+
+        Leg(String name, Mark from, Mark to) {
+            this.name = name;
+            this.from = from;
+            this.to = to;
+        }
+
+        void add(long millis) {
+            samples[count % WINDOW] = millis;
+            count++;
+        }
+    }
+
+    public static class LegStats {
+        public final String name;
+        public final int count;
+        public final long p50;
+        public final long p90;
+        public final long p99;
+        public final long max;
+
+        LegStats(String name, int count, long p50, long p90, long p99, long max) {
+            this.name = name;
+            this.count = count;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.max = max;
+        }
+    }
+
+    private static VoiceLatencyTracer instance;
+
+    private final Leg[] legs = {
+            new Leg("Recognizer start", Mark.LISTEN_START, Mark.READY_FOR_SPEECH),
+            new Leg("End of speech to results", Mark.END_OF_SPEECH, Mark.RESULTS),
+            new Leg("Translation", Mark.TRANSLATION_START, Mark.TRANSLATION_END),
+            new Leg("Results to translation", Mark.RESULTS, Mark.TRANSLATION_END),
+            new Leg("Translation to speech", Mark.TRANSLATION_END, Mark.TTS_START),
+            new Leg("End of speech to translation", Mark.END_OF_SPEECH, Mark.TRANSLATION_END),
+            new Leg("End of speech to speaker", Mark.END_OF_SPEECH, Mark.TTS_START),
+            new Leg("Playback", Mark.TTS_START, Mark.TTS_DONE)
+    };
+
+    // Mark times by interaction id, oldest interaction first; -1 when not reached
+    private final LinkedHashMap<Long, long[]> open = new LinkedHashMap<Long, long[]>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, long[]> eldest) {
+            return size() > MAX_OPEN;
+        }
+    };
+    private long lastInteraction = NO_INTERACTION;
+    private int finishedCount = 0;
+
+    public static synchronized VoiceLatencyTracer getInstance() {
+        if (instance == null) {
+            instance = new VoiceLatencyTracer();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts an interaction and marks {@link Mark#LISTEN_START}.
+     */
+    public synchronized long begin() {
+        long now = now();
+        // Drop interactions nobody finished, e.g. the result was never translated
+        open.values().removeIf(times -> now - times[Mark.LISTEN_START.ordinal()] > MAX_AGE_MS);
+
+        long interaction = ++lastInteraction;
+        long[] times = new long[Mark.values().length];
+        Arrays.fill(times, -1L);
+        times[Mark.LISTEN_START.ordinal()] = now;
+        open.put(interaction, times);
+        return interaction;
+    }
+
+    public void mark(long interaction, Mark mark) {
+        mark(interaction, mark, now());
+    }
+
+    synchronized void mark(long interaction, Mark mark, long timeMs) {
+        long[] times = open.get(interaction);
+        if (times != null && times[mark.ordinal()] < 0) {
+            times[mark.ordinal()] = timeMs;
+        }
+    }
+
+    /**
+     * Adds the legs the interaction completed to the statistics.
+     */
+    public synchronized void finish(long interaction) {
+        long[] times = open.remove(interaction);
+        if (times == null) return;
+
+        StringBuilder line = new StringBuilder("Interaction ").append(interaction).append(':');
+        for (Leg leg : legs) {
+            long from = times[leg.from.ordinal()];
+            long to = times[leg.to.ordinal()];
+            if (from < 0 || to < from) continue;
+            leg.add(to - from);
+            line.append(' ').append(leg.name).append(' ').append(to - from).append(" ms,");
+        }
+        finishedCount++;
+        Log.d(TAG, line.toString());
+    }
+
+    /**
+     * Forgets an interaction that failed, so errors do not skew the numbers.
+     */
+    public synchronized void discard(long interaction) {
+        open.remove(interaction);
+    }
+
+    public synchronized int getFinishedCount() {
+        return finishedCount;
+    }
+
+    /**
+     * Percentiles per leg over the last {@link #WINDOW} interactions that
+     * reached it. Legs without samples are left out.
+     */
+    public synchronized List<LegStats> getStats() {
+        List<LegStats> stats = new ArrayList<>();
+        for (Leg leg : legs) {
+            int size = Math.min(leg.count, WINDOW);
+            if (size == 0) continue;
+            long[] sorted = Arrays.copyOf(leg.samples, size);
+            Arrays.sort(sorted);
+            stats.add(new LegStats(leg.name, leg.count, percentile(sorted, 50), percentile(sorted, 90),
+                    percentile(sorted, 99), sorted[size - 1]));
+        }
+        return stats;
+    }
+
+    /**
+     * The statistics as text, one leg per line, or an empty string when
+     * nothing was measured yet.
+     */
+    public String formatStats() {
+        StringBuilder report = new StringBuilder();
+        for (LegStats leg : getStats()) {
+            if (report.length() > 0) report.append("\n\n");
+            report.append(leg.name).append(" (").append(leg.count).append(")\n")
+                    .append(String.format(Locale.US, "p50 %d ms, p90 %d ms, p99 %d ms, max %d ms",
+                            leg.p50, leg.p90, leg.p99, leg.max));
+        }
+        return report.toString();
+    }
+
+    public synchronized void reset() {
+        open.clear();
+        for (Leg leg : legs) {
+            leg.count = 0;
+        }
+        finishedCount = 0;
+    }
+
+    /**
+     * Nearest-rank percentile of sorted samples.
+     */
+    static long percentile(long[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(rank, sorted.length) - 1)];
+    }
+
+    private static long now() {
+        return SystemClock.elapsedRealtime();
+    }
+}
\ No newline at end of file
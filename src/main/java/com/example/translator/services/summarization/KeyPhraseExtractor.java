@@ -0,0 +1,382 @@
+package com.example.translator.services.summarization;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * RAKE-style key phrase extraction. Candidate phrases are runs of content
+ * words between stopwords and punctuation; each word scores degree /
+ * frequency, a phrase scores the sum of its words, weighted by how often the
+ * phrase recurs.
+ *
+ * The text is tokenized in a single pass without lowercasing or copying it.
+ * Words and phrases are interned into open-addressing tables over primitive
+ * arrays, and the top phrases come from a bounded min-heap, so no per-word
+ * objects are created and nothing is sorted beyond the K results. Scripts
+ * without spaces are split into words with {@link BreakIterator}.
+ *
+ * Not thread safe; use one instance per call or per thread.
+ */
+public class KeyPhraseExtractor {
+
+    public static final int MAX_PHRASE_WORDS = 3;
+
+    private static final int EMPTY = -1;
+
+    // Words: id -> first occurrence, hash and statistics
+    private int wordCount;
+    private int[] wordSlots;
+    private int[] wordHash;
+    private int[] wordStart;
+    private int[] wordEnd;
+    private int[] wordFrequency;
+    private int[] wordDegree;
+
+    // Phrases: id -> word ids (MAX_PHRASE_WORDS per phrase) and statistics
+    private int phraseCount;
+    private int[] phraseSlots;
+    private int[] phraseHash;
+    private int[] phraseWords;
+    private int[] phraseLength;
+    private int[] phraseFrequency;
+
+    // Tokens of the current text: word id, or EMPTY for a phrase break
+    private int tokenCount;
+    private int[] tokens;
+
+    private String text;
+
+    public KeyPhraseExtractor() {
+        reset(64);
+    }
+
+    /**
+     * Up to {@code maxPhrases} key phrases of {@code text}, best first, in
+     * lowercase with words separated the way the language separates them.
+     */
+    public List<String> extract(String text, LanguageProfile profile, int maxPhrases) {
+        this.text = text;
+        reset(Math.max(64, text.length() / 4));
+        try {
+            if (profile.usesCharacterTokens()) {
+                tokenizeWithBreakIterator(profile);
+            } else {
+                tokenizeSpaced(profile);
+            }
+            collectPhrases();
+            return topPhrases(maxPhrases, profile);
+        } finally {
+            this.text = null;
+        }
+    }
+
+    private void reset(int expectedWords) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedWords) * 2 - 1) * 2;
+        wordCount = 0;
+        wordSlots = newSlots(capacity);
+        wordHash = new int[capacity / 2];
+        wordStart = new int[capacity / 2];
+        wordEnd = new int[capacity / 2];
+        wordFrequency = new int[capacity / 2];
+        wordDegree = new int[capacity / 2];
+
+        phraseCount = 0;
+        phraseSlots = newSlots(capacity);
+        phraseHash = new int[capacity / 2];
+        phraseWords = new int[capacity / 2 * MAX_PHRASE_WORDS];
+        phraseLength = new int[capacity / 2];
+        phraseFrequency = new int[capacity / 2];
+
+        tokenCount = 0;
+        tokens = new int[Math.max(16, expectedWords)];
+    }
+
+    // Words are letter/digit runs; anything but spaces between them breaks a phrase
+    private void tokenizeSpaced(LanguageProfile profile) {
+        int length = text.length();
+        int start = -1;
+        int hash = 0;
+        boolean hasLetter = false;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : '.';
+            if (Character.isLetterOrDigit(c) || (start >= 0 && isWordJoiner(c, i, length))) {
+                if (start < 0) {
+                    start = i;
+                    hash = LanguageProfile.emptyHash();
+                    hasLetter = false;
+                }
+                hash = LanguageProfile.mix(hash, c);
+                hasLetter |= Character.isLetter(c);
+                continue;
+            }
+
+            if (start >= 0) {
+                addWordToken(start, i, hash, hasLetter, profile);
+                start = -1;
+            }
+            if (!Character.isWhitespace(c)) {
+                addToken(EMPTY);
+            }
+        }
+    }
+
+    // Apostrophes and hyphens inside a word ("don't", "state-of-the-art")
+    private boolean isWordJoiner(char c, int index, int length) {
+        return (c == '\'' || c == '\u2019' || c == '-') && index + 1 < length
+                && Character.isLetterOrDigit(text.charAt(index + 1));
+    }
+
+    private void tokenizeWithBreakIterator(LanguageProfile profile) {
+        BreakIterator words = BreakIterator.getWordInstance(new Locale(profile.getLanguageCode()));
+        words.setText(text);
+        int start = words.first();
+        for (int end = words.next(); end != BreakIterator.DONE; start = end, end = words.next()) {
+            boolean isWord = false;
+            boolean hasLetter = false;
+            int hash = LanguageProfile.emptyHash();
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (Character.isLetterOrDigit(c)) {
+                    isWord = true;
+                    hasLetter |= Character.isLetter(c);
+                }
+                hash = LanguageProfile.mix(hash, c);
+            }
+
+            if (isWord) {
+                addWordToken(start, end, hash, hasLetter, profile);
+            } else if (!isWhitespace(start, end)) {
+                addToken(EMPTY);
+            }
+        }
+    }
+
+    private void addWordToken(int start, int end, int hash, boolean hasLetter, LanguageProfile profile) {
+        // Stopwords, bare numbers and fragments end the current phrase
+        if (!hasLetter || end - start < profile.getMinTokenLength() || profile.isStopwordHash(hash)) {
+            addToken(EMPTY);
+            return;
+        }
+        addToken(internWord(start, end, hash));
+    }
+
+    private void addToken(int token) {
+        // Collapse consecutive breaks
+        if (token == EMPTY && (tokenCount == 0 || tokens[tokenCount - 1] == EMPTY)) return;
+        if (tokenCount == tokens.length) tokens = Arrays.copyOf(tokens, tokenCount * 2);
+        tokens[tokenCount++] = token;
+    }
+
+    private void collectPhrases() {
+        int[] phrase = new int[MAX_PHRASE_WORDS];
+        int runStart = 0;
+        for (int i = 0; i <= tokenCount; i++) {
+            if (i < tokenCount && tokens[i] != EMPTY) continue;
+
+            // Long runs are cut into phrases of at most MAX_PHRASE_WORDS words
+            for (int from = runStart; from < i; from += MAX_PHRASE_WORDS) {
+                int length = Math.min(MAX_PHRASE_WORDS, i - from);
+                for (int w = 0; w < length; w++) {
+                    phrase[w] = tokens[from + w];
+                    wordFrequency[phrase[w]]++;
+                    wordDegree[phrase[w]] += length;
+                }
+                int id = internPhrase(phrase, length);
+                phraseFrequency[id]++;
+            }
+            runStart = i + 1;
+        }
+    }
+
+    private List<String> topPhrases(int maxPhrases, LanguageProfile profile) {
+        int k = Math.min(maxPhrases, phraseCount);
+        double[] scores = new double[phraseCount];
+        for (int p = 0; p < phraseCount; p++) {
+            double score = 0;
+            for (int w = 0; w < phraseLength[p]; w++) {
+                int word = phraseWords[p * MAX_PHRASE_WORDS + w];
+                score += (double) wordDegree[word] / wordFrequency[word];
+            }
+            // Recurring phrases beat long one-offs
+            scores[p] = score * Math.log(1 + phraseFrequency[p]);
+        }
+
+        // Min-heap of the best k phrase ids; ties keep the earlier phrase
+        int[] heap = new int[k];
+        int size = 0;
+        for (int p = 0; p < phraseCount; p++) {
+            if (size < k) {
+                heap[size] = p;
+                siftUp(heap, size++, scores);
+            } else if (k > 0 && better(p, heap[0], scores)) {
+                heap[0] = p;
+                siftDown(heap, 0, size, scores);
+            }
+        }
+
+        String[] result = new String[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = phraseText(heap[0], profile);
+            heap[0] = heap[i];
+            siftDown(heap, 0, i, scores);
+        }
+        return new ArrayList<>(Arrays.asList(result));
+    }
+
+    private String phraseText(int phrase, LanguageProfile profile) {
+        StringBuilder builder = new StringBuilder();
+        for (int w = 0; w < phraseLength[phrase]; w++) {
+            int word = phraseWords[phrase * MAX_PHRASE_WORDS + w];
+            if (w > 0 && !profile.usesCharacterTokens()) builder.append(' ');
+            builder.append(text, wordStart[word], wordEnd[word]);
+        }
+        return builder.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean better(int a, int b, double[] scores) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && a < b);
+    }
+
+    private static void siftUp(int[] heap, int index, double[] scores) {
+        int value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!better(heap[parent], value, scores)) break;
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private static void siftDown(int[] heap, int index, int size, double[] scores) {
+        int value = heap[index];
+        while (true) {
+            int child = index * 2 + 1;
+            if (child >= size) break;
+            if (child + 1 < size && better(heap[child], heap[child + 1], scores)) child++;
+            if (!better(value, heap[child], scores)) break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+
+    private int internWord(int start, int end, int hash) {
+        int mask = wordSlots.length - 1;
+        int slot = spread(hash) & mask;
+        while (wordSlots[slot] != EMPTY) {
+            int id = wordSlots[slot];
+            if (wordHash[id] == hash && sameWord(id, start, end)) return id;
+            slot = (slot + 1) & mask;
+        }
+
+        int id = wordCount++;
+        if (id == wordHash.length) growWords();
+        wordHash[id] = hash;
+        wordStart[id] = start;
+        wordEnd[id] = end;
+        if (wordSlots.length != mask + 1) {
+            // Table was rehashed while growing
+            return insertWordSlot(id);
+        }
+        wordSlots[slot] = id;
+        return id;
+    }
+
+    private boolean sameWord(int id, int start, int end) {
+        int length = end - start;
+        return wordEnd[id] - wordStart[id] == length
+                && text.regionMatches(true, wordStart[id], text, start, length);
+    }
+
+    private int insertWordSlot(int id) {
+        int mask = wordSlots.length - 1;
+        int slot = spread(wordHash[id]) & mask;
+        while (wordSlots[slot] != EMPTY) slot = (slot + 1) & mask;
+        wordSlots[slot] = id;
+        return id;
+    }
+
+    private void growWords() {
+        int capacity = wordHash.length * 2;
+        wordHash = Arrays.copyOf(wordHash, capacity);
+        wordStart = Arrays.copyOf(wordStart, capacity);
+        wordEnd = Arrays.copyOf(wordEnd, capacity);
+        wordFrequency = Arrays.copyOf(wordFrequency, capacity);
+        wordDegree = Arrays.copyOf(wordDegree, capacity);
+        // Keep the load factor at or below one half
+        wordSlots = newSlots(capacity * 2);
+        for (int id = 0; id < wordCount - 1; id++) insertWordSlot(id);
+    }
+
+    private int internPhrase(int[] words, int length) {
+        int hash = length;
+        for (int w = 0; w < length; w++) hash = hash * 31 + words[w];
+
+        int mask = phraseSlots.length - 1;
+        int slot = spread(hash) & mask;
+        while (phraseSlots[slot] != EMPTY) {
+            int id = phraseSlots[slot];
+            if (phraseHash[id] == hash && samePhrase(id, words, length)) return id;
+            slot = (slot + 1) & mask;
+        }
+
+        int id = phraseCount++;
+        if (id == phraseHash.length) growPhrases();
+        phraseHash[id] = hash;
+        phraseLength[id] = length;
+        System.arraycopy(words, 0, phraseWords, id * MAX_PHRASE_WORDS, length);
+        if (phraseSlots.length != mask + 1) {
+            insertPhraseSlot(id);
+        } else {
+            phraseSlots[slot] = id;
+        }
+        return id;
+    }
+
+    private boolean samePhrase(int id, int[] words, int length) {
+        if (phraseLength[id] != length) return false;
+        for (int w = 0; w < length; w++) {
+            if (phraseWords[id * MAX_PHRASE_WORDS + w] != words[w]) return false;
+        }
+        return true;
+    }
+
+    private void insertPhraseSlot(int id) {
+        int mask = phraseSlots.length - 1;
+        int slot = spread(phraseHash[id]) & mask;
+        while (phraseSlots[slot] != EMPTY) slot = (slot + 1) & mask;
+        phraseSlots[slot] = id;
+    }
+
+    private void growPhrases() {
+        int capacity = phraseHash.length * 2;
+        phraseHash = Arrays.copyOf(phraseHash, capacity);
+        phraseWords = Arrays.copyOf(phraseWords, capacity * MAX_PHRASE_WORDS);
+        phraseLength = Arrays.copyOf(phraseLength, capacity);
+        phraseFrequency = Arrays.copyOf(phraseFrequency, capacity);
+        phraseSlots = newSlots(capacity * 2);
+        for (int id = 0; id < phraseCount - 1; id++) insertPhraseSlot(id);
+    }
+
+    private boolean isWhitespace(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static int[] newSlots(int capacity) {
+        int[] slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        return slots;
+    }
+
+    // FNV output is well mixed in the low bits already; this guards the phrase hash
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
\ No newline at end of file
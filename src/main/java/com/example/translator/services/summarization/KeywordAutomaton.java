@@ -0,0 +1,194 @@
+package com.example.translator.services.summarization;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Case-insensitive multi-keyword matcher (Aho-Corasick) compiled once from a
+ * fixed keyword list. A scan reads each character of the input exactly once
+ * and never lowercases or copies it, so scoring a sentence costs O(length)
+ * regardless of how many keywords there are.
+ *
+ * Matching is by substring, like {@code text.toLowerCase().contains(keyword)}:
+ * "keys" matches "key". Immutable and safe to share between threads.
+ */
+public class KeywordAutomaton {
+
+    // Keyword sets are reported as bit masks
+    public static final int MAX_KEYWORDS = 64;
+
+    private static final int ASCII_LIMIT = 128;
+
+    private final String[] keywords;
+
+    // Symbol per folded char: a table for ASCII, a sorted array for the rest
+    private final int[] asciiSymbols = new int[ASCII_LIMIT];
+    private final char[] extraChars;
+    private final int[] extraSymbols;
+    private final int alphabetSize;
+
+    // Dense DFA: transitions[state * alphabetSize + symbol], failure links folded in
+    private final int[] transitions;
+    // Keywords ending at each state, including those reached through failure links
+    private final long[] outputs;
+
+    public KeywordAutomaton(String... keywords) {
+        if (keywords.length > MAX_KEYWORDS) {
+            throw new IllegalArgumentException("At most " + MAX_KEYWORDS + " keywords are supported");
+        }
+
+        this.keywords = new String[keywords.length];
+        for (int i = 0; i < keywords.length; i++) {
+            if (keywords[i] == null || keywords[i].isEmpty()) {
+                throw new IllegalArgumentException("Keyword " + i + " is empty");
+            }
+            this.keywords[i] = fold(keywords[i]);
+        }
+
+        // Alphabet is only the characters that occur in keywords
+        Arrays.fill(asciiSymbols, -1);
+        StringBuilder extra = new StringBuilder();
+        int symbolCount = 0;
+        for (String keyword : this.keywords) {
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                if (c < ASCII_LIMIT) {
+                    if (asciiSymbols[c] < 0) asciiSymbols[c] = symbolCount++;
+                } else if (extra.indexOf(String.valueOf(c)) < 0) {
+                    extra.append(c);
+                }
+            }
+        }
+        extraChars = extra.toString().toCharArray();
+        Arrays.sort(extraChars);
+        extraSymbols = new int[extraChars.length];
+        for (int i = 0; i < extraChars.length; i++) {
+            extraSymbols[i] = symbolCount++;
+        }
+        alphabetSize = Math.max(1, symbolCount);
+
+        // Trie
+        List<int[]> trie = new ArrayList<>();
+        List<Long> terminal = new ArrayList<>();
+        trie.add(newRow());
+        terminal.add(0L);
+        for (int k = 0; k < this.keywords.length; k++) {
+            String keyword = this.keywords[k];
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                int symbol = symbolOf(keyword.charAt(i));
+                int next = trie.get(state)[symbol];
+                if (next < 0) {
+                    next = trie.size();
+                    trie.get(state)[symbol] = next;
+                    trie.add(newRow());
+                    terminal.add(0L);
+                }
+                state = next;
+            }
+            terminal.set(state, terminal.get(state) | (1L << k));
+        }
+
+        // Breadth-first failure links, turning the trie into a complete DFA
+        int stateCount = trie.size();
+        transitions = new int[stateCount * alphabetSize];
+        outputs = new long[stateCount];
+        int[] failure = new int[stateCount];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+
+        for (int symbol = 0; symbol < alphabetSize; symbol++) {
+            int child = trie.get(0)[symbol];
+            if (child < 0) {
+                transitions[symbol] = 0;
+            } else {
+                transitions[symbol] = child;
+                failure[child] = 0;
+                queue.add(child);
+            }
+        }
+        outputs[0] = terminal.get(0);
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs[state] = terminal.get(state) | outputs[failure[state]];
+            int base = state * alphabetSize;
+            int failureBase = failure[state] * alphabetSize;
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                int child = trie.get(state)[symbol];
+                if (child < 0) {
+                    transitions[base + symbol] = transitions[failureBase + symbol];
+                } else {
+                    transitions[base + symbol] = child;
+                    failure[child] = transitions[failureBase + symbol];
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    public int getKeywordCount() {
+        return keywords.length;
+    }
+
+    public String getKeyword(int index) {
+        return keywords[index];
+    }
+
+    /**
+     * Number of distinct keywords occurring anywhere in {@code text}.
+     */
+    public int countDistinct(CharSequence text) {
+        return countDistinct(text, 0, text.length());
+    }
+
+    /**
+     * Number of distinct keywords occurring in {@code text[start, end)}, so a
+     * sentence can be scored in place without taking a substring.
+     */
+    public int countDistinct(CharSequence text, int start, int end) {
+        return Long.bitCount(match(text, start, end));
+    }
+
+    /**
+     * Bit {@code i} is set when keyword {@code i} occurs in {@code text[start, end)}.
+     */
+    public long match(CharSequence text, int start, int end) {
+        long all = keywords.length == MAX_KEYWORDS ? -1L : (1L << keywords.length) - 1;
+        long found = 0L;
+        int state = 0;
+        for (int i = start; i < end; i++) {
+            int symbol = symbolOf(Character.toLowerCase(text.charAt(i)));
+            if (symbol < 0) {
+                // Character never occurs in a keyword, no match can span it
+                state = 0;
+                continue;
+            }
+            state = transitions[state * alphabetSize + symbol];
+            found |= outputs[state];
+            if (found == all) break;
+        }
+        return found;
+    }
+
+    private int symbolOf(char c) {
+        if (c < ASCII_LIMIT) return asciiSymbols[c];
+        int index = Arrays.binarySearch(extraChars, c);
+        return index >= 0 ? extraSymbols[index] : -1;
+    }
+
+    private int[] newRow() {
+        int[] row = new int[alphabetSize];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static String fold(String keyword) {
+        char[] chars = keyword.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+}
\ No newline at end of file
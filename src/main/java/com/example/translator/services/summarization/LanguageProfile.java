@@ -0,0 +1,231 @@
+package com.example.translator.services.summarization;
+
+import com.example.translator.utils.SentenceSegmenter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What the summarizers need to know about a source language: its stopwords,
+ * how sentences are segmented, and how words are delimited. Languages
+ * written without spaces (Chinese, Japanese, Thai) are tokenized as
+ * overlapping character pairs instead of words.
+ *
+ * Profiles are immutable and cached per language code.
+ */
+public class LanguageProfile {
+
+    private static final int FNV_OFFSET = 0x811c9dc5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private static final Map<String, String[]> STOPWORDS = new HashMap<>();
+    private static final Map<String, LanguageProfile> CACHE = new HashMap<>();
+
+    static {
+        STOPWORDS.put("en", new String[]{
+                "the", "and", "for", "are", "but", "not", "you", "all", "any", "can", "had", "her",
+                "was", "one", "our", "out", "has", "have", "his", "how", "its", "may", "who", "did",
+                "this", "that", "with", "from", "they", "will", "would", "there", "their", "what",
+                "about", "which", "when", "were", "been", "into", "than", "then", "them", "these",
+                "those", "also", "such", "some", "more", "most", "other", "only", "over", "very"
+        });
+        STOPWORDS.put("es", new String[]{
+                "el", "la", "los", "las", "un", "una", "unos", "unas", "de", "del", "al", "y", "o",
+                "que", "en", "es", "por", "con", "para", "como", "pero", "sus", "su", "lo", "se",
+                "más", "este", "esta", "estos", "estas", "ese", "esa", "son", "fue", "ha", "han",
+                "sobre", "entre", "también", "sin", "muy", "cuando", "donde", "todo", "todos"
+        });
+        STOPWORDS.put("fr", new String[]{
+                "le", "la", "les", "un", "une", "des", "de", "du", "et", "ou", "que", "qui", "en",
+                "est", "dans", "par", "pour", "sur", "avec", "pas", "plus", "mais", "ce", "cette",
+                "ces", "son", "sa", "ses", "leur", "leurs", "sont", "été", "être", "avoir", "aux",
+                "comme", "tout", "tous", "aussi", "très", "sans", "entre", "dont", "elle", "ils"
+        });
+        STOPWORDS.put("de", new String[]{
+                "der", "die", "das", "den", "dem", "des", "ein", "eine", "einer", "eines", "einem",
+                "und", "oder", "aber", "ist", "sind", "war", "wird", "werden", "hat", "haben", "mit",
+                "von", "zu", "zum", "zur", "auf", "für", "im", "in", "an", "am", "bei", "aus", "nach",
+                "als", "auch", "nicht", "sich", "es", "sie", "er", "wie", "noch", "nur", "über", "dass"
+        });
+        STOPWORDS.put("it", new String[]{
+                "il", "lo", "la", "i", "gli", "le", "un", "uno", "una", "di", "del", "della", "dei",
+                "e", "o", "che", "in", "nel", "nella", "per", "con", "su", "sul", "da", "dal", "non",
+                "è", "sono", "come", "ma", "anche", "più", "questo", "questa", "quello", "tra", "fra"
+        });
+        STOPWORDS.put("pt", new String[]{
+                "o", "a", "os", "as", "um", "uma", "de", "do", "da", "dos", "das", "e", "ou", "que",
+                "em", "no", "na", "nos", "nas", "por", "para", "com", "não", "é", "são", "foi", "ser",
+                "como", "mas", "mais", "seu", "sua", "seus", "suas", "este", "esta", "isso", "entre"
+        });
+        STOPWORDS.put("nl", new String[]{
+                "de", "het", "een", "en", "of", "van", "in", "op", "te", "met", "voor", "aan", "bij",
+                "is", "zijn", "was", "werd", "wordt", "dat", "die", "dit", "niet", "ook", "als",
+                "maar", "naar", "om", "door", "over", "er", "hij", "zij", "ze", "we", "nog"
+        });
+        STOPWORDS.put("ru", new String[]{
+                "и", "в", "во", "не", "что", "он", "на", "я", "с", "со", "как", "а", "то", "все",
+                "она", "так", "его", "но", "да", "ты", "к", "у", "же", "вы", "за", "бы", "по",
+                "только", "ее", "мне", "было", "вот", "от", "меня", "еще", "нет", "о", "из", "ему",
+                "это", "этот", "эта", "эти", "для", "при", "или", "также", "быть", "был", "была"
+        });
+        STOPWORDS.put("vi", new String[]{
+                "và", "của", "là", "các", "những", "có", "được", "cho", "trong", "này", "một",
+                "với", "không", "đã", "đang", "sẽ", "thì", "mà", "để", "từ", "khi", "như", "về",
+                "cũng", "nhưng", "hay", "hoặc", "tại", "theo", "ra", "vào", "lại", "rằng", "nên"
+        });
+    }
+
+    public static final LanguageProfile ENGLISH = forLanguage("en");
+
+    private final String languageCode;
+    private final Set<String> stopwords;
+    private final int[] stopwordHashes;
+    private final SentenceSegmenter segmenter;
+    private final boolean characterTokens;
+    private final int minTokenLength;
+    private final int minSentenceLength;
+
+    private LanguageProfile(String languageCode) {
+        this.languageCode = languageCode;
+
+        String[] words = STOPWORDS.get(languageCode);
+        this.stopwords = words != null
+                ? Collections.unmodifiableSet(new HashSet<>(Arrays.asList(words)))
+                : Collections.emptySet();
+        this.stopwordHashes = new int[stopwords.size()];
+        int i = 0;
+        for (String word : stopwords) {
+            stopwordHashes[i++] = hash(word, 0, word.length());
+        }
+        Arrays.sort(stopwordHashes);
+
+        switch (languageCode) {
+            case "zh":
+            case "ja":
+            case "th":
+                characterTokens = true;
+                minTokenLength = 2;
+                minSentenceLength = 4;
+                break;
+            case "ko":
+                characterTokens = false;
+                minTokenLength = 2;
+                minSentenceLength = 6;
+                break;
+            case "vi":
+                // Syllables are space separated and often two letters
+                characterTokens = false;
+                minTokenLength = 2;
+                minSentenceLength = 10;
+                break;
+            default:
+                characterTokens = false;
+                minTokenLength = 3;
+                minSentenceLength = 10;
+        }
+
+        this.segmenter = SentenceSegmenter.forLanguage(languageCode);
+    }
+
+    /**
+     * Profile for a BCP-47 or ML Kit language code; unknown languages get
+     * generic rules without stopwords.
+     */
+    public static LanguageProfile forLanguage(String languageCode) {
+        String code = languageCode == null || languageCode.isEmpty()
+                ? "en" : languageCode.toLowerCase(Locale.ROOT);
+        int dash = code.indexOf('-');
+        if (dash > 0) code = code.substring(0, dash);
+
+        synchronized (CACHE) {
+            LanguageProfile profile = CACHE.get(code);
+            if (profile == null) {
+                profile = new LanguageProfile(code);
+                CACHE.put(code, profile);
+            }
+            return profile;
+        }
+    }
+
+    public String getLanguageCode() {
+        return languageCode;
+    }
+
+    /**
+     * True when words are not space separated and tokens are character pairs.
+     */
+    public boolean usesCharacterTokens() {
+        return characterTokens;
+    }
+
+    public int getMinTokenLength() {
+        return minTokenLength;
+    }
+
+    public boolean isStopword(String lowercaseWord) {
+        return stopwords.contains(lowercaseWord);
+    }
+
+    /**
+     * Stopword check on a token hash from {@link #mix}, so tokens never have
+     * to be materialized as strings.
+     */
+    public boolean isStopwordHash(int hash) {
+        return stopwordHashes.length > 0 && Arrays.binarySearch(stopwordHashes, hash) >= 0;
+    }
+
+    public SentenceSegmenter getSegmenter() {
+        return segmenter;
+    }
+
+    /**
+     * Splits text into sentences, keeping the terminator with its sentence
+     * and dropping fragments too short to be sentences.
+     */
+    public List<String> splitSentences(String text) {
+        SentenceSegmenter.Spans spans = segmenter.segment(text);
+        List<String> result = new ArrayList<>(spans.size());
+        for (int i = 0; i < spans.size(); i++) {
+            if (spans.length(i) > minSentenceLength) {
+                result.add(spans.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Joins selected sentences back into running text.
+     */
+    public String joinSentences(List<String> sentences) {
+        return String.join(characterTokens ? "" : " ", sentences);
+    }
+
+    /**
+     * Starts a token hash; feed characters with {@link #mix}.
+     */
+    public static int emptyHash() {
+        return FNV_OFFSET;
+    }
+
+    /**
+     * FNV-1a step over a case-folded character.
+     */
+    public static int mix(int hash, char c) {
+        return (hash ^ Character.toLowerCase(c)) * FNV_PRIME;
+    }
+
+    public static int hash(CharSequence text, int start, int end) {
+        int hash = FNV_OFFSET;
+        for (int i = start; i < end; i++) {
+            hash = mix(hash, text.charAt(i));
+        }
+        return hash;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,245 @@
+package com.example.translator.services.summarization;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Summarizes text of any length by ranking fixed-size sections in parallel
+ * and merging their best sentences.
+ *
+ * Map: each section of roughly {@code sectionLength} characters is ranked on
+ * its own with TextRank and keeps its top candidates. Reduce: all candidates
+ * are ranked against each other and the global score is combined with the
+ * local one. Only candidates outlive the map step, so memory grows with the
+ * number of sections rather than the size of their graphs.
+ *
+ * Pages can be added to a {@link Session} as they arrive; their sections are
+ * ranked in the background right away and only the cheap reduce runs when a
+ * summary is requested.
+ */
+public class MapReduceSummarizer {
+
+    public static final int DEFAULT_SECTION_LENGTH = 4000;
+    public static final int DEFAULT_CANDIDATES_PER_SECTION = 6;
+
+    /**
+     * A sentence proposed by its section, with its place in the document.
+     */
+    static class Candidate {
+        final int page;
+        final int index;
+        final String sentence;
+        // Local score relative to the section average, so sections are comparable
+        final double localScore;
+
+        Candidate(int page, int index, String sentence, double localScore) {
+            this.page = page;
+            this.index = index;
+            this.sentence = sentence;
+            this.localScore = localScore;
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final TextRankSummarizer ranker;
+    private final int sectionLength;
+    private final int candidatesPerSection;
+
+    public MapReduceSummarizer(ForkJoinPool pool) {
+        this(pool, new TextRankSummarizer(), DEFAULT_SECTION_LENGTH, DEFAULT_CANDIDATES_PER_SECTION);
+    }
+
+    public MapReduceSummarizer(ForkJoinPool pool, TextRankSummarizer ranker, int sectionLength,
+                               int candidatesPerSection) {
+        this.pool = pool;
+        this.ranker = ranker;
+        this.sectionLength = sectionLength;
+        this.candidatesPerSection = candidatesPerSection;
+    }
+
+    /**
+     * One-shot summary of a single text. Blocks until done.
+     */
+    public List<String> summarize(String text, int maxSentences, LanguageProfile profile) {
+        Session session = newSession(profile);
+        session.addPage(0, text);
+        return session.summarize(maxSentences);
+    }
+
+    public Session newSession(LanguageProfile profile) {
+        return new Session(profile);
+    }
+
+    /**
+     * Summary state for a growing document. Thread safe.
+     */
+    public class Session {
+        private final LanguageProfile profile;
+        private final TreeMap<Integer, ForkJoinTask<List<Candidate>>> pages = new TreeMap<>();
+
+        Session(LanguageProfile profile) {
+            this.profile = profile;
+        }
+
+        public LanguageProfile getProfile() {
+            return profile;
+        }
+
+        /**
+         * Starts ranking a page in the background. Pages are ordered by
+         * {@code pageIndex}, not arrival; adding an index again replaces it.
+         */
+        public void addPage(int pageIndex, String text) {
+            List<List<String>> sections = splitSections(profile.splitSentences(text));
+            ForkJoinTask<List<Candidate>> task = pool.submit(
+                    new MapTask(pageIndex, sections, 0, sections.size(), profile));
+            ForkJoinTask<List<Candidate>> previous;
+            synchronized (this) {
+                previous = pages.put(pageIndex, task);
+            }
+            if (previous != null) {
+                previous.cancel(false);
+            }
+        }
+
+        public synchronized int getPageCount() {
+            return pages.size();
+        }
+
+        /**
+         * Picks up to {@code maxSentences} sentences from all pages added so
+         * far, in document order. Waits for pages still being ranked, so call
+         * off the main thread.
+         */
+        public List<String> summarize(int maxSentences) {
+            List<ForkJoinTask<List<Candidate>>> tasks;
+            synchronized (this) {
+                tasks = new ArrayList<>(pages.values());
+            }
+
+            List<Candidate> candidates = new ArrayList<>();
+            for (ForkJoinTask<List<Candidate>> task : tasks) {
+                try {
+                    candidates.addAll(task.join());
+                } catch (CancellationException e) {
+                    // Page was replaced while we were collecting; its successor is picked up next time
+                }
+            }
+            return reduce(candidates, maxSentences, profile);
+        }
+    }
+
+    private List<List<String>> splitSections(List<String> sentences) {
+        List<List<String>> sections = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int length = 0;
+        for (String sentence : sentences) {
+            current.add(sentence);
+            length += sentence.length();
+            if (length >= sectionLength) {
+                sections.add(current);
+                current = new ArrayList<>();
+                length = 0;
+            }
+        }
+        if (!current.isEmpty()) {
+            sections.add(current);
+        }
+        return sections;
+    }
+
+    /**
+     * Ranks sections {@code [from, to)} of one page, splitting in halves
+     * until a single section is left.
+     */
+    @SuppressWarnings("serial")
+    private class MapTask extends RecursiveTask<List<Candidate>> {
+        private final int page;
+        // Dropped once ranked so a finished page only holds its candidates
+        private List<List<String>> sections;
+        private final int from;
+        private final int to;
+        private final LanguageProfile profile;
+
+        MapTask(int page, List<List<String>> sections, int from, int to, LanguageProfile profile) {
+            this.page = page;
+            this.sections = sections;
+            this.from = from;
+            this.to = to;
+            this.profile = profile;
+        }
+
+        @Override
+        protected List<Candidate> compute() {
+            try {
+                if (to - from <= 1) {
+                    return from < to ? rankSection(page, sections, from, profile) : Collections.emptyList();
+                }
+
+                int middle = (from + to) >>> 1;
+                MapTask right = new MapTask(page, sections, middle, to, profile);
+                right.fork();
+                List<Candidate> result = new ArrayList<>(new MapTask(page, sections, from, middle, profile).compute());
+                result.addAll(right.join());
+                return result;
+            } finally {
+                sections = null;
+            }
+        }
+    }
+
+    private List<Candidate> rankSection(int page, List<List<String>> sections, int sectionIndex,
+                                        LanguageProfile profile) {
+        List<String> sentences = sections.get(sectionIndex);
+        int offset = 0;
+        for (int i = 0; i < sectionIndex; i++) {
+            offset += sections.get(i).size();
+        }
+
+        double[] scores = ranker.rank(sentences, profile).scores;
+        double mean = 0;
+        for (double score : scores) mean += score;
+        mean = scores.length > 0 ? mean / scores.length : 1;
+
+        int[] top = TextRankSummarizer.selectTop(scores, candidatesPerSection);
+        List<Candidate> candidates = new ArrayList<>(top.length);
+        for (int index : top) {
+            candidates.add(new Candidate(page, offset + index, sentences.get(index), scores[index] / mean));
+        }
+        return candidates;
+    }
+
+    private List<String> reduce(List<Candidate> candidates, int maxSentences, LanguageProfile profile) {
+        List<String> result = new ArrayList<>();
+        if (candidates.isEmpty()) return result;
+
+        // Document order: by page, then by position within the page
+        Collections.sort(candidates, (a, b) -> a.page != b.page
+                ? Integer.compare(a.page, b.page) : Integer.compare(a.index, b.index));
+
+        if (candidates.size() <= maxSentences) {
+            for (Candidate candidate : candidates) result.add(candidate.sentence);
+            return result;
+        }
+
+        List<String> sentences = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) sentences.add(candidate.sentence);
+        double[] global = ranker.rank(sentences, profile).scores;
+
+        double[] combined = new double[global.length];
+        for (int i = 0; i < combined.length; i++) {
+            combined[i] = global[i] * candidates.get(i).localScore;
+        }
+
+        for (int index : TextRankSummarizer.selectTop(combined, maxSentences)) {
+            result.add(sentences.get(index));
+        }
+        return result;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+package com.example.translator.services.summarization;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the summary types need from one text, worked out at most once:
+ * the sentences, their heuristic and TextRank scores, and key phrases.
+ * Each part is computed on first use, so a text that is only ever shown as
+ * key phrases is never ranked.
+ *
+ * Finished summaries, translated or not, are kept on the analysis under a
+ * caller-chosen key, so asking for the same summary again costs nothing.
+ * Thread safe.
+ */
+public class SummaryAnalysis {
+
+    private static final int MAX_PHRASES = 16;
+
+    private final String text;
+    private final LanguageProfile profile;
+    private final TextRankSummarizer ranker;
+    private final KeywordAutomaton cueWords;
+
+    private List<String> sentences;
+    private double[] heuristicScores;
+    private double[] textRankScores;
+    private List<String> keyPhrases;
+    private MapReduceSummarizer.Session sections;
+
+    private final Map<String, String> outputs = new HashMap<>();
+
+    /**
+     * @param cueWords words that mark important sentences in this language,
+     *                 or null to score by position and length only
+     */
+    public SummaryAnalysis(String text, LanguageProfile profile, TextRankSummarizer ranker, KeywordAutomaton cueWords) {
+        this.text = text;
+        this.profile = profile;
+        this.ranker = ranker;
+        this.cueWords = cueWords;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public LanguageProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * True when this analysis was made for exactly this text and language.
+     */
+    public boolean matches(String otherText, LanguageProfile otherProfile) {
+        return profile == otherProfile && text.equals(otherText);
+    }
+
+    public synchronized List<String> getSentences() {
+        if (sentences == null) {
+            sentences = Collections.unmodifiableList(profile.splitSentences(text));
+        }
+        return sentences;
+    }
+
+    /**
+     * Top sentences by position, length and cue words, in original order.
+     */
+    public List<String> selectByHeuristic(int maxSentences) {
+        return select(getHeuristicScores(), maxSentences);
+    }
+
+    /**
+     * Top sentences by TextRank centrality, in original order.
+     */
+    public List<String> selectByTextRank(int maxSentences) {
+        return select(getTextRankScores(), maxSentences);
+    }
+
+    /**
+     * Highest scoring key phrases, best first.
+     */
+    public synchronized List<String> getKeyPhrases(int maxPhrases) {
+        if (keyPhrases == null) {
+            keyPhrases = Collections.unmodifiableList(new KeyPhraseExtractor().extract(text, profile, MAX_PHRASES));
+        }
+        return keyPhrases.subList(0, Math.min(maxPhrases, keyPhrases.size()));
+    }
+
+    /**
+     * Section candidates for text too long to rank as one graph, ranked once
+     * so each summary length only runs the merge.
+     */
+    public synchronized MapReduceSummarizer.Session getSections(MapReduceSummarizer summarizer) {
+        if (sections == null) {
+            sections = summarizer.newSession(profile);
+            sections.addPage(0, text);
+        }
+        return sections;
+    }
+
+    public synchronized String getOutput(String key) {
+        return outputs.get(key);
+    }
+
+    public synchronized void putOutput(String key, String output) {
+        outputs.put(key, output);
+    }
+
+    private List<String> select(double[] scores, int maxSentences) {
+        List<String> all = getSentences();
+        if (all.size() <= maxSentences) {
+            return all;
+        }
+
+        List<String> result = new ArrayList<>(maxSentences);
+        for (int index : TextRankSummarizer.selectTop(scores, maxSentences)) {
+            result.add(all.get(index));
+        }
+        return result;
+    }
+
+    private synchronized double[] getHeuristicScores() {
+        if (heuristicScores == null) {
+            List<String> all = getSentences();
+            double[] scores = new double[all.size()];
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = scoreSentence(all.get(i), i, scores.length);
+            }
+            heuristicScores = scores;
+        }
+        return heuristicScores;
+    }
+
+    private synchronized double[] getTextRankScores() {
+        if (textRankScores == null) {
+            textRankScores = ranker.rank(getSentences(), profile).scores;
+        }
+        return textRankScores;
+    }
+
+    private double scoreSentence(String sentence, int index, int count) {
+        // Simple scoring based on sentence length and position
+        double positionScore;
+        if (index == 0) {
+            positionScore = 3.0; // First sentence is important
+        } else if (index == count - 1) {
+            positionScore = 2.0; // Last sentence
+        } else if (index < count * 0.3) {
+            positionScore = 1.5; // Early sentences
+        } else {
+            positionScore = 1.0;
+        }
+
+        double lengthScore;
+        if (sentence.length() < 50) {
+            lengthScore = 0.5; // Too short
+        } else if (sentence.length() > 200) {
+            lengthScore = 0.7; // Too long
+        } else {
+            lengthScore = 1.0; // Good length
+        }
+
+        double keywordScore = cueWords != null ? cueWords.countDistinct(sentence) : 0;
+        return positionScore * lengthScore * (1 + keywordScore * 0.1);
+    }
+}
\ No newline at end of file
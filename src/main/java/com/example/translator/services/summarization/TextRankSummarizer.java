@@ -0,0 +1,430 @@
+package com.example.translator.services.summarization;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Extractive summarizer ranking sentences with TextRank: sentences are nodes,
+ * edges are weighted by shared words, and PageRank picks the sentences most
+ * of the text agrees with.
+ *
+ * Sentences are reduced to sorted arrays of hashed tokens, and the graph is
+ * built from an inverted index straight into compressed sparse rows, so only
+ * sentence pairs that actually share a word are ever visited. Each sentence
+ * keeps only its strongest neighbours, which bounds the edge count to a
+ * multiple of the sentence count on long documents. Nothing here allocates
+ * per token or per edge object. Instances are immutable and can be shared
+ * between threads.
+ */
+public class TextRankSummarizer {
+
+    public static final int DEFAULT_MAX_ITERATIONS = 50;
+    public static final double DEFAULT_TOLERANCE = 1e-4;
+
+    private static final double DAMPING = 0.85;
+    // Words shared by most sentences carry no signal and would make the graph dense
+    private static final double MAX_DOCUMENT_FREQUENCY = 0.5;
+    private static final int MIN_SENTENCES_FOR_FREQUENCY_CUTOFF = 20;
+    // Strongest edges kept per sentence before symmetrizing
+    private static final int MAX_NEIGHBOURS = 24;
+
+    /**
+     * Sentence graph in compressed sparse row form; row {@code i} spans
+     * {@code columns[rowStart[i] .. rowStart[i + 1])}.
+     */
+    public static class Graph {
+        public final int size;
+        public final int[] rowStart;
+        public final int[] columns;
+        public final float[] weights;
+
+        Graph(int size, int[] rowStart, int[] columns, float[] weights) {
+            this.size = size;
+            this.rowStart = rowStart;
+            this.columns = columns;
+            this.weights = weights;
+        }
+
+        public int getEdgeCount() {
+            return rowStart[size];
+        }
+    }
+
+    /**
+     * Scores from a ranking run and how it ended.
+     */
+    public static class Ranking {
+        public final double[] scores;
+        public final int iterations;
+        public final boolean converged;
+
+        Ranking(double[] scores, int iterations, boolean converged) {
+            this.scores = scores;
+            this.iterations = iterations;
+            this.converged = converged;
+        }
+    }
+
+    private final int maxIterations;
+    private final double tolerance;
+
+    public TextRankSummarizer() {
+        this(DEFAULT_MAX_ITERATIONS, DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * @param maxIterations upper bound on power iterations, for callers with a
+     *                      latency budget; ranking stops earlier on convergence
+     * @param tolerance     largest per-sentence score change still counted as converged
+     */
+    public TextRankSummarizer(int maxIterations, double tolerance) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("maxIterations must be positive");
+        }
+        this.maxIterations = maxIterations;
+        this.tolerance = tolerance;
+    }
+
+    public List<String> summarize(List<String> sentences, int maxSentences) {
+        return summarize(sentences, maxSentences, LanguageProfile.ENGLISH);
+    }
+
+    /**
+     * Picks up to {@code maxSentences} sentences, returned in their original order.
+     */
+    public List<String> summarize(List<String> sentences, int maxSentences, LanguageProfile profile) {
+        if (sentences.size() <= maxSentences) {
+            return new ArrayList<>(sentences);
+        }
+
+        int[] selected = selectTop(rank(sentences, profile).scores, maxSentences);
+        List<String> result = new ArrayList<>(selected.length);
+        for (int index : selected) {
+            result.add(sentences.get(index));
+        }
+        return result;
+    }
+
+    public Ranking rank(List<String> sentences) {
+        return rank(sentences, LanguageProfile.ENGLISH);
+    }
+
+    public Ranking rank(List<String> sentences, LanguageProfile profile) {
+        return rank(buildGraph(tokenize(sentences, profile)));
+    }
+
+    /**
+     * Weighted PageRank over the graph, iterated until no score moves by more
+     * than the tolerance or the iteration cap is reached.
+     */
+    public Ranking rank(Graph graph) {
+        int n = graph.size;
+        double[] scores = new double[n];
+        if (n == 0) return new Ranking(scores, 0, true);
+
+        // Outgoing weight per node; the graph is symmetric so this is the row sum
+        double[] outWeight = new double[n];
+        for (int i = 0; i < n; i++) {
+            double sum = 0;
+            for (int e = graph.rowStart[i]; e < graph.rowStart[i + 1]; e++) {
+                sum += graph.weights[e];
+            }
+            outWeight[i] = sum;
+        }
+
+        Arrays.fill(scores, 1.0);
+        double[] next = new double[n];
+        double[] share = new double[n];
+        int iteration = 0;
+        boolean converged = false;
+
+        while (iteration < maxIterations && !converged) {
+            iteration++;
+            for (int j = 0; j < n; j++) {
+                share[j] = outWeight[j] > 0 ? scores[j] / outWeight[j] : 0;
+            }
+
+            double maxDelta = 0;
+            for (int i = 0; i < n; i++) {
+                double incoming = 0;
+                for (int e = graph.rowStart[i]; e < graph.rowStart[i + 1]; e++) {
+                    incoming += graph.weights[e] * share[graph.columns[e]];
+                }
+                next[i] = (1 - DAMPING) + DAMPING * incoming;
+                maxDelta = Math.max(maxDelta, Math.abs(next[i] - scores[i]));
+            }
+
+            double[] swap = scores;
+            scores = next;
+            next = swap;
+            converged = maxDelta < tolerance;
+        }
+        return new Ranking(scores, iteration, converged);
+    }
+
+    public static int[][] tokenize(List<String> sentences) {
+        return tokenize(sentences, LanguageProfile.ENGLISH);
+    }
+
+    /**
+     * Each sentence as a sorted array of distinct token hashes, without the
+     * profile's stopwords. Languages written without spaces contribute one
+     * token per pair of adjacent letters.
+     */
+    public static int[][] tokenize(List<String> sentences, LanguageProfile profile) {
+        int minLength = profile.getMinTokenLength();
+        boolean characterTokens = profile.usesCharacterTokens();
+
+        int[][] vectors = new int[sentences.size()][];
+        int[] buffer = new int[64];
+        for (int s = 0; s < vectors.length; s++) {
+            String sentence = sentences.get(s);
+            int count = 0;
+            int hash = 0;
+            int length = 0;
+            for (int i = 0, end = sentence.length(); i <= end; i++) {
+                char c = i < end ? sentence.charAt(i) : ' ';
+                if (Character.isLetterOrDigit(c)) {
+                    if (characterTokens) {
+                        if (length > 0) {
+                            int pair = LanguageProfile.mix(LanguageProfile.mix(LanguageProfile.emptyHash(),
+                                    sentence.charAt(i - 1)), c);
+                            if (count == buffer.length) buffer = Arrays.copyOf(buffer, count * 2);
+                            buffer[count++] = pair;
+                        }
+                    } else {
+                        // Hash over case-folded chars, no lowercase copy of the word
+                        hash = LanguageProfile.mix(length == 0 ? LanguageProfile.emptyHash() : hash, c);
+                    }
+                    length++;
+                } else if (length > 0) {
+                    if (!characterTokens && length >= minLength && !profile.isStopwordHash(hash)) {
+                        if (count == buffer.length) buffer = Arrays.copyOf(buffer, count * 2);
+                        buffer[count++] = hash;
+                    }
+                    length = 0;
+                }
+            }
+            vectors[s] = sortedDistinct(buffer, count);
+        }
+        return vectors;
+    }
+
+    /**
+     * Builds the similarity graph from token vectors. Edge weight is the
+     * classic TextRank overlap, shared words / (log |a| + log |b|).
+     */
+    public static Graph buildGraph(int[][] vectors) {
+        int n = vectors.length;
+
+        // Inverted index: token -> sentences containing it, as CSR over sorted distinct tokens
+        int total = 0;
+        for (int[] vector : vectors) total += vector.length;
+        long[] pairs = new long[total];
+        int p = 0;
+        for (int s = 0; s < n; s++) {
+            for (int token : vectors[s]) {
+                pairs[p++] = ((long) token << 32) | s;
+            }
+        }
+        Arrays.sort(pairs);
+
+        int maxFrequency = n >= MIN_SENTENCES_FOR_FREQUENCY_CUTOFF
+                ? (int) (n * MAX_DOCUMENT_FREQUENCY) : n;
+
+        // Per-sentence overlap counts via the postings, then each row is emitted
+        int[] postingStart = new int[total + 1];
+        int postingCount = 0;
+        for (int i = 0; i < total; i++) {
+            if (i == 0 || (int) (pairs[i] >> 32) != (int) (pairs[i - 1] >> 32)) {
+                postingStart[postingCount++] = i;
+            }
+        }
+        postingStart[postingCount] = total;
+
+        // Each sentence's postings, so row i only touches sentences sharing a token
+        int[] sentencePostingStart = new int[n + 1];
+        for (int k = 0; k < postingCount; k++) {
+            int from = postingStart[k];
+            int to = postingStart[k + 1];
+            if (to - from < 2 || to - from > maxFrequency) continue;
+            for (int i = from; i < to; i++) sentencePostingStart[(int) pairs[i] + 1]++;
+        }
+        for (int s = 0; s < n; s++) sentencePostingStart[s + 1] += sentencePostingStart[s];
+        int[] sentencePostings = new int[sentencePostingStart[n]];
+        int[] fill = Arrays.copyOf(sentencePostingStart, n);
+        for (int k = 0; k < postingCount; k++) {
+            int from = postingStart[k];
+            int to = postingStart[k + 1];
+            if (to - from < 2 || to - from > maxFrequency) continue;
+            for (int i = from; i < to; i++) sentencePostings[fill[(int) pairs[i]]++] = k;
+        }
+
+        double[] logLength = new double[n];
+        for (int s = 0; s < n; s++) {
+            logLength[s] = Math.log(Math.max(2, vectors[s].length));
+        }
+
+        // Directed k-nearest-neighbour rows, columns ascending
+        int[] rowStart = new int[n + 1];
+        int[] columns = new int[Math.max(16, n * Math.min(MAX_NEIGHBOURS, 4))];
+        float[] weights = new float[columns.length];
+        int[] overlap = new int[n];
+        int[] touched = new int[n];
+        float[] candidateWeights = new float[n];
+        int edges = 0;
+
+        for (int s = 0; s < n; s++) {
+            int touchedCount = 0;
+            for (int q = sentencePostingStart[s]; q < sentencePostingStart[s + 1]; q++) {
+                int k = sentencePostings[q];
+                for (int i = postingStart[k]; i < postingStart[k + 1]; i++) {
+                    int other = (int) pairs[i];
+                    if (other == s) continue;
+                    if (overlap[other]++ == 0) touched[touchedCount++] = other;
+                }
+            }
+
+            for (int t = 0; t < touchedCount; t++) {
+                int other = touched[t];
+                candidateWeights[other] = (float) (overlap[other] / (logLength[s] + logLength[other]));
+                overlap[other] = 0;
+            }
+            int kept = keepStrongest(touched, touchedCount, candidateWeights, MAX_NEIGHBOURS);
+            Arrays.sort(touched, 0, kept);
+
+            if (edges + kept > columns.length) {
+                int capacity = Math.max(columns.length * 2, edges + kept);
+                columns = Arrays.copyOf(columns, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            for (int t = 0; t < kept; t++) {
+                columns[edges] = touched[t];
+                weights[edges] = candidateWeights[touched[t]];
+                edges++;
+            }
+            rowStart[s + 1] = edges;
+        }
+
+        return symmetrize(n, rowStart, columns, weights);
+    }
+
+    /**
+     * Union of the directed graph and its transpose, so an edge kept by
+     * either end is seen from both. Weights are symmetric already.
+     */
+    private static Graph symmetrize(int n, int[] rowStart, int[] columns, float[] weights) {
+        int edges = rowStart[n];
+
+        // Transpose by counting sort; iterating rows in order keeps its columns ascending
+        int[] transposeStart = new int[n + 1];
+        for (int e = 0; e < edges; e++) transposeStart[columns[e] + 1]++;
+        for (int i = 0; i < n; i++) transposeStart[i + 1] += transposeStart[i];
+        int[] transposeColumns = new int[edges];
+        float[] transposeWeights = new float[edges];
+        int[] fill = Arrays.copyOf(transposeStart, n);
+        for (int row = 0; row < n; row++) {
+            for (int e = rowStart[row]; e < rowStart[row + 1]; e++) {
+                int slot = fill[columns[e]]++;
+                transposeColumns[slot] = row;
+                transposeWeights[slot] = weights[e];
+            }
+        }
+
+        int[] resultStart = new int[n + 1];
+        int[] resultColumns = new int[edges * 2];
+        float[] resultWeights = new float[edges * 2];
+        int count = 0;
+        for (int row = 0; row < n; row++) {
+            int a = rowStart[row];
+            int aEnd = rowStart[row + 1];
+            int b = transposeStart[row];
+            int bEnd = transposeStart[row + 1];
+            while (a < aEnd || b < bEnd) {
+                int column;
+                float weight;
+                if (b == bEnd || (a < aEnd && columns[a] < transposeColumns[b])) {
+                    column = columns[a];
+                    weight = weights[a++];
+                } else if (a == aEnd || transposeColumns[b] < columns[a]) {
+                    column = transposeColumns[b];
+                    weight = transposeWeights[b++];
+                } else {
+                    column = columns[a];
+                    weight = weights[a++];
+                    b++;
+                }
+                resultColumns[count] = column;
+                resultWeights[count] = weight;
+                count++;
+            }
+            resultStart[row + 1] = count;
+        }
+
+        return new Graph(n, resultStart, Arrays.copyOf(resultColumns, count), Arrays.copyOf(resultWeights, count));
+    }
+
+    /**
+     * Moves the {@code limit} heaviest candidates to the front of
+     * {@code candidates} using a min-heap, and returns how many were kept.
+     */
+    private static int keepStrongest(int[] candidates, int count, float[] weightOf, int limit) {
+        if (count <= limit) return count;
+
+        // candidates[0 .. limit) is the heap, lightest on top
+        for (int i = limit / 2 - 1; i >= 0; i--) siftDown(candidates, i, limit, weightOf);
+        for (int i = limit; i < count; i++) {
+            if (weightOf[candidates[i]] > weightOf[candidates[0]]) {
+                candidates[0] = candidates[i];
+                siftDown(candidates, 0, limit, weightOf);
+            }
+        }
+        return limit;
+    }
+
+    private static void siftDown(int[] heap, int index, int size, float[] weightOf) {
+        int value = heap[index];
+        while (true) {
+            int child = index * 2 + 1;
+            if (child >= size) break;
+            if (child + 1 < size && weightOf[heap[child + 1]] < weightOf[heap[child]]) child++;
+            if (weightOf[heap[child]] >= weightOf[value]) break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+
+    /**
+     * Indices of the {@code count} highest scores, in ascending index order.
+     * Ties go to the earlier sentence.
+     */
+    static int[] selectTop(double[] scores, int count) {
+        int k = Math.min(count, scores.length);
+        // Small k; keep a sorted window instead of sorting every score
+        int[] top = new int[k];
+        int size = 0;
+        for (int i = 0; i < scores.length; i++) {
+            if (size == k && scores[i] <= scores[top[k - 1]]) continue;
+            int pos = size < k ? size++ : k - 1;
+            while (pos > 0 && scores[top[pos - 1]] < scores[i]) {
+                top[pos] = top[pos - 1];
+                pos--;
+            }
+            top[pos] = i;
+        }
+        Arrays.sort(top, 0, size);
+        return size == k ? top : Arrays.copyOf(top, size);
+    }
+
+    private static int[] sortedDistinct(int[] values, int count) {
+        int[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) sorted[distinct++] = sorted[i];
+        }
+        return distinct == count ? sorted : Arrays.copyOf(sorted, distinct);
+    }
+}
\ No newline at end of file
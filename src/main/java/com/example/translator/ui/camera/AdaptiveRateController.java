@@ -0,0 +1,289 @@
+package com.example.translator.ui.camera;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Build;
+import android.os.PowerManager;
+import android.util.Log;
+import androidx.camera.core.ImageProxy;
+import androidx.core.content.ContextCompat;
+import java.nio.ByteBuffer;
+
+/**
+ * Decides how often the live camera pipeline may start a new frame.
+ *
+ * The interval follows the measured end-to-end latency (there is no point in
+ * starting frames faster than they finish) and is stretched when the device is
+ * hot, when battery saver is on, or when the scene has not changed since the
+ * last recognition. A scene change lets the next frame through early.
+ */
+public class AdaptiveRateController {
+
+    private static final String TAG = "AdaptiveRateController";
+
+    private static final long MIN_INTERVAL_MS = 250L;
+    private static final long MAX_INTERVAL_MS = 5000L;
+    private static final long INITIAL_LATENCY_MS = 800L;
+    private static final long POWER_SAVE_MIN_INTERVAL_MS = 1500L;
+
+    // Leave some idle time between frames so OCR doesn't saturate a core
+    private static final float LATENCY_HEADROOM = 1.25f;
+    private static final float EWMA_ALPHA = 0.3f;
+
+    // Scene signature: a coarse grid of luma samples
+    private static final int SIGNATURE_COLUMNS = 16;
+    private static final int SIGNATURE_ROWS = 12;
+    private static final int SCENE_CHANGE_THRESHOLD = 12;
+    private static final int STABLE_FRAMES_BEFORE_BACKOFF = 30;
+    private static final float STABLE_SCENE_MULTIPLIER = 2f;
+
+    public static class Diagnostics {
+        public final long intervalMs;
+        public final float ratePerSecond;
+        public final long recognitionLatencyMs;
+        public final long endToEndLatencyMs;
+        public final int thermalStatus;
+        public final boolean powerSaveMode;
+        public final boolean sceneStable;
+
+        Diagnostics(long intervalMs, long recognitionLatencyMs, long endToEndLatencyMs,
+                    int thermalStatus, boolean powerSaveMode, boolean sceneStable) {
+            this.intervalMs = intervalMs;
+            this.ratePerSecond = 1000f / intervalMs;
+            this.recognitionLatencyMs = recognitionLatencyMs;
+            this.endToEndLatencyMs = endToEndLatencyMs;
+            this.thermalStatus = thermalStatus;
+            this.powerSaveMode = powerSaveMode;
+            this.sceneStable = sceneStable;
+        }
+
+        @Override
+        public String toString() {
+            return "Diagnostics{intervalMs=" + intervalMs +
+                    ", rate=" + String.format(java.util.Locale.US, "%.2f", ratePerSecond) + "/s" +
+                    ", ocrMs=" + recognitionLatencyMs +
+                    ", endToEndMs=" + endToEndLatencyMs +
+                    ", thermal=" + thermalStatus +
+                    ", powerSave=" + powerSaveMode +
+                    ", sceneStable=" + sceneStable +
+                    '}';
+        }
+    }
+
+    private final Context context;
+    private final PowerManager powerManager;
+
+    private volatile float recognitionLatencyEwma = INITIAL_LATENCY_MS;
+    private volatile float endToEndLatencyEwma = INITIAL_LATENCY_MS;
+    private volatile int thermalStatus = 0;
+    private volatile boolean powerSaveMode = false;
+    private volatile long currentIntervalMs = MIN_INTERVAL_MS;
+
+    // Written on the analyzer thread; the reference is the scene at the last accepted frame
+    private final int[] referenceSignature = new int[SIGNATURE_COLUMNS * SIGNATURE_ROWS];
+    private final int[] currentSignature = new int[SIGNATURE_COLUMNS * SIGNATURE_ROWS];
+    private boolean hasReference = false;
+    private boolean sceneChanged = true;
+    private volatile int stableFrames = 0;
+
+    private PowerManager.OnThermalStatusChangedListener thermalListener;
+    private BroadcastReceiver powerSaveReceiver;
+    private boolean started = false;
+
+    public AdaptiveRateController(Context context) {
+        this.context = context.getApplicationContext();
+        this.powerManager = (PowerManager) this.context.getSystemService(Context.POWER_SERVICE);
+        recomputeInterval();
+    }
+
+    public void start() {
+        if (started) return;
+        started = true;
+
+        if (powerManager == null) {
+            Log.w(TAG, "PowerManager not available, thermal and battery inputs disabled");
+            return;
+        }
+
+        powerSaveMode = powerManager.isPowerSaveMode();
+        powerSaveReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                powerSaveMode = powerManager.isPowerSaveMode();
+                Log.d(TAG, "Power save mode changed: " + powerSaveMode);
+                recomputeInterval();
+            }
+        };
+        ContextCompat.registerReceiver(context, powerSaveReceiver,
+                new IntentFilter(PowerManager.ACTION_POWER_SAVE_MODE_CHANGED),
+                ContextCompat.RECEIVER_NOT_EXPORTED);
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            thermalStatus = powerManager.getCurrentThermalStatus();
+            thermalListener = status -> {
+                thermalStatus = status;
+                Log.d(TAG, "Thermal status changed: " + status);
+                recomputeInterval();
+            };
+            powerManager.addThermalStatusListener(ContextCompat.getMainExecutor(context), thermalListener);
+        }
+
+        recomputeInterval();
+    }
+
+    public void stop() {
+        if (!started) return;
+        started = false;
+
+        if (powerSaveReceiver != null) {
+            try {
+                context.unregisterReceiver(powerSaveReceiver);
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "Power save receiver was not registered", e);
+            }
+            powerSaveReceiver = null;
+        }
+
+        if (thermalListener != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            powerManager.removeThermalStatusListener(thermalListener);
+            thermalListener = null;
+        }
+    }
+
+    /**
+     * Called on the analyzer thread for every frame. Returns true when the
+     * frame may start processing given the time since the last accepted frame.
+     */
+    public boolean shouldProcess(ImageProxy imageProxy, long millisSinceLastFrame) {
+        updateSceneSignature(imageProxy);
+
+        if (millisSinceLastFrame < MIN_INTERVAL_MS) {
+            return false;
+        }
+        // New content on screen: don't make the user wait out a backed-off interval
+        if (sceneChanged && millisSinceLastFrame >= getBaseIntervalMs()) {
+            return true;
+        }
+        return millisSinceLastFrame >= currentIntervalMs;
+    }
+
+    /**
+     * Called on the analyzer thread once a frame has been accepted for processing.
+     */
+    public void onFrameAccepted() {
+        System.arraycopy(currentSignature, 0, referenceSignature, 0, currentSignature.length);
+        hasReference = true;
+        sceneChanged = false;
+    }
+
+    /**
+     * Feeds back the latencies of a completed frame.
+     */
+    public void onFrameCompleted(long recognitionLatencyMs, long endToEndLatencyMs) {
+        if (recognitionLatencyMs > 0) {
+            recognitionLatencyEwma += EWMA_ALPHA * (recognitionLatencyMs - recognitionLatencyEwma);
+        }
+        endToEndLatencyEwma += EWMA_ALPHA * (endToEndLatencyMs - endToEndLatencyEwma);
+        recomputeInterval();
+    }
+
+    public long getCurrentIntervalMs() {
+        return currentIntervalMs;
+    }
+
+    public float getCurrentRate() {
+        return 1000f / currentIntervalMs;
+    }
+
+    public Diagnostics getDiagnostics() {
+        return new Diagnostics(
+                currentIntervalMs,
+                (long) recognitionLatencyEwma,
+                (long) endToEndLatencyEwma,
+                thermalStatus,
+                powerSaveMode,
+                stableFrames >= STABLE_FRAMES_BEFORE_BACKOFF
+        );
+    }
+
+    private long getBaseIntervalMs() {
+        long base = (long) (endToEndLatencyEwma * LATENCY_HEADROOM);
+        base = (long) (base * thermalMultiplier(thermalStatus));
+        if (powerSaveMode) {
+            base = Math.max(base * 2, POWER_SAVE_MIN_INTERVAL_MS);
+        }
+        return clampInterval(base);
+    }
+
+    private void recomputeInterval() {
+        long interval = getBaseIntervalMs();
+        if (stableFrames >= STABLE_FRAMES_BEFORE_BACKOFF) {
+            interval = clampInterval((long) (interval * STABLE_SCENE_MULTIPLIER));
+        }
+
+        long previous = currentIntervalMs;
+        currentIntervalMs = interval;
+        if (Math.abs(interval - previous) > previous / 4) {
+            Log.d(TAG, "Analysis interval " + previous + " -> " + interval + " ms, " + getDiagnostics());
+        }
+    }
+
+    private static float thermalMultiplier(int status) {
+        switch (status) {
+            case 0: // THERMAL_STATUS_NONE
+            case 1: // THERMAL_STATUS_LIGHT
+                return 1f;
+            case 2: // THERMAL_STATUS_MODERATE
+                return 1.5f;
+            case 3: // THERMAL_STATUS_SEVERE
+                return 2.5f;
+            default: // CRITICAL, EMERGENCY, SHUTDOWN
+                return 4f;
+        }
+    }
+
+    private static long clampInterval(long interval) {
+        return Math.max(MIN_INTERVAL_MS, Math.min(interval, MAX_INTERVAL_MS));
+    }
+
+    private void updateSceneSignature(ImageProxy imageProxy) {
+        ImageProxy.PlaneProxy luma = imageProxy.getPlanes()[0];
+        ByteBuffer buffer = luma.getBuffer();
+        int rowStride = luma.getRowStride();
+        int pixelStride = luma.getPixelStride();
+        int width = imageProxy.getWidth();
+        int height = imageProxy.getHeight();
+
+        int index = 0;
+        for (int row = 0; row < SIGNATURE_ROWS; row++) {
+            int y = (2 * row + 1) * height / (2 * SIGNATURE_ROWS);
+            for (int col = 0; col < SIGNATURE_COLUMNS; col++) {
+                int x = (2 * col + 1) * width / (2 * SIGNATURE_COLUMNS);
+                currentSignature[index++] = buffer.get(y * rowStride + x * pixelStride) & 0xFF;
+            }
+        }
+
+        if (!hasReference) {
+            return;
+        }
+
+        long diff = 0;
+        for (int i = 0; i < currentSignature.length; i++) {
+            diff += Math.abs(currentSignature[i] - referenceSignature[i]);
+        }
+        int meanDiff = (int) (diff / currentSignature.length);
+
+        if (meanDiff >= SCENE_CHANGE_THRESHOLD) {
+            boolean wasStable = stableFrames >= STABLE_FRAMES_BEFORE_BACKOFF;
+            sceneChanged = true;
+            stableFrames = 0;
+            if (wasStable) {
+                recomputeInterval();
+            }
+        } else if (++stableFrames == STABLE_FRAMES_BEFORE_BACKOFF) {
+            recomputeInterval();
+        }
+    }
+}
\ No newline at end of file
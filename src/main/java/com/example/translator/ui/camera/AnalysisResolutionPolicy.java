@@ -0,0 +1,228 @@
+package com.example.translator.ui.camera;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Rect;
+import android.util.Log;
+import android.util.Size;
+import androidx.camera.core.resolutionselector.AspectRatioStrategy;
+import androidx.camera.core.resolutionselector.ResolutionSelector;
+import androidx.camera.core.resolutionselector.ResolutionStrategy;
+import com.google.mlkit.vision.text.Text;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Chooses the ImageAnalysis resolution used for live OCR.
+ *
+ * The starting point is derived from the size of the region of interest and
+ * the device class; afterwards the policy steps up when recognized lines are
+ * too small to read reliably and steps down when recognition gets slow.
+ */
+public class AnalysisResolutionPolicy {
+
+    private static final String TAG = "AnalysisResolution";
+
+    public enum DeviceClass {
+        LOW, MID, HIGH
+    }
+
+    // 4:3 ladder so the analysis stream keeps the same field of view as the preview
+    private static final Size[] RESOLUTION_LADDER = {
+            new Size(640, 480),
+            new Size(1024, 768),
+            new Size(1280, 960),
+            new Size(1600, 1200),
+            new Size(1920, 1440)
+    };
+
+    // Long edge, in sensor pixels, we want the ROI to cover for comfortable OCR
+    private static final int TARGET_ROI_EDGE = 720;
+
+    // Lines shorter than this (in analysis pixels) are unreliable for ML Kit
+    private static final int MIN_LINE_HEIGHT_PX = 16;
+    // Lines taller than this mean we are spending pixels for nothing
+    private static final int COMFORTABLE_LINE_HEIGHT_PX = 48;
+
+    private static final long HIGH_LATENCY_MS = 900L;
+    private static final long LOW_LATENCY_MS = 350L;
+    private static final int SIGNALS_BEFORE_CHANGE = 3;
+    private static final long CHANGE_COOLDOWN_MS = 4000L;
+
+    private final DeviceClass deviceClass;
+    private final int maxStep;
+
+    private int currentStep;
+    private float roiWidthFraction = 1f;
+    private float roiHeightFraction = 1f;
+
+    private int smallTextSignals = 0;
+    private int slowSignals = 0;
+    private int headroomSignals = 0;
+    private long lastChangeTime = 0L;
+
+    public AnalysisResolutionPolicy(Context context) {
+        this(detectDeviceClass(context));
+    }
+
+    public AnalysisResolutionPolicy(DeviceClass deviceClass) {
+        this.deviceClass = deviceClass;
+        switch (deviceClass) {
+            case LOW:
+                maxStep = 1;
+                break;
+            case HIGH:
+                maxStep = RESOLUTION_LADDER.length - 1;
+                break;
+            default:
+                maxStep = 3;
+        }
+        currentStep = selectInitialStep();
+        Log.d(TAG, "Device class " + deviceClass + ", initial analysis size " + getTargetResolution());
+    }
+
+    public static DeviceClass detectDeviceClass(Context context) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        if (activityManager == null) {
+            return DeviceClass.MID;
+        }
+
+        int memoryClass = activityManager.getMemoryClass();
+        if (activityManager.isLowRamDevice() || memoryClass <= 128 || cores <= 4) {
+            return DeviceClass.LOW;
+        }
+        if (memoryClass >= 256 && cores >= 8) {
+            return DeviceClass.HIGH;
+        }
+        return DeviceClass.MID;
+    }
+
+    public DeviceClass getDeviceClass() {
+        return deviceClass;
+    }
+
+    public synchronized Size getTargetResolution() {
+        return RESOLUTION_LADDER[currentStep];
+    }
+
+    public synchronized ResolutionSelector buildResolutionSelector() {
+        return new ResolutionSelector.Builder()
+                .setAspectRatioStrategy(AspectRatioStrategy.RATIO_4_3_FALLBACK_AUTO_STRATEGY)
+                .setResolutionStrategy(new ResolutionStrategy(
+                        RESOLUTION_LADDER[currentStep],
+                        ResolutionStrategy.FALLBACK_RULE_CLOSEST_LOWER_THEN_HIGHER))
+                .build();
+    }
+
+    /**
+     * Updates the ROI size as a fraction of the preview. Returns true when the
+     * preferred resolution changed and the analysis use case should be rebound.
+     */
+    public synchronized boolean setRegionOfInterest(float widthFraction, float heightFraction) {
+        roiWidthFraction = clampFraction(widthFraction);
+        roiHeightFraction = clampFraction(heightFraction);
+
+        int step = selectInitialStep();
+        if (step != currentStep) {
+            Log.d(TAG, "ROI changed, analysis size " + RESOLUTION_LADDER[currentStep] + " -> " + RESOLUTION_LADDER[step]);
+            applyStep(step);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Feeds back the outcome of one recognition. Returns true when the policy
+     * decided to change resolution and the analysis use case should be rebound.
+     */
+    public synchronized boolean onRecognitionResult(Text layout, long latencyMs) {
+        int lineHeight = medianLineHeight(layout);
+
+        if (latencyMs > HIGH_LATENCY_MS) {
+            slowSignals++;
+            smallTextSignals = 0;
+            headroomSignals = 0;
+        } else if (lineHeight > 0 && lineHeight < MIN_LINE_HEIGHT_PX) {
+            smallTextSignals++;
+            slowSignals = 0;
+            headroomSignals = 0;
+        } else if (lineHeight > COMFORTABLE_LINE_HEIGHT_PX && latencyMs > LOW_LATENCY_MS) {
+            headroomSignals++;
+            slowSignals = 0;
+            smallTextSignals = 0;
+        } else {
+            slowSignals = 0;
+            smallTextSignals = 0;
+            headroomSignals = 0;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastChangeTime < CHANGE_COOLDOWN_MS) {
+            return false;
+        }
+
+        if (slowSignals >= SIGNALS_BEFORE_CHANGE && currentStep > 0) {
+            Log.d(TAG, "Recognition slow (" + latencyMs + " ms), stepping analysis resolution down");
+            applyStep(currentStep - 1);
+            return true;
+        }
+        if (smallTextSignals >= SIGNALS_BEFORE_CHANGE && currentStep < maxStep) {
+            Log.d(TAG, "Text too small (" + lineHeight + " px), stepping analysis resolution up");
+            applyStep(currentStep + 1);
+            return true;
+        }
+        if (headroomSignals >= SIGNALS_BEFORE_CHANGE && currentStep > 0) {
+            Log.d(TAG, "Text comfortably large (" + lineHeight + " px), stepping analysis resolution down");
+            applyStep(currentStep - 1);
+            return true;
+        }
+        return false;
+    }
+
+    private void applyStep(int step) {
+        currentStep = step;
+        lastChangeTime = System.currentTimeMillis();
+        slowSignals = 0;
+        smallTextSignals = 0;
+        headroomSignals = 0;
+    }
+
+    private int selectInitialStep() {
+        // The ROI covers only part of the frame, so the frame must be larger for
+        // the ROI itself to reach the target pixel count.
+        float roiFraction = Math.max(roiWidthFraction, roiHeightFraction);
+        int neededLongEdge = (int) (TARGET_ROI_EDGE / roiFraction);
+
+        for (int step = 0; step <= maxStep; step++) {
+            if (RESOLUTION_LADDER[step].getWidth() >= neededLongEdge) {
+                return step;
+            }
+        }
+        return maxStep;
+    }
+
+    private static float clampFraction(float fraction) {
+        return Math.max(0.1f, Math.min(fraction, 1f));
+    }
+
+    static int medianLineHeight(Text layout) {
+        if (layout == null) return 0;
+
+        List<Integer> heights = new ArrayList<>();
+        for (Text.TextBlock block : layout.getTextBlocks()) {
+            for (Text.Line line : block.getLines()) {
+                Rect box = line.getBoundingBox();
+                if (box != null) {
+                    heights.add(box.height());
+                }
+            }
+        }
+
+        if (heights.isEmpty()) return 0;
+        Collections.sort(heights);
+        return heights.get(heights.size() / 2);
+    }
+}
\ No newline at end of file
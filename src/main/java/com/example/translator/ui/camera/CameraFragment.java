@@ -2,13 +2,13 @@ package com.example.translator.ui.camera;
 
 import android.Manifest;
 import android.content.pm.PackageManager;
-import android.media.Image;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.*;
+import androidx.annotation.NonNull;
 import androidx.camera.core.*;
 import androidx.camera.lifecycle.ProcessCameraProvider;
 import androidx.camera.view.PreviewView;
@@ -17,7 +17,7 @@ import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
-import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.text.Text;
 import com.example.translator.R;
 import com.example.translator.TranslatorApplication;
 import com.example.translator.ui.text.LanguageSpinnerAdapter;
@@ -39,6 +39,8 @@ public class CameraFragment extends Fragment {
 
     // Views
     private PreviewView previewView;
+    private CropOverlayView roiOverlay;
+    private TranslationOverlayView translationOverlay;
     private Spinner spinnerSourceLanguage;
     private Spinner spinnerTargetLanguage;
     private TextView tvDetectedText;
@@ -46,6 +48,8 @@ public class CameraFragment extends Fragment {
     private FloatingActionButton btnCapture;
     private ImageButton btnSwapLanguages;
     private ImageButton btnFlash;
+    private ImageButton btnOverlayMode;
+    private ScrollView scrollTranslationResults;
     private ProgressBar progressBar;
 
     // Camera components
@@ -56,8 +60,9 @@ public class CameraFragment extends Fragment {
     private int flashMode = ImageCapture.FLASH_MODE_OFF;
 
     // Processing control
-    private long lastProcessTime = 0L;
-    private static final long PROCESSING_INTERVAL = 2000L; // 2 seconds between processing
+    private AnalysisResolutionPolicy resolutionPolicy;
+    private AdaptiveRateController rateController;
+    private boolean overlayMode = false;
 
     public CameraFragment() {
         // Required empty public constructor
@@ -75,9 +80,13 @@ public class CameraFragment extends Fragment {
         initializeViews(view);
         setupViewModel();
         setupClickListeners();
+        setupFramePipeline();
         observeViewModel();
 
         cameraExecutor = Executors.newSingleThreadExecutor();
+        resolutionPolicy = new AnalysisResolutionPolicy(requireContext());
+        rateController = new AdaptiveRateController(requireContext());
+        viewModel.getFramePipeline().setRateController(rateController);
 
         if (allPermissionsGranted()) {
             startCamera();
@@ -88,6 +97,8 @@ public class CameraFragment extends Fragment {
 
     private void initializeViews(View view) {
         previewView = view.findViewById(R.id.preview_view);
+        roiOverlay = view.findViewById(R.id.roi_overlay);
+        translationOverlay = view.findViewById(R.id.translation_overlay);
         spinnerSourceLanguage = view.findViewById(R.id.spinner_source_language);
         spinnerTargetLanguage = view.findViewById(R.id.spinner_target_language);
         tvDetectedText = view.findViewById(R.id.tv_detected_text);
@@ -95,6 +106,8 @@ public class CameraFragment extends Fragment {
         btnCapture = view.findViewById(R.id.btn_capture);
         btnSwapLanguages = view.findViewById(R.id.btn_swap_languages);
         btnFlash = view.findViewById(R.id.btn_flash);
+        btnOverlayMode = view.findViewById(R.id.btn_overlay_mode);
+        scrollTranslationResults = view.findViewById(R.id.scroll_translation_results);
         progressBar = view.findViewById(R.id.progress_bar);
     }
 
@@ -114,6 +127,36 @@ public class CameraFragment extends Fragment {
         btnSwapLanguages.setOnClickListener(v -> swapLanguages());
 
         btnFlash.setOnClickListener(v -> toggleFlash());
+
+        btnOverlayMode.setOnClickListener(v -> toggleOverlayMode());
+
+        roiOverlay.setOnCropRectChangeListener((cropRect, viewWidth, viewHeight) -> {
+            viewModel.getFramePipeline().setRegionOfInterest(cropRect, viewWidth, viewHeight);
+
+            if (viewWidth > 0 && viewHeight > 0 && resolutionPolicy.setRegionOfInterest(
+                    cropRect.width() / viewWidth, cropRect.height() / viewHeight)) {
+                rebindImageAnalysis();
+            }
+        });
+    }
+
+    private void setupFramePipeline() {
+        CameraFramePipeline pipeline = viewModel.getFramePipeline();
+        pipeline.setRecognitionObserver(this::onRecognitionFinished);
+
+        AdapterView.OnItemSelectedListener languageListener = new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                pipeline.setLanguages(getSelectedSourceLanguageCode(), getSelectedTargetLanguageCode());
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+                // Keep previous languages
+            }
+        };
+        spinnerSourceLanguage.setOnItemSelectedListener(languageListener);
+        spinnerTargetLanguage.setOnItemSelectedListener(languageListener);
     }
 
     private void observeViewModel() {
@@ -191,15 +234,13 @@ public class CameraFragment extends Fragment {
         Preview preview = new Preview.Builder().build();
         preview.setSurfaceProvider(previewView.getSurfaceProvider());
 
+        // Captures go straight to OCR from memory, so favour shutter latency over processing
         imageCapture = new ImageCapture.Builder()
+                .setCaptureMode(ImageCapture.CAPTURE_MODE_MINIMIZE_LATENCY)
                 .setFlashMode(flashMode)
                 .build();
 
-        imageAnalyzer = new ImageAnalysis.Builder()
-                .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
-                .build();
-
-        imageAnalyzer.setAnalyzer(cameraExecutor, this::processImageSafely);
+        imageAnalyzer = buildImageAnalysis();
 
         CameraSelector cameraSelector = CameraSelector.DEFAULT_BACK_CAMERA;
 
@@ -218,63 +259,106 @@ public class CameraFragment extends Fragment {
         }
     }
 
-    private void processImageSafely(ImageProxy imageProxy) {
-        long currentTime = System.currentTimeMillis();
+    private ImageAnalysis buildImageAnalysis() {
+        // YUV is what the ROI cropper consumes; RGBA conversion would be wasted work for OCR
+        ImageAnalysis analysis = new ImageAnalysis.Builder()
+                .setResolutionSelector(resolutionPolicy.buildResolutionSelector())
+                .setOutputImageFormat(ImageAnalysis.OUTPUT_IMAGE_FORMAT_YUV_420_888)
+                .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
+                .build();
 
-        // Throttle processing to avoid overwhelming the system
-        if (currentTime - lastProcessTime < PROCESSING_INTERVAL) {
-            imageProxy.close();
-            return;
-        }
+        analysis.setAnalyzer(cameraExecutor, viewModel.getFramePipeline()::submit);
+        return analysis;
+    }
 
-        lastProcessTime = currentTime;
+    private void rebindImageAnalysis() {
+        if (cameraProvider == null || imageAnalyzer == null) return;
 
         try {
-            Image mediaImage = imageProxy.getImage();
-            if (mediaImage != null) {
-                InputImage image = InputImage.fromMediaImage(
-                        mediaImage,
-                        imageProxy.getImageInfo().getRotationDegrees()
-                );
-
-                // Process on background thread
-                cameraExecutor.execute(() -> {
-                    try {
-                        viewModel.recognizeText(image, new CameraViewModel.TextRecognitionCallback() {
-                            @Override
-                            public void onSuccess(String detectedText) {
-                                if (detectedText != null && !detectedText.isEmpty()) {
-                                    String sourceLanguage = getSelectedSourceLanguageCode();
-                                    String targetLanguage = getSelectedTargetLanguageCode();
-                                    viewModel.translateDetectedText(detectedText, sourceLanguage, targetLanguage);
-                                }
-                                imageProxy.close();
-                            }
-
-                            @Override
-                            public void onFailure(Exception exception) {
-                                Log.e(TAG, "Image processing failed", exception);
-                                imageProxy.close();
-                            }
-                        });
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error processing image", e);
-                        imageProxy.close();
-                    }
-                });
-            } else {
-                Log.w(TAG, "MediaImage is null");
-                imageProxy.close();
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error processing image", e);
-            imageProxy.close();
+            cameraProvider.unbind(imageAnalyzer);
+            imageAnalyzer = buildImageAnalysis();
+            camera = cameraProvider.bindToLifecycle(this, CameraSelector.DEFAULT_BACK_CAMERA, imageAnalyzer);
+            Log.d(TAG, "Image analysis rebound at " + resolutionPolicy.getTargetResolution());
+        } catch (Exception exc) {
+            Log.e(TAG, "Image analysis rebinding failed", exc);
         }
     }
 
+    private void onRecognitionFinished(Text layout, long latencyMs) {
+        if (resolutionPolicy.onRecognitionResult(layout, latencyMs) && isAdded()) {
+            ContextCompat.getMainExecutor(requireContext()).execute(this::rebindImageAnalysis);
+        }
+    }
+
+    private void toggleOverlayMode() {
+        overlayMode = !overlayMode;
+        CameraFramePipeline pipeline = viewModel.getFramePipeline();
+
+        if (overlayMode) {
+            translationOverlay.setVisibility(View.VISIBLE);
+            scrollTranslationResults.setVisibility(View.GONE);
+            pipeline.setOverlayObserver(new CameraFramePipeline.OverlayObserver() {
+                @Override
+                public void onOverlayFrame(CameraFramePipeline.OverlayFrame frame) {
+                    translationOverlay.setFrame(frame);
+                }
+
+                @Override
+                public void onMotion(float totalX, float totalY, int generation) {
+                    translationOverlay.setMotion(totalX, totalY, generation);
+                }
+            });
+        } else {
+            pipeline.setOverlayObserver(null);
+            translationOverlay.clear();
+            translationOverlay.setVisibility(View.GONE);
+            scrollTranslationResults.setVisibility(View.VISIBLE);
+        }
+
+        Toast.makeText(requireContext(),
+                getString(overlayMode ? R.string.overlay_mode_on : R.string.overlay_mode_off),
+                Toast.LENGTH_SHORT).show();
+    }
+
     private void captureCurrentFrame() {
+        if (imageCapture == null) {
+            showError("Camera not ready");
+            return;
+        }
+        // Results of a capture go to the text panel
+        if (overlayMode) {
+            toggleOverlayMode();
+        }
+
+        btnCapture.setEnabled(false);
         Toast.makeText(requireContext(), getString(R.string.analyzing_frame), Toast.LENGTH_SHORT).show();
-        // The current frame will be processed by the ongoing image analysis
+
+        // Delivered on the analyzer executor, which is where the pipeline expects captures
+        imageCapture.takePicture(cameraExecutor, new ImageCapture.OnImageCapturedCallback() {
+            @Override
+            public void onCaptureSuccess(@NonNull ImageProxy image) {
+                Log.d(TAG, "Captured " + image.getWidth() + "x" + image.getHeight());
+                // The button comes back once the capture is translated, so captures cannot pile up
+                viewModel.getFramePipeline().submitCapture(image, CameraFragment.this::onCaptureFinished);
+            }
+
+            @Override
+            public void onError(@NonNull ImageCaptureException exception) {
+                Log.e(TAG, "Image capture failed", exception);
+                onCaptureFinished("Capture failed");
+            }
+        });
+    }
+
+    private void onCaptureFinished(String error) {
+        if (!isAdded()) return;
+        ContextCompat.getMainExecutor(requireContext()).execute(() -> {
+            if (!isAdded()) return;
+            btnCapture.setEnabled(true);
+            if (error != null) {
+                showError(error);
+            }
+        });
     }
 
     private void swapLanguages() {
@@ -348,15 +432,26 @@ public class CameraFragment extends Fragment {
     @Override
     public void onResume() {
         super.onResume();
+        rateController.start();
         if (allPermissionsGranted() && cameraProvider == null) {
             startCamera();
         }
     }
 
+    @Override
+    public void onPause() {
+        super.onPause();
+        rateController.stop();
+    }
+
     @Override
     public void onDestroyView() {
         super.onDestroyView();
 
+        viewModel.getFramePipeline().setRecognitionObserver(null);
+        viewModel.getFramePipeline().setRateController(null);
+        viewModel.getFramePipeline().setOverlayObserver(null);
+
         // Clean up camera resources
         if (cameraProvider != null) {
             cameraProvider.unbindAll();
@@ -0,0 +1,640 @@
+package com.example.translator.ui.camera;
+
+import android.graphics.Bitmap;
+import android.graphics.ImageFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.camera.core.ImageProxy;
+import com.example.translator.services.TextRecognitionService;
+import com.example.translator.services.TranslationService;
+import com.example.translator.utils.BitmapPool;
+import com.example.translator.utils.SampledImageLoader;
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.text.Text;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live camera OCR/translation pipeline.
+ *
+ * capture (analyzer thread) -> recognition stage -> translation stage
+ *
+ * Exactly one frame is in flight at a time. The capture stage copies the ROI
+ * out of the ImageProxy and closes it before returning, so CameraX buffers are
+ * never held across threads. Stages are single-threaded executors backed by
+ * queues of capacity one; anything arriving while a frame is in flight is
+ * dropped and counted.
+ *
+ * Still captures ({@link #submitCapture}) bypass the rate limit and the stage
+ * queues; live frames are held back until the capture has been translated.
+ */
+public class CameraFramePipeline {
+
+    private static final String TAG = "CameraFramePipeline";
+    private static final long DEFAULT_MIN_FRAME_INTERVAL_MS = 2000L;
+    private static final int STATS_LOG_INTERVAL = 20;
+
+    public interface Listener {
+        void onFrameStarted();
+        void onTextRecognized(String recognizedText);
+        void onTranslationReady(String translatedText);
+        void onFrameFailed(String message, Exception exception);
+        void onFrameCompleted(Stats stats);
+    }
+
+    /**
+     * End of one still capture, after its translation arrived or it failed.
+     */
+    public interface CaptureCallback {
+        /**
+         * @param error what went wrong, or null when the capture was translated
+         */
+        void onCaptureFinished(String error);
+    }
+
+    public interface RecognitionObserver {
+        void onFrameRecognized(Text layout, long recognitionLatencyMs);
+    }
+
+    /**
+     * Receives per-line translations and per-frame motion for the AR overlay.
+     * Both methods are called on pipeline threads.
+     */
+    public interface OverlayObserver {
+        void onOverlayFrame(OverlayFrame frame);
+        void onMotion(float totalX, float totalY, int generation);
+    }
+
+    public static class OverlayLine {
+        public final RectF sensorBox;
+        public final String text;
+
+        OverlayLine(RectF sensorBox, String text) {
+            this.sensorBox = sensorBox;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Translated lines of one recognized frame. Boxes are in sensor coordinates
+     * of that frame; the anchor is the tracker position when it was captured.
+     */
+    public static class OverlayFrame {
+        public final List<OverlayLine> lines;
+        public final int imageWidth;
+        public final int imageHeight;
+        public final int rotationDegrees;
+        public final float anchorX;
+        public final float anchorY;
+        public final int generation;
+
+        OverlayFrame(List<OverlayLine> lines, int imageWidth, int imageHeight, int rotationDegrees,
+                     float anchorX, float anchorY, int generation) {
+            this.lines = lines;
+            this.imageWidth = imageWidth;
+            this.imageHeight = imageHeight;
+            this.rotationDegrees = rotationDegrees;
+            this.anchorX = anchorX;
+            this.anchorY = anchorY;
+            this.generation = generation;
+        }
+    }
+
+    public static class Stats {
+        public final long framesReceived;
+        public final long framesDropped;
+        public final long framesProcessed;
+        public final long lastLatencyMs;
+        public final long averageLatencyMs;
+        public final long maxLatencyMs;
+
+        Stats(long framesReceived, long framesDropped, long framesProcessed,
+              long lastLatencyMs, long averageLatencyMs, long maxLatencyMs) {
+            this.framesReceived = framesReceived;
+            this.framesDropped = framesDropped;
+            this.framesProcessed = framesProcessed;
+            this.lastLatencyMs = lastLatencyMs;
+            this.averageLatencyMs = averageLatencyMs;
+            this.maxLatencyMs = maxLatencyMs;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{received=" + framesReceived +
+                    ", dropped=" + framesDropped +
+                    ", processed=" + framesProcessed +
+                    ", lastLatencyMs=" + lastLatencyMs +
+                    ", avgLatencyMs=" + averageLatencyMs +
+                    ", maxLatencyMs=" + maxLatencyMs +
+                    '}';
+        }
+    }
+
+    private static class FrameTask {
+        final byte[] nv21;
+        final int width;
+        final int height;
+        final int rotationDegrees;
+        final Rect sensorCrop;
+        final int frameWidth;
+        final int frameHeight;
+        final long receivedAt;
+        long recognitionStartedAt;
+        long recognitionLatencyMs;
+        float anchorX;
+        float anchorY;
+        int generation;
+
+        FrameTask(byte[] nv21, int width, int height, int rotationDegrees, Rect sensorCrop,
+                  int frameWidth, int frameHeight, long receivedAt) {
+            this.nv21 = nv21;
+            this.width = width;
+            this.height = height;
+            this.rotationDegrees = rotationDegrees;
+            this.sensorCrop = sensorCrop;
+            this.frameWidth = frameWidth;
+            this.frameHeight = frameHeight;
+            this.receivedAt = receivedAt;
+        }
+    }
+
+    private final TextRecognitionService textRecognitionService;
+    private final TranslationService translationService;
+    private final Listener listener;
+
+    private final ThreadPoolExecutor recognitionStage;
+    private final ThreadPoolExecutor translationStage;
+
+    private final FrameRoiMapper roiMapper = new FrameRoiMapper();
+    private final YuvFrameCropper frameCropper = new YuvFrameCropper();
+    private final LumaMotionTracker motionTracker = new LumaMotionTracker();
+    private final AtomicBoolean frameInFlight = new AtomicBoolean(false);
+    private final BitmapPool bitmapPool = BitmapPool.getInstance();
+    private volatile boolean captureInFlight = false;
+
+    // Counters
+    private final AtomicLong framesReceived = new AtomicLong();
+    private final AtomicLong framesDropped = new AtomicLong();
+    private final AtomicLong framesProcessed = new AtomicLong();
+    private final AtomicLong totalLatencyMs = new AtomicLong();
+    private volatile long lastLatencyMs = 0L;
+    private volatile long maxLatencyMs = 0L;
+
+    // Configuration, written from the main thread
+    private volatile RectF roiViewRect;
+    private volatile int roiViewWidth;
+    private volatile int roiViewHeight;
+    private volatile String sourceLanguage = "en";
+    private volatile String targetLanguage = "vi";
+    private volatile AdaptiveRateController rateController;
+    private volatile RecognitionObserver recognitionObserver;
+    private volatile OverlayObserver overlayObserver;
+
+    // Only touched on the analyzer thread
+    private long lastAcceptedTime = 0L;
+    private byte[] jpegBuffer;
+
+    public CameraFramePipeline(TextRecognitionService textRecognitionService,
+                               TranslationService translationService,
+                               Listener listener) {
+        this.textRecognitionService = textRecognitionService;
+        this.translationService = translationService;
+        this.listener = listener;
+        this.recognitionStage = createStage("camera-ocr");
+        this.translationStage = createStage("camera-translate");
+    }
+
+    private static ThreadPoolExecutor createStage(String name) {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), runnable -> new Thread(runnable, name));
+    }
+
+    public void setRegionOfInterest(RectF viewRect, int viewWidth, int viewHeight) {
+        roiViewWidth = viewWidth;
+        roiViewHeight = viewHeight;
+        roiViewRect = viewRect;
+    }
+
+    public void setLanguages(String sourceLanguage, String targetLanguage) {
+        this.sourceLanguage = sourceLanguage;
+        this.targetLanguage = targetLanguage;
+    }
+
+    /**
+     * Lets the controller decide when the next frame may start. Without one the
+     * pipeline falls back to a fixed interval.
+     */
+    public void setRateController(AdaptiveRateController controller) {
+        rateController = controller;
+    }
+
+    public void setRecognitionObserver(RecognitionObserver observer) {
+        recognitionObserver = observer;
+    }
+
+    /**
+     * Enables overlay mode: every frame feeds the motion tracker and recognized
+     * lines are translated individually. Pass null to go back to plain text.
+     */
+    public void setOverlayObserver(OverlayObserver observer) {
+        overlayObserver = observer;
+    }
+
+    /**
+     * Entry point for ImageAnalysis. Always closes the ImageProxy before returning.
+     */
+    public void submit(ImageProxy imageProxy) {
+        framesReceived.incrementAndGet();
+        long now = SystemClock.elapsedRealtime();
+
+        try {
+            // Tracking is cheap and runs on every frame so the overlay can move smoothly
+            OverlayObserver overlay = overlayObserver;
+            if (overlay != null) {
+                motionTracker.onFrame(imageProxy);
+                overlay.onMotion(motionTracker.getTotalX(), motionTracker.getTotalY(), motionTracker.getGeneration());
+            }
+
+            AdaptiveRateController controller = rateController;
+            boolean due = controller != null
+                    ? controller.shouldProcess(imageProxy, now - lastAcceptedTime)
+                    : now - lastAcceptedTime >= DEFAULT_MIN_FRAME_INTERVAL_MS;
+
+            if (!due || captureInFlight || !frameInFlight.compareAndSet(false, true)) {
+                framesDropped.incrementAndGet();
+                return;
+            }
+
+            FrameTask task = captureFrame(imageProxy, now);
+            if (task == null) {
+                Log.w(TAG, "Region of interest is empty");
+                framesDropped.incrementAndGet();
+                frameInFlight.set(false);
+                return;
+            }
+
+            lastAcceptedTime = now;
+            task.anchorX = motionTracker.getTotalX();
+            task.anchorY = motionTracker.getTotalY();
+            task.generation = motionTracker.getGeneration();
+            if (controller != null) {
+                controller.onFrameAccepted();
+            }
+            listener.onFrameStarted();
+            recognitionStage.execute(() -> recognize(task));
+
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "Recognition stage rejected frame", e);
+            framesDropped.incrementAndGet();
+            frameInFlight.set(false);
+        } catch (Exception e) {
+            Log.e(TAG, "Error capturing frame", e);
+            framesDropped.incrementAndGet();
+            frameInFlight.set(false);
+        } finally {
+            // Pixels have been copied (or the frame was skipped), give the buffer back to CameraX
+            imageProxy.close();
+        }
+    }
+
+    /**
+     * Entry point for ImageCapture.takePicture. Recognizes the region of
+     * interest of a full-resolution JPEG still, decoded straight from the
+     * capture buffer, then translates it. Must be called on the analyzer
+     * executor. Always closes the ImageProxy before returning.
+     *
+     * Failures of a capture go to {@code callback} rather than the listener,
+     * which is called exactly once when the capture is done.
+     */
+    public void submitCapture(ImageProxy imageProxy, CaptureCallback callback) {
+        long receivedAt = SystemClock.elapsedRealtime();
+        captureInFlight = true;
+        lastAcceptedTime = receivedAt;
+        listener.onFrameStarted();
+
+        Bitmap bitmap;
+        int rotation = imageProxy.getImageInfo().getRotationDegrees();
+        try {
+            if (imageProxy.getFormat() != ImageFormat.JPEG) {
+                throw new IllegalArgumentException("Unsupported capture format " + imageProxy.getFormat());
+            }
+            Rect sensorCrop = mapRegionOfInterest(imageProxy.getWidth(), imageProxy.getHeight(), rotation);
+            bitmap = decodeJpegRegion(imageProxy.getPlanes()[0].getBuffer(), sensorCrop);
+        } catch (Exception e) {
+            Log.e(TAG, "Error decoding capture", e);
+            completeCapture(receivedAt, callback, "Capture failed");
+            return;
+        } finally {
+            imageProxy.close();
+        }
+
+        long decodedAt = SystemClock.elapsedRealtime();
+        InputImage image = InputImage.fromBitmap(bitmap, rotation);
+        textRecognitionService.recognizeTextWithLayout(image, new TextRecognitionService.TextLayoutCallback() {
+            @Override
+            public void onSuccess(String recognizedText, Text layout) {
+                bitmapPool.release(bitmap);
+                Log.d(TAG, "Capture recognized in " + (SystemClock.elapsedRealtime() - decodedAt) +
+                        " ms (decode " + (decodedAt - receivedAt) + " ms)");
+                listener.onTextRecognized(recognizedText);
+                translateCapture(recognizedText, receivedAt, callback);
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                bitmapPool.release(bitmap);
+                Log.e(TAG, "Capture recognition failed", exception);
+                completeCapture(receivedAt, callback, "Text recognition failed");
+            }
+        });
+    }
+
+    private Bitmap decodeJpegRegion(ByteBuffer buffer, Rect sensorCrop) throws IOException {
+        int length = buffer.remaining();
+        if (jpegBuffer == null || jpegBuffer.length < length) {
+            jpegBuffer = new byte[length];
+        }
+        buffer.get(jpegBuffer, 0, length);
+
+        // Only the region is decoded, subsampled to OCR resolution; the full ARGB frame never exists
+        return SampledImageLoader.decodeEncodedRegion(jpegBuffer, length, sensorCrop,
+                SampledImageLoader.OCR_LONG_EDGE, bitmapPool);
+    }
+
+    private void translateCapture(String recognizedText, long receivedAt, CaptureCallback callback) {
+        String source = sourceLanguage;
+        String target = targetLanguage;
+
+        if (recognizedText == null || recognizedText.trim().isEmpty() || source.equals(target)) {
+            if (recognizedText != null && source.equals(target)) {
+                listener.onTranslationReady(recognizedText);
+            }
+            completeCapture(receivedAt, callback, null);
+            return;
+        }
+
+        try {
+            translationService.translateText(recognizedText, source, target, new TranslationService.TranslationCallback() {
+                @Override
+                public void onSuccess(String translatedText) {
+                    listener.onTranslationReady(translatedText);
+                    completeCapture(receivedAt, callback, null);
+                }
+
+                @Override
+                public void onFailure(Exception exception) {
+                    Log.e(TAG, "Capture translation failed", exception);
+                    completeCapture(receivedAt, callback, "Translation failed");
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Capture translation failed", e);
+            completeCapture(receivedAt, callback, "Translation failed");
+        }
+    }
+
+    private void completeCapture(long receivedAt, CaptureCallback callback, String error) {
+        Log.d(TAG, "Capture completed in " + (SystemClock.elapsedRealtime() - receivedAt) + " ms");
+        captureInFlight = false;
+        listener.onFrameCompleted(getStats());
+        callback.onCaptureFinished(error);
+    }
+
+    private Rect mapRegionOfInterest(int width, int height, int rotation) {
+        RectF roi = roiViewRect;
+
+        Rect sensorCrop = null;
+        if (roi != null && roiMapper.update(width, height, rotation, roiViewWidth, roiViewHeight)) {
+            sensorCrop = roiMapper.mapViewToSensor(roi);
+        }
+        if (sensorCrop == null) {
+            // Overlay not laid out yet, fall back to the whole frame
+            sensorCrop = new Rect(0, 0, width, height);
+        }
+        return sensorCrop;
+    }
+
+    private FrameTask captureFrame(ImageProxy imageProxy, long receivedAt) {
+        int rotation = imageProxy.getImageInfo().getRotationDegrees();
+        Rect sensorCrop = mapRegionOfInterest(imageProxy.getWidth(), imageProxy.getHeight(), rotation);
+
+        // The crop buffer is shared; frameInFlight guarantees nobody is still reading it
+        byte[] nv21 = frameCropper.crop(imageProxy, sensorCrop);
+        if (nv21 == null) {
+            return null;
+        }
+
+        return new FrameTask(nv21, frameCropper.getCropWidth(), frameCropper.getCropHeight(),
+                rotation, sensorCrop, imageProxy.getWidth(), imageProxy.getHeight(), receivedAt);
+    }
+
+    private void recognize(FrameTask task) {
+        try {
+            task.recognitionStartedAt = SystemClock.elapsedRealtime();
+            InputImage image = InputImage.fromByteArray(
+                    task.nv21, task.width, task.height, task.rotationDegrees, InputImage.IMAGE_FORMAT_NV21);
+
+            textRecognitionService.recognizeTextWithLayout(image, new TextRecognitionService.TextLayoutCallback() {
+                @Override
+                public void onSuccess(String recognizedText, Text layout) {
+                    onRecognized(task, recognizedText, layout);
+                }
+
+                @Override
+                public void onFailure(Exception exception) {
+                    listener.onFrameFailed("Text recognition failed", exception);
+                    complete(task);
+                }
+            });
+        } catch (Exception e) {
+            listener.onFrameFailed("Text recognition failed", e);
+            complete(task);
+        }
+    }
+
+    private void onRecognized(FrameTask task, String recognizedText, Text layout) {
+        task.recognitionLatencyMs = SystemClock.elapsedRealtime() - task.recognitionStartedAt;
+        RecognitionObserver observer = recognitionObserver;
+        if (observer != null) {
+            observer.onFrameRecognized(layout, task.recognitionLatencyMs);
+        }
+        listener.onTextRecognized(recognizedText);
+
+        String source = sourceLanguage;
+        String target = targetLanguage;
+
+        if (overlayObserver != null) {
+            translateLines(task, layout, source, target);
+            return;
+        }
+
+        if (recognizedText == null || recognizedText.trim().isEmpty() || source.equals(target)) {
+            if (recognizedText != null && source.equals(target)) {
+                listener.onTranslationReady(recognizedText);
+            }
+            complete(task);
+            return;
+        }
+
+        try {
+            translationStage.execute(() -> translate(task, recognizedText, source, target));
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "Translation stage rejected frame", e);
+            complete(task);
+        }
+    }
+
+    private void translate(FrameTask task, String text, String source, String target) {
+        try {
+            translationService.translateText(text, source, target, new TranslationService.TranslationCallback() {
+                @Override
+                public void onSuccess(String translatedText) {
+                    listener.onTranslationReady(translatedText);
+                    complete(task);
+                }
+
+                @Override
+                public void onFailure(Exception exception) {
+                    listener.onFrameFailed("Translation failed", exception);
+                    complete(task);
+                }
+            });
+        } catch (Exception e) {
+            listener.onFrameFailed("Translation failed", e);
+            complete(task);
+        }
+    }
+
+    private void translateLines(FrameTask task, Text layout, String source, String target) {
+        List<String> lineTexts = new ArrayList<>();
+        List<RectF> lineBoxes = new ArrayList<>();
+        if (layout != null) {
+            for (Text.TextBlock block : layout.getTextBlocks()) {
+                for (Text.Line line : block.getLines()) {
+                    Rect box = line.getBoundingBox();
+                    String text = line.getText().trim();
+                    if (box == null || text.isEmpty()) continue;
+                    lineTexts.add(text);
+                    lineBoxes.add(FrameRoiMapper.cropUprightToSensor(
+                            new RectF(box), task.sensorCrop, task.rotationDegrees, null));
+                }
+            }
+        }
+
+        if (lineTexts.isEmpty() || source.equals(target)) {
+            publishOverlay(task, lineBoxes, lineTexts);
+            complete(task);
+            return;
+        }
+
+        // One translator call per frame; ML Kit keeps the line breaks
+        String joined = String.join("\n", lineTexts);
+        try {
+            translationStage.execute(() -> {
+                try {
+                    translationService.translateText(joined, source, target, new TranslationService.TranslationCallback() {
+                        @Override
+                        public void onSuccess(String translatedText) {
+                            publishOverlay(task, lineBoxes, splitTranslatedLines(translatedText, lineTexts));
+                            listener.onTranslationReady(translatedText);
+                            complete(task);
+                        }
+
+                        @Override
+                        public void onFailure(Exception exception) {
+                            listener.onFrameFailed("Translation failed", exception);
+                            complete(task);
+                        }
+                    });
+                } catch (Exception e) {
+                    listener.onFrameFailed("Translation failed", e);
+                    complete(task);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "Translation stage rejected frame", e);
+            complete(task);
+        }
+    }
+
+    private static List<String> splitTranslatedLines(String translatedText, List<String> originals) {
+        String[] parts = translatedText.split("\n");
+        if (parts.length == originals.size()) {
+            List<String> lines = new ArrayList<>(parts.length);
+            for (String part : parts) {
+                lines.add(part.trim());
+            }
+            return lines;
+        }
+
+        // Line structure was not preserved, show the whole translation on the first line
+        Log.d(TAG, "Translated " + parts.length + " lines for " + originals.size() + " source lines");
+        List<String> lines = new ArrayList<>(Collections.nCopies(originals.size(), ""));
+        lines.set(0, translatedText.replace('\n', ' '));
+        return lines;
+    }
+
+    private void publishOverlay(FrameTask task, List<RectF> boxes, List<String> texts) {
+        OverlayObserver observer = overlayObserver;
+        if (observer == null) return;
+
+        List<OverlayLine> lines = new ArrayList<>(boxes.size());
+        for (int i = 0; i < boxes.size(); i++) {
+            lines.add(new OverlayLine(boxes.get(i), texts.get(i)));
+        }
+        observer.onOverlayFrame(new OverlayFrame(lines, task.frameWidth, task.frameHeight,
+                task.rotationDegrees, task.anchorX, task.anchorY, task.generation));
+    }
+
+    private void complete(FrameTask task) {
+        long latency = SystemClock.elapsedRealtime() - task.receivedAt;
+        long processed = framesProcessed.incrementAndGet();
+        totalLatencyMs.addAndGet(latency);
+        lastLatencyMs = latency;
+        if (latency > maxLatencyMs) {
+            maxLatencyMs = latency;
+        }
+
+        AdaptiveRateController controller = rateController;
+        if (controller != null) {
+            controller.onFrameCompleted(task.recognitionLatencyMs, latency);
+        }
+
+        frameInFlight.set(false);
+
+        Stats stats = getStats();
+        if (processed % STATS_LOG_INTERVAL == 0) {
+            Log.d(TAG, stats + (controller != null ? " " + controller.getDiagnostics() : ""));
+        }
+        listener.onFrameCompleted(stats);
+    }
+
+    public Stats getStats() {
+        long processed = framesProcessed.get();
+        return new Stats(
+                framesReceived.get(),
+                framesDropped.get(),
+                processed,
+                lastLatencyMs,
+                processed > 0 ? totalLatencyMs.get() / processed : 0L,
+                maxLatencyMs
+        );
+    }
+
+    public void shutdown() {
+        recognitionStage.shutdownNow();
+        translationStage.shutdownNow();
+        Log.d(TAG, "Pipeline shut down: " + getStats());
+    }
+}
\ No newline at end of file
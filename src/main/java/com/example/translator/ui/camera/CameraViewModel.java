@@ -6,7 +6,6 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 import androidx.lifecycle.ViewModelProvider;
-import com.google.mlkit.vision.common.InputImage;
 import com.example.translator.data.model.Language;
 import com.example.translator.data.model.UserPreferences;
 import com.example.translator.data.repository.LanguageRepository;
@@ -14,8 +13,6 @@ import com.example.translator.data.repository.UserRepository;
 import com.example.translator.services.TextRecognitionService;
 import com.example.translator.services.TranslationService;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class CameraViewModel extends ViewModel {
 
@@ -25,7 +22,7 @@ public class CameraViewModel extends ViewModel {
     private LanguageRepository languageRepository;
     private TextRecognitionService textRecognitionService;
     private TranslationService translationService;
-    private ExecutorService executor;
+    private CameraFramePipeline framePipeline;
 
     public final LiveData<List<Language>> supportedLanguages;
     public final LiveData<UserPreferences> userPreferences;
@@ -42,116 +39,48 @@ public class CameraViewModel extends ViewModel {
     private MutableLiveData<String> _errorMessage = new MutableLiveData<>();
     public final LiveData<String> errorMessage = _errorMessage;
 
-    // Callback interfaces
-    public interface TextRecognitionCallback {
-        void onSuccess(String recognizedText);
-        void onFailure(Exception exception);
-    }
-
     public CameraViewModel(UserRepository userRepository, LanguageRepository languageRepository, Context context) {
         this.userRepository = userRepository;
         this.languageRepository = languageRepository;
         this.textRecognitionService = new TextRecognitionService();
         this.translationService = new TranslationService(context);
-        this.executor = Executors.newFixedThreadPool(4);
+        this.framePipeline = new CameraFramePipeline(textRecognitionService, translationService, new FramePipelineListener());
 
         // Initialize LiveData from repositories
         this.supportedLanguages = languageRepository.getAllSupportedLanguages();
         this.userPreferences = userRepository.getUserPreferences();
     }
 
-    public void recognizeText(InputImage inputImage, TextRecognitionCallback callback) {
-        executor.execute(() -> {
-            try {
-                _isLoading.postValue(true);
-                _errorMessage.postValue(null);
-
-                Log.d(TAG, "Starting text recognition from camera image...");
-
-                textRecognitionService.recognizeTextFromImage(inputImage, new TextRecognitionService.TextRecognitionCallback() {
-                    @Override
-                    public void onSuccess(String recognizedText) {
-                        Log.d(TAG, "Text recognition successful: " + (recognizedText != null ? recognizedText.length() : 0) + " characters");
-                        _detectedText.postValue(recognizedText);
-
-                        if (callback != null) {
-                            callback.onSuccess(recognizedText);
-                        }
-                        _isLoading.postValue(false);
-                    }
-
-                    @Override
-                    public void onFailure(Exception exception) {
-                        Log.e(TAG, "Text recognition failed", exception);
-                        handleError("Text recognition failed", exception);
-
-                        if (callback != null) {
-                            callback.onFailure(exception);
-                        }
-                        _isLoading.postValue(false);
-                    }
-                });
-
-            } catch (Exception e) {
-                Log.e(TAG, "Error in text recognition process", e);
-                handleError("Text recognition failed", e);
-
-                if (callback != null) {
-                    callback.onFailure(e);
-                }
-                _isLoading.postValue(false);
-            }
-        });
+    public CameraFramePipeline getFramePipeline() {
+        return framePipeline;
     }
 
-    // Overloaded method for direct recognition without callback
-    public void recognizeText(InputImage inputImage) {
-        recognizeText(inputImage, null);
-    }
+    private class FramePipelineListener implements CameraFramePipeline.Listener {
+        @Override
+        public void onFrameStarted() {
+            _isLoading.postValue(true);
+        }
 
-    public void translateDetectedText(String text, String sourceLanguage, String targetLanguage) {
-        if (text == null || text.trim().isEmpty()) {
-            Log.w(TAG, "No text to translate");
-            return;
+        @Override
+        public void onTextRecognized(String recognizedText) {
+            _detectedText.postValue(recognizedText);
         }
 
-        if (sourceLanguage.equals(targetLanguage)) {
-            Log.d(TAG, "Source and target languages are the same, skipping translation");
-            _translationResult.postValue(text);
-            return;
+        @Override
+        public void onTranslationReady(String translatedText) {
+            _translationResult.postValue(translatedText);
         }
 
-        executor.execute(() -> {
-            try {
-                _isLoading.postValue(true);
-                _errorMessage.postValue(null);
-
-                Log.d(TAG, "Translating text from " + sourceLanguage + " to " + targetLanguage);
-
-                translationService.translateText(text, sourceLanguage, targetLanguage,
-                        new TranslationService.TranslationCallback() {
-                            @Override
-                            public void onSuccess(String translatedText) {
-                                Log.d(TAG, "Translation successful");
-                                _translationResult.postValue(translatedText);
-                                _isLoading.postValue(false);
-                            }
-
-                            @Override
-                            public void onFailure(Exception exception) {
-                                Log.e(TAG, "Translation failed", exception);
-                                _translationResult.postValue(null);
-                                handleError("Translation failed", exception);
-                                _isLoading.postValue(false);
-                            }
-                        });
-
-            } catch (Exception e) {
-                Log.e(TAG, "Error in translation process", e);
-                handleError("Translation failed", e);
-                _isLoading.postValue(false);
-            }
-        });
+        @Override
+        public void onFrameFailed(String message, Exception exception) {
+            Log.e(TAG, message, exception);
+            handleError(message, exception);
+        }
+
+        @Override
+        public void onFrameCompleted(CameraFramePipeline.Stats stats) {
+            _isLoading.postValue(false);
+        }
     }
 
     private void handleError(String message, Exception exception) {
@@ -232,18 +161,8 @@ public class CameraViewModel extends ViewModel {
 
         Log.d(TAG, "ViewModel cleared, cleaning up resources");
 
-        // Cancel any ongoing operations
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
-            try {
-                // Wait a bit for tasks to complete
-                if (!executor.awaitTermination(1, java.util.concurrent.TimeUnit.SECONDS)) {
-                    executor.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                executor.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
+        if (framePipeline != null) {
+            framePipeline.shutdown();
         }
 
         // Close services
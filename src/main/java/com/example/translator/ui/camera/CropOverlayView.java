@@ -19,6 +19,7 @@ public class CropOverlayView extends View {
     private DragHandle dragHandle = DragHandle.NONE;
     private float lastTouchX = 0f;
     private float lastTouchY = 0f;
+    private OnCropRectChangeListener cropRectChangeListener;
 
     private static final float HANDLE_RADIUS = 30f;
     private static final float MIN_CROP_SIZE = 100f;
@@ -27,6 +28,10 @@ public class CropOverlayView extends View {
         NONE, TOP_LEFT, TOP_RIGHT, BOTTOM_LEFT, BOTTOM_RIGHT, CENTER
     }
 
+    public interface OnCropRectChangeListener {
+        void onCropRectChanged(RectF cropRect, int viewWidth, int viewHeight);
+    }
+
     public CropOverlayView(Context context) {
         super(context);
         init(context);
@@ -67,6 +72,7 @@ public class CropOverlayView extends View {
         // Initialize crop rect to center 70% of the view
         float margin = Math.min(w, h) * 0.15f;
         cropRect.set(margin, margin, w - margin, h - margin);
+        notifyCropRectChanged();
     }
 
     @Override
@@ -188,6 +194,9 @@ public class CropOverlayView extends View {
                 break;
 
             case MotionEvent.ACTION_UP:
+                if (isDragging) {
+                    notifyCropRectChanged();
+                }
                 isDragging = false;
                 dragHandle = DragHandle.NONE;
                 return true;
@@ -233,5 +242,16 @@ public class CropOverlayView extends View {
     public void setCropRect(RectF rect) {
         cropRect.set(rect);
         invalidate();
+        notifyCropRectChanged();
+    }
+
+    public void setOnCropRectChangeListener(OnCropRectChangeListener listener) {
+        this.cropRectChangeListener = listener;
+    }
+
+    private void notifyCropRectChanged() {
+        if (cropRectChangeListener != null) {
+            cropRectChangeListener.onCropRectChanged(new RectF(cropRect), getWidth(), getHeight());
+        }
     }
 }
\ No newline at end of file
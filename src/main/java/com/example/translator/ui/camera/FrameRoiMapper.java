@@ -0,0 +1,160 @@
+package com.example.translator.ui.camera;
+
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ * Maps a region of interest drawn on top of a {@code PreviewView} (FILL_CENTER)
+ * into the coordinate space of the analysis frame as delivered by the sensor,
+ * i.e. before the frame's rotation is applied.
+ */
+public class FrameRoiMapper {
+
+    private int imageWidth;
+    private int imageHeight;
+    private int rotationDegrees;
+    private int viewWidth;
+    private int viewHeight;
+
+    // Upright image -> view transform
+    private float scale = 1f;
+    private float offsetX = 0f;
+    private float offsetY = 0f;
+
+    public boolean update(int imageWidth, int imageHeight, int rotationDegrees, int viewWidth, int viewHeight) {
+        if (imageWidth <= 0 || imageHeight <= 0 || viewWidth <= 0 || viewHeight <= 0) {
+            return false;
+        }
+
+        if (this.imageWidth == imageWidth && this.imageHeight == imageHeight
+                && this.rotationDegrees == rotationDegrees
+                && this.viewWidth == viewWidth && this.viewHeight == viewHeight) {
+            return true;
+        }
+
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+        this.rotationDegrees = rotationDegrees;
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+
+        int uprightWidth = getUprightWidth();
+        int uprightHeight = getUprightHeight();
+
+        // FILL_CENTER scales the upright frame until it covers the view, then centers it
+        scale = Math.max((float) viewWidth / uprightWidth, (float) viewHeight / uprightHeight);
+        offsetX = (viewWidth - uprightWidth * scale) / 2f;
+        offsetY = (viewHeight - uprightHeight * scale) / 2f;
+        return true;
+    }
+
+    public int getUprightWidth() {
+        return isSwapped() ? imageHeight : imageWidth;
+    }
+
+    public int getUprightHeight() {
+        return isSwapped() ? imageWidth : imageHeight;
+    }
+
+    public int getRotationDegrees() {
+        return rotationDegrees;
+    }
+
+    private boolean isSwapped() {
+        return rotationDegrees == 90 || rotationDegrees == 270;
+    }
+
+    /**
+     * Converts a rectangle in view coordinates into a sensor-space rectangle.
+     * Edges are aligned to even pixels so the result can be used to crop
+     * 4:2:0 subsampled chroma planes. Returns null if the region is empty.
+     */
+    public Rect mapViewToSensor(RectF viewRect) {
+        if (viewRect == null || imageWidth == 0) return null;
+
+        float uLeft = (viewRect.left - offsetX) / scale;
+        float uTop = (viewRect.top - offsetY) / scale;
+        float uRight = (viewRect.right - offsetX) / scale;
+        float uBottom = (viewRect.bottom - offsetY) / scale;
+
+        RectF sensor = new RectF();
+        uprightToSensor(uLeft, uTop, uRight, uBottom, imageWidth, imageHeight, rotationDegrees, sensor);
+
+        int left = clampEven((int) Math.floor(sensor.left), imageWidth);
+        int top = clampEven((int) Math.floor(sensor.top), imageHeight);
+        int right = clampEven((int) Math.ceil(sensor.right), imageWidth);
+        int bottom = clampEven((int) Math.ceil(sensor.bottom), imageHeight);
+
+        if (right - left < 2 || bottom - top < 2) {
+            return null;
+        }
+        return new Rect(left, top, right, bottom);
+    }
+
+    /**
+     * Converts a sensor-space rectangle back to view coordinates.
+     */
+    public RectF mapSensorToView(RectF sensorRect, RectF out) {
+        RectF upright = out != null ? out : new RectF();
+        sensorToUpright(sensorRect.left, sensorRect.top, sensorRect.right, sensorRect.bottom, upright);
+        upright.set(
+                upright.left * scale + offsetX,
+                upright.top * scale + offsetY,
+                upright.right * scale + offsetX,
+                upright.bottom * scale + offsetY
+        );
+        return upright;
+    }
+
+    /**
+     * Converts a box reported by OCR for a cropped frame (upright coordinates
+     * relative to the crop) into full-frame sensor coordinates.
+     */
+    public static RectF cropUprightToSensor(RectF uprightBox, Rect sensorCrop, int rotationDegrees, RectF out) {
+        RectF sensor = out != null ? out : new RectF();
+        uprightToSensor(uprightBox.left, uprightBox.top, uprightBox.right, uprightBox.bottom,
+                sensorCrop.width(), sensorCrop.height(), rotationDegrees, sensor);
+        sensor.offset(sensorCrop.left, sensorCrop.top);
+        return sensor;
+    }
+
+    private static void uprightToSensor(float l, float t, float r, float b,
+                                        int imageWidth, int imageHeight, int rotationDegrees, RectF out) {
+        switch (rotationDegrees) {
+            case 90:
+                // upright (x, y) = (H - sy, sx)
+                out.set(t, imageHeight - r, b, imageHeight - l);
+                break;
+            case 180:
+                out.set(imageWidth - r, imageHeight - b, imageWidth - l, imageHeight - t);
+                break;
+            case 270:
+                // upright (x, y) = (sy, W - sx)
+                out.set(imageWidth - b, l, imageWidth - t, r);
+                break;
+            default:
+                out.set(l, t, r, b);
+        }
+    }
+
+    private void sensorToUpright(float l, float t, float r, float b, RectF out) {
+        switch (rotationDegrees) {
+            case 90:
+                out.set(imageHeight - b, l, imageHeight - t, r);
+                break;
+            case 180:
+                out.set(imageWidth - r, imageHeight - b, imageWidth - l, imageHeight - t);
+                break;
+            case 270:
+                out.set(t, imageWidth - r, b, imageWidth - l);
+                break;
+            default:
+                out.set(l, t, r, b);
+        }
+    }
+
+    private static int clampEven(int value, int max) {
+        int clamped = Math.max(0, Math.min(value, max));
+        return clamped & ~1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.example.translator.ui.camera;
+
+import android.util.Log;
+import androidx.camera.core.ImageProxy;
+import java.nio.ByteBuffer;
+
+/**
+ * Estimates global frame-to-frame motion from the luma plane so overlay boxes
+ * can follow the camera between OCR runs.
+ *
+ * Each frame is reduced to a small grid of luma samples and matched against
+ * the previous grid over a +/- SEARCH_RADIUS window (sum of absolute
+ * differences), refined to sub-cell precision with a parabola fit. Motion is
+ * accumulated in sensor pixels. When no shift matches well the tracker bumps
+ * its generation so callers can drop boxes anchored to an older scene.
+ */
+public class LumaMotionTracker {
+
+    private static final String TAG = "LumaMotionTracker";
+
+    private static final int GRID_WIDTH = 80;
+    private static final int SEARCH_RADIUS = 4;
+    // Mean per-cell difference at the best shift above which the scene is considered lost
+    private static final int LOST_MEAN_DIFF = 24;
+    // A shift must beat "no motion" by at least this much per cell to count
+    private static final int MIN_IMPROVEMENT_PER_CELL = 1;
+
+    private int frameWidth;
+    private int frameHeight;
+    private int gridWidth;
+    private int gridHeight;
+    private int step;
+
+    private int[] previous;
+    private int[] current;
+    private long[] sads;
+    private boolean hasPrevious = false;
+
+    private volatile float totalX = 0f;
+    private volatile float totalY = 0f;
+    private volatile int generation = 0;
+
+    /**
+     * Called on the analyzer thread for every frame, before the frame is closed.
+     */
+    public void onFrame(ImageProxy imageProxy) {
+        int width = imageProxy.getWidth();
+        int height = imageProxy.getHeight();
+        if (width != frameWidth || height != frameHeight) {
+            reset(width, height);
+        }
+
+        sample(imageProxy.getPlanes()[0], current);
+        if (hasPrevious) {
+            estimate();
+        }
+
+        int[] swap = previous;
+        previous = current;
+        current = swap;
+        hasPrevious = true;
+    }
+
+    public float getTotalX() {
+        return totalX;
+    }
+
+    public float getTotalY() {
+        return totalY;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    private void reset(int width, int height) {
+        frameWidth = width;
+        frameHeight = height;
+        step = Math.max(2, width / GRID_WIDTH);
+        gridWidth = width / step;
+        gridHeight = height / step;
+        previous = new int[gridWidth * gridHeight];
+        current = new int[gridWidth * gridHeight];
+        sads = new long[(2 * SEARCH_RADIUS + 1) * (2 * SEARCH_RADIUS + 1)];
+        hasPrevious = false;
+        totalX = 0f;
+        totalY = 0f;
+        generation++;
+        Log.d(TAG, "Tracking grid " + gridWidth + "x" + gridHeight + " (step " + step + ")");
+    }
+
+    private void sample(ImageProxy.PlaneProxy plane, int[] out) {
+        ByteBuffer buffer = plane.getBuffer();
+        int rowStride = plane.getRowStride();
+        int pixelStride = plane.getPixelStride();
+        int half = step / 2;
+
+        // 2x2 average at the center of each cell keeps sensor noise out of the match
+        for (int gy = 0; gy < gridHeight; gy++) {
+            int row = (gy * step + half) * rowStride;
+            int nextRow = row + rowStride;
+            int index = gy * gridWidth;
+            for (int gx = 0; gx < gridWidth; gx++) {
+                int col = (gx * step + half) * pixelStride;
+                int sum = (buffer.get(row + col) & 0xFF)
+                        + (buffer.get(row + col + pixelStride) & 0xFF)
+                        + (buffer.get(nextRow + col) & 0xFF)
+                        + (buffer.get(nextRow + col + pixelStride) & 0xFF);
+                out[index + gx] = sum >> 2;
+            }
+        }
+    }
+
+    private void estimate() {
+        int radius = SEARCH_RADIUS;
+        int span = 2 * radius + 1;
+        int cells = (gridWidth - 2 * radius) * (gridHeight - 2 * radius);
+        if (cells <= 0) return;
+
+        // Evaluate zero motion first so ties favour standing still
+        long zeroSad = sad(0, 0);
+        sads[radius * span + radius] = zeroSad;
+        long bestSad = zeroSad;
+        int bestDx = 0;
+        int bestDy = 0;
+
+        for (int dy = -radius; dy <= radius; dy++) {
+            for (int dx = -radius; dx <= radius; dx++) {
+                if (dx == 0 && dy == 0) continue;
+                long value = sad(dx, dy);
+                sads[(dy + radius) * span + dx + radius] = value;
+                if (value < bestSad) {
+                    bestSad = value;
+                    bestDx = dx;
+                    bestDy = dy;
+                }
+            }
+        }
+
+        if (bestSad / cells > LOST_MEAN_DIFF) {
+            generation++;
+            return;
+        }
+        if (zeroSad - bestSad < (long) cells * MIN_IMPROVEMENT_PER_CELL) {
+            return;
+        }
+
+        float subX = bestDx;
+        float subY = bestDy;
+        if (bestDx > -radius && bestDx < radius) {
+            int rowBase = (bestDy + radius) * span + radius;
+            subX += parabolaOffset(sads[rowBase + bestDx - 1], bestSad, sads[rowBase + bestDx + 1]);
+        }
+        if (bestDy > -radius && bestDy < radius) {
+            int column = bestDx + radius;
+            subY += parabolaOffset(sads[(bestDy + radius - 1) * span + column], bestSad,
+                    sads[(bestDy + radius + 1) * span + column]);
+        }
+
+        // current(p) matches previous(p + d): content moved by -d
+        totalX -= subX * step;
+        totalY -= subY * step;
+    }
+
+    private long sad(int dx, int dy) {
+        int radius = SEARCH_RADIUS;
+        long sum = 0;
+        for (int y = radius; y < gridHeight - radius; y++) {
+            int currentRow = y * gridWidth;
+            int previousRow = (y + dy) * gridWidth + dx;
+            for (int x = radius; x < gridWidth - radius; x++) {
+                sum += Math.abs(current[currentRow + x] - previous[previousRow + x]);
+            }
+        }
+        return sum;
+    }
+
+    private static float parabolaOffset(long left, long center, long right) {
+        long denominator = left - 2 * center + right;
+        if (denominator <= 0) return 0f;
+        return (float) (left - right) / (2f * denominator);
+    }
+}
\ No newline at end of file
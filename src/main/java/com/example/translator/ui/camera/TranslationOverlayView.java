@@ -0,0 +1,121 @@
+package com.example.translator.ui.camera;
+
+import android.content.Context;
+import android.graphics.*;
+import android.util.AttributeSet;
+import android.view.View;
+
+/**
+ * Draws translated lines over the camera preview at the position of their
+ * source text. Boxes come from the last OCR run and are shifted by the motion
+ * tracker on every frame, so the overlay follows the camera between runs.
+ *
+ * {@link #setFrame} and {@link #setMotion} may be called from any thread.
+ */
+public class TranslationOverlayView extends View {
+
+    private static final float TEXT_HEIGHT_RATIO = 0.75f;
+    private static final float CORNER_RADIUS = 6f;
+    private static final float HORIZONTAL_PADDING = 4f;
+
+    private Paint backgroundPaint;
+    private Paint textPaint;
+
+    private volatile CameraFramePipeline.OverlayFrame frame;
+    private volatile float motionX = 0f;
+    private volatile float motionY = 0f;
+    private volatile int motionGeneration = 0;
+
+    // Only touched in onDraw
+    private final FrameRoiMapper mapper = new FrameRoiMapper();
+    private final RectF shiftedBox = new RectF();
+    private final RectF viewBox = new RectF();
+
+    public TranslationOverlayView(Context context) {
+        super(context);
+        init();
+    }
+
+    public TranslationOverlayView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init();
+    }
+
+    public TranslationOverlayView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init();
+    }
+
+    private void init() {
+        backgroundPaint = new Paint();
+        backgroundPaint.setAntiAlias(true);
+        backgroundPaint.setStyle(Paint.Style.FILL);
+        backgroundPaint.setColor(Color.argb(210, 255, 255, 255));
+
+        textPaint = new Paint();
+        textPaint.setAntiAlias(true);
+        textPaint.setColor(Color.BLACK);
+        textPaint.setTypeface(Typeface.DEFAULT_BOLD);
+    }
+
+    public void setFrame(CameraFramePipeline.OverlayFrame frame) {
+        this.frame = frame;
+        postInvalidateOnAnimation();
+    }
+
+    public void setMotion(float totalX, float totalY, int generation) {
+        motionX = totalX;
+        motionY = totalY;
+        motionGeneration = generation;
+        if (frame != null) {
+            postInvalidateOnAnimation();
+        }
+    }
+
+    public void clear() {
+        frame = null;
+        postInvalidateOnAnimation();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        CameraFramePipeline.OverlayFrame current = frame;
+        // Tracking was lost since these boxes were captured, wait for the next OCR run
+        if (current == null || current.generation != motionGeneration) return;
+
+        if (!mapper.update(current.imageWidth, current.imageHeight, current.rotationDegrees, getWidth(), getHeight())) {
+            return;
+        }
+
+        float dx = motionX - current.anchorX;
+        float dy = motionY - current.anchorY;
+
+        for (CameraFramePipeline.OverlayLine line : current.lines) {
+            if (line.text.isEmpty()) continue;
+
+            shiftedBox.set(line.sensorBox);
+            shiftedBox.offset(dx, dy);
+            mapper.mapSensorToView(shiftedBox, viewBox);
+            if (viewBox.isEmpty()) continue;
+
+            canvas.drawRoundRect(viewBox, CORNER_RADIUS, CORNER_RADIUS, backgroundPaint);
+            drawFittedText(canvas, line.text, viewBox);
+        }
+    }
+
+    private void drawFittedText(Canvas canvas, String text, RectF box) {
+        float available = box.width() - 2 * HORIZONTAL_PADDING;
+        if (available <= 0) return;
+
+        textPaint.setTextSize(box.height() * TEXT_HEIGHT_RATIO);
+        float width = textPaint.measureText(text);
+        if (width > available) {
+            textPaint.setTextSize(textPaint.getTextSize() * available / width);
+        }
+
+        float baseline = box.centerY() - (textPaint.ascent() + textPaint.descent()) / 2f;
+        canvas.drawText(text, box.left + HORIZONTAL_PADDING, baseline, textPaint);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.example.translator.ui.camera;
+
+import android.graphics.Rect;
+import androidx.camera.core.ImageProxy;
+import java.nio.ByteBuffer;
+
+/**
+ * Copies a sub-rectangle of a YUV_420_888 frame into an NV21 buffer that is
+ * reused between frames. Only the pixels inside the crop are touched, so the
+ * cost is proportional to the region of interest rather than the full frame.
+ *
+ * The returned array is owned by the cropper: callers must finish with it
+ * before the next call to {@link #crop(ImageProxy, Rect)}.
+ */
+public class YuvFrameCropper {
+
+    private byte[] buffer;
+    private int cropWidth;
+    private int cropHeight;
+
+    public byte[] crop(ImageProxy image, Rect cropRect) {
+        int left = cropRect.left & ~1;
+        int top = cropRect.top & ~1;
+        int width = Math.min(cropRect.width(), image.getWidth() - left) & ~1;
+        int height = Math.min(cropRect.height(), image.getHeight() - top) & ~1;
+
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+
+        // ML Kit reads the whole array, so it must match the crop size exactly
+        int required = width * height * 3 / 2;
+        if (buffer == null || buffer.length != required) {
+            buffer = new byte[required];
+        }
+        cropWidth = width;
+        cropHeight = height;
+
+        ImageProxy.PlaneProxy[] planes = image.getPlanes();
+        copyLuma(planes[0], left, top, width, height);
+        copyChroma(planes[1], planes[2], left / 2, top / 2, width / 2, height / 2, width * height);
+
+        return buffer;
+    }
+
+    public int getCropWidth() {
+        return cropWidth;
+    }
+
+    public int getCropHeight() {
+        return cropHeight;
+    }
+
+    private void copyLuma(ImageProxy.PlaneProxy plane, int left, int top, int width, int height) {
+        ByteBuffer source = plane.getBuffer();
+        int rowStride = plane.getRowStride();
+        int pixelStride = plane.getPixelStride();
+        int out = 0;
+
+        if (pixelStride == 1) {
+            for (int row = 0; row < height; row++) {
+                source.position((top + row) * rowStride + left);
+                source.get(buffer, out, width);
+                out += width;
+            }
+        } else {
+            for (int row = 0; row < height; row++) {
+                int rowStart = (top + row) * rowStride + left * pixelStride;
+                for (int col = 0; col < width; col++) {
+                    buffer[out++] = source.get(rowStart + col * pixelStride);
+                }
+            }
+        }
+        source.rewind();
+    }
+
+    private void copyChroma(ImageProxy.PlaneProxy uPlane, ImageProxy.PlaneProxy vPlane,
+                            int left, int top, int width, int height, int offset) {
+        ByteBuffer uBuffer = uPlane.getBuffer();
+        ByteBuffer vBuffer = vPlane.getBuffer();
+        int uRowStride = uPlane.getRowStride();
+        int vRowStride = vPlane.getRowStride();
+        int uPixelStride = uPlane.getPixelStride();
+        int vPixelStride = vPlane.getPixelStride();
+        int out = offset;
+
+        // NV21 stores chroma as interleaved V/U pairs
+        for (int row = 0; row < height; row++) {
+            int uRow = (top + row) * uRowStride + left * uPixelStride;
+            int vRow = (top + row) * vRowStride + left * vPixelStride;
+            for (int col = 0; col < width; col++) {
+                buffer[out++] = vBuffer.get(vRow + col * vPixelStride);
+                buffer[out++] = uBuffer.get(uRow + col * uPixelStride);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,639 @@
+package com.example.translator.ui.image;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.net.Uri;
+import android.util.Log;
+import com.example.translator.data.model.BatchTranslationItem;
+import com.example.translator.data.repository.BatchTranslationRepository;
+import com.example.translator.services.TextRecognitionService;
+import com.example.translator.services.TranslationService;
+import com.example.translator.utils.BitmapPool;
+import com.example.translator.utils.PdfPageRenderer;
+import com.example.translator.utils.SampledImageLoader;
+import com.example.translator.utils.SentenceSegmenter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Translates a stack of pages (photos of menu or document pages, or the pages
+ * of a PDF) in three stages:
+ *
+ * decode/render (bounded parallel) -> OCR -> batched translation (single thread)
+ *
+ * Memory does not grow with the batch: the feeder takes a permit before each
+ * decode and the permit only comes back once OCR has returned the bitmap to
+ * the pool, so at most MAX_DECODED_IN_FLIGHT bitmaps exist at a time. With two
+ * permits page N+1 is decoded or rendered while page N is being recognized.
+ * Recognized text queues up for translation, where whatever accumulated while
+ * the previous request was running is sent as one request. Results are
+ * streamed to the listener as each page finishes.
+ *
+ * Rows are persisted when the batch starts and updated as each item finishes.
+ */
+public class BatchTranslationPipeline {
+
+    private static final String TAG = "BatchTranslationPipeline";
+
+    private static final int DECODE_THREADS = 2;
+    private static final int MAX_DECODED_IN_FLIGHT = 2;
+    // Below TranslationService's input limit
+    private static final int MAX_BATCH_CHARS = 4500;
+    private static final long TRANSLATION_TIMEOUT_MS = 30000L;
+
+    public enum Status {
+        PENDING,
+        DECODING,
+        RECOGNIZING,
+        TRANSLATING,
+        DONE,
+        FAILED,
+        CANCELLED;
+
+        public boolean isFinished() {
+            return this == DONE || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    /**
+     * Where the pages of a batch come from. {@link #load} may be called from
+     * several decode threads and returns a bitmap owned by the pool.
+     */
+    public interface PageSource {
+        /** Opens the source on the feeder thread and returns the page count. */
+        int open() throws IOException;
+        Uri getUri(int index);
+        String describe(int index);
+        Bitmap load(int index) throws IOException;
+        void close();
+    }
+
+    public interface Listener {
+        void onItemUpdated(ItemProgress progress);
+        void onBatchFinished(long batchId, int done, int failed, boolean cancelled);
+    }
+
+    public static class ItemProgress {
+        public final int position;
+        // Number of items in the batch
+        public final int total;
+        public final Uri uri;
+        public final Status status;
+        public final String detectedText;
+        public final String translatedText;
+        public final String errorMessage;
+
+        ItemProgress(int position, int total, Uri uri, Status status, String detectedText,
+                     String translatedText, String errorMessage) {
+            this.position = position;
+            this.total = total;
+            this.uri = uri;
+            this.status = status;
+            this.detectedText = detectedText;
+            this.translatedText = translatedText;
+            this.errorMessage = errorMessage;
+        }
+    }
+
+    private static class Item {
+        final BatchTranslationItem record;
+        final Uri uri;
+        volatile Status status = Status.PENDING;
+
+        Item(BatchTranslationItem record, Uri uri) {
+            this.record = record;
+            this.uri = uri;
+        }
+    }
+
+    // Marks the end of the OCR stage for the translation stage
+    private static final Item END_OF_BATCH = new Item(null, null);
+
+    private final TextRecognitionService textRecognitionService;
+    private final TranslationService translationService;
+    private final SampledImageLoader imageLoader;
+    private final BitmapPool bitmapPool;
+    private final BatchTranslationRepository repository;
+    private final Listener listener;
+
+    private final ExecutorService feedExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "batch-feed"));
+    private final ExecutorService decodeExecutor = Executors.newFixedThreadPool(DECODE_THREADS, r -> new Thread(r, "batch-decode"));
+    private final ExecutorService translationExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "batch-translate"));
+
+    private final Semaphore decodePermits = new Semaphore(MAX_DECODED_IN_FLIGHT);
+    private final LinkedBlockingQueue<Item> recognized = new LinkedBlockingQueue<>();
+    private final AtomicInteger awaitingRecognition = new AtomicInteger();
+
+    private volatile boolean running = false;
+    private volatile boolean cancelled = false;
+    private volatile long batchId;
+    private volatile String sourceLanguage;
+    private volatile String targetLanguage;
+    private volatile List<Item> items = Collections.emptyList();
+    private volatile PageSource pageSource;
+    private Future<?> feedFuture;
+
+    public BatchTranslationPipeline(TextRecognitionService textRecognitionService,
+                                    TranslationService translationService,
+                                    SampledImageLoader imageLoader,
+                                    BatchTranslationRepository repository,
+                                    Listener listener) {
+        this.textRecognitionService = textRecognitionService;
+        this.translationService = translationService;
+        this.imageLoader = imageLoader;
+        this.bitmapPool = imageLoader.getBitmapPool();
+        this.repository = repository;
+        this.listener = listener;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Images decoded from content URIs, in order.
+     */
+    public static PageSource forImages(List<Uri> uris, SampledImageLoader imageLoader) {
+        return new ImageListSource(uris, imageLoader);
+    }
+
+    /**
+     * The pages of a PDF, rendered one at a time.
+     */
+    public static PageSource forPdf(Context context, Uri uri, BitmapPool bitmapPool) {
+        return new PdfSource(context.getApplicationContext(), uri, bitmapPool);
+    }
+
+    /**
+     * Starts a batch. Returns false if one is already running.
+     */
+    public synchronized boolean start(PageSource source, String sourceLanguage, String targetLanguage) {
+        if (running) {
+            Log.w(TAG, "Batch already running");
+            return false;
+        }
+        if (source == null) {
+            return false;
+        }
+
+        running = true;
+        cancelled = false;
+        batchId = System.currentTimeMillis();
+        pageSource = source;
+        items = Collections.emptyList();
+        this.sourceLanguage = sourceLanguage;
+        this.targetLanguage = targetLanguage;
+        recognized.clear();
+
+        Log.d(TAG, "Starting batch " + batchId);
+        feedFuture = feedExecutor.submit(() -> feed(source));
+        translationExecutor.execute(this::translateRecognized);
+        return true;
+    }
+
+    /**
+     * Stops the batch. Items that already finished keep their results; the rest
+     * are marked cancelled.
+     */
+    public synchronized void cancel() {
+        if (!running || cancelled) return;
+        Log.d(TAG, "Cancelling batch " + batchId);
+        cancelled = true;
+        if (feedFuture != null) {
+            feedFuture.cancel(true);
+        }
+    }
+
+    public void shutdown() {
+        cancel();
+        feedExecutor.shutdownNow();
+        decodeExecutor.shutdownNow();
+        translationExecutor.shutdownNow();
+    }
+
+    private void feed(PageSource source) {
+        List<Item> batch = Collections.emptyList();
+        int next = 0;
+        try {
+            int count = source.open();
+            batch = new ArrayList<>(count);
+            List<BatchTranslationItem> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                BatchTranslationItem record = new BatchTranslationItem(batchId, i, source.describe(i),
+                        sourceLanguage, targetLanguage, Status.PENDING.name(), batchId);
+                batch.add(new Item(record, source.getUri(i)));
+                records.add(record);
+            }
+            items = batch;
+            awaitingRecognition.set(count);
+            Log.d(TAG, "Batch " + batchId + " has " + count + " pages");
+
+            for (Item item : batch) {
+                notifyItem(item);
+            }
+            repository.insertItems(records);
+
+            for (; next < batch.size() && !cancelled; next++) {
+                decodePermits.acquire();
+                if (cancelled) {
+                    decodePermits.release();
+                    break;
+                }
+                Item item = batch.get(next);
+                setStatus(item, Status.DECODING);
+                decodeExecutor.execute(() -> decodeAndRecognize(source, item));
+            }
+        } catch (InterruptedException e) {
+            Log.d(TAG, "Feeder interrupted");
+        } catch (Exception e) {
+            Log.e(TAG, "Error feeding batch", e);
+            cancelled = true;
+        } finally {
+            if (batch.isEmpty()) {
+                // Nothing to wait for (empty or unreadable source)
+                source.close();
+                recognized.add(END_OF_BATCH);
+            }
+            // Anything the feeder never handed out is done as far as OCR is concerned
+            for (int i = next; i < batch.size(); i++) {
+                Item item = batch.get(i);
+                if (item.status == Status.PENDING) {
+                    finish(item, Status.CANCELLED, null);
+                    onRecognitionFinished();
+                }
+            }
+        }
+    }
+
+    private void decodeAndRecognize(PageSource source, Item item) {
+        Bitmap bitmap;
+        try {
+            bitmap = source.load(item.record.getPosition());
+        } catch (Exception e) {
+            Log.e(TAG, "Error loading " + item.record.getSourceUri(), e);
+            decodePermits.release();
+            finish(item, Status.FAILED, "Unable to read page");
+            onRecognitionFinished();
+            return;
+        }
+
+        if (cancelled) {
+            releaseDecoded(bitmap);
+            finish(item, Status.CANCELLED, null);
+            onRecognitionFinished();
+            return;
+        }
+
+        setStatus(item, Status.RECOGNIZING);
+        textRecognitionService.recognizeTextFromBitmap(bitmap, new TextRecognitionService.TextRecognitionCallback() {
+            @Override
+            public void onSuccess(String recognizedText) {
+                releaseDecoded(bitmap);
+                if (cancelled) {
+                    finish(item, Status.CANCELLED, null);
+                } else {
+                    item.record.setDetectedText(recognizedText.trim());
+                    recognized.add(item);
+                }
+                onRecognitionFinished();
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                releaseDecoded(bitmap);
+                finish(item, Status.FAILED, exception.getMessage());
+                onRecognitionFinished();
+            }
+        });
+    }
+
+    private void releaseDecoded(Bitmap bitmap) {
+        bitmapPool.release(bitmap);
+        decodePermits.release();
+    }
+
+    private void onRecognitionFinished() {
+        if (awaitingRecognition.decrementAndGet() == 0) {
+            // No more loads after this point
+            pageSource.close();
+            recognized.add(END_OF_BATCH);
+        }
+    }
+
+    private void translateRecognized() {
+        try {
+            while (true) {
+                Item first = recognized.take();
+                if (first == END_OF_BATCH) break;
+
+                List<Item> batch = new ArrayList<>();
+                batch.add(first);
+                int chars = first.record.getDetectedText().length();
+
+                // Everything that finished OCR while the previous request was running goes in one request
+                Item next;
+                while ((next = recognized.peek()) != null && next != END_OF_BATCH
+                        && chars + 1 + next.record.getDetectedText().length() <= MAX_BATCH_CHARS) {
+                    recognized.poll();
+                    batch.add(next);
+                    chars += 1 + next.record.getDetectedText().length();
+                }
+
+                translateBatch(batch);
+            }
+        } catch (InterruptedException e) {
+            Log.d(TAG, "Translation stage interrupted");
+            Thread.currentThread().interrupt();
+        }
+
+        finishBatch();
+    }
+
+    private void translateBatch(List<Item> batch) throws InterruptedException {
+        if (cancelled) {
+            for (Item item : batch) {
+                finish(item, Status.CANCELLED, null);
+            }
+            return;
+        }
+
+        String source = sourceLanguage;
+        String target = targetLanguage;
+        for (Item item : batch) {
+            setStatus(item, Status.TRANSLATING);
+        }
+
+        if (source.equals(target)) {
+            for (Item item : batch) {
+                item.record.setTranslatedText(item.record.getDetectedText());
+                finish(item, Status.DONE, null);
+            }
+            return;
+        }
+
+        if (batch.size() > 1) {
+            // Recognized text is a single line per image, so lines map back to items
+            StringBuilder joined = new StringBuilder();
+            for (Item item : batch) {
+                if (joined.length() > 0) joined.append('\n');
+                joined.append(item.record.getDetectedText().replace('\n', ' '));
+            }
+
+            try {
+                String[] parts = translateBlocking(joined.toString(), source, target).split("\n");
+                if (parts.length == batch.size()) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).record.setTranslatedText(parts[i].trim());
+                        finish(batch.get(i), Status.DONE, null);
+                    }
+                    Log.d(TAG, "Translated " + batch.size() + " items in one request");
+                    return;
+                }
+                Log.w(TAG, "Batched translation returned " + parts.length + " lines for " +
+                        batch.size() + " items, translating individually");
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                Log.w(TAG, "Batched translation failed, translating individually", e);
+            }
+        }
+
+        for (Item item : batch) {
+            if (cancelled) {
+                finish(item, Status.CANCELLED, null);
+                continue;
+            }
+            try {
+                item.record.setTranslatedText(translatePage(item.record.getDetectedText(), source, target));
+                finish(item, Status.DONE, null);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                Log.e(TAG, "Translation failed for item " + item.record.getPosition(), e);
+                finish(item, Status.FAILED, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Translates a page that may be longer than one request allows, in pieces
+     * of whole sentences. A sentence over the limit is cut at the last space
+     * before it. The text between pieces is kept as it was.
+     */
+    private String translatePage(String text, String source, String target) throws Exception {
+        if (text.length() <= MAX_BATCH_CHARS) {
+            return translateBlocking(text, source, target);
+        }
+
+        SentenceSegmenter.Spans spans = SentenceSegmenter.forLanguage(source).segment(text);
+        StringBuilder translated = new StringBuilder(text.length());
+        int written = 0;
+        int pieceStart = -1;
+        int pieceEnd = -1;
+        for (int i = 0; i < spans.size(); i++) {
+            int start = spans.start(i);
+            int end = spans.end(i);
+            while (start < end) {
+                int cut = end;
+                if (end - start > MAX_BATCH_CHARS) {
+                    cut = start + MAX_BATCH_CHARS;
+                    int space = cut;
+                    while (space > start && !Character.isWhitespace(text.charAt(space))) space--;
+                    if (space > start) cut = space;
+                }
+                if (pieceStart >= 0 && cut - pieceStart > MAX_BATCH_CHARS) {
+                    written = appendTranslated(translated, text, written, pieceStart, pieceEnd, source, target);
+                    pieceStart = -1;
+                }
+                if (pieceStart < 0) pieceStart = start;
+                pieceEnd = cut;
+                start = cut;
+                while (start < end && Character.isWhitespace(text.charAt(start))) start++;
+            }
+        }
+        if (pieceStart >= 0) {
+            written = appendTranslated(translated, text, written, pieceStart, pieceEnd, source, target);
+        }
+        translated.append(text, written, text.length());
+        return translated.toString();
+    }
+
+    /**
+     * Appends the text since {@code written} as is, then the translation of
+     * {@code [start, end)}.
+     *
+     * @return the new write position
+     */
+    private int appendTranslated(StringBuilder translated, String text, int written, int start, int end,
+                                 String source, String target) throws Exception {
+        translated.append(text, written, start);
+        translated.append(translateBlocking(text.substring(start, end), source, target));
+        return end;
+    }
+
+    private String translateBlocking(String text, String source, String target) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<String> result = new AtomicReference<>();
+        AtomicReference<Exception> error = new AtomicReference<>();
+
+        translationService.translateText(text, source, target, new TranslationService.TranslationCallback() {
+            @Override
+            public void onSuccess(String translatedText) {
+                result.set(translatedText);
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                error.set(exception);
+                latch.countDown();
+            }
+        });
+
+        if (!latch.await(TRANSLATION_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            throw new TranslationService.TranslationException("Translation timed out");
+        }
+        if (error.get() != null) {
+            throw error.get();
+        }
+        return result.get();
+    }
+
+    private void finishBatch() {
+        int done = 0;
+        int failed = 0;
+        for (Item item : items) {
+            if (!item.status.isFinished()) {
+                // Interrupted mid-flight
+                finish(item, Status.CANCELLED, null);
+            }
+            if (item.status == Status.DONE) done++;
+            if (item.status == Status.FAILED) failed++;
+        }
+
+        pageSource.close();
+        boolean wasCancelled = cancelled;
+        Log.d(TAG, "Batch " + batchId + " finished: " + done + " done, " + failed + " failed" +
+                (wasCancelled ? ", cancelled" : "") + ". " + bitmapPool.getStats());
+        running = false;
+        listener.onBatchFinished(batchId, done, failed, wasCancelled);
+    }
+
+    private void setStatus(Item item, Status status) {
+        item.status = status;
+        notifyItem(item);
+    }
+
+    private void finish(Item item, Status status, String errorMessage) {
+        item.status = status;
+        item.record.setStatus(status.name());
+        item.record.setErrorMessage(errorMessage);
+        repository.updateResult(item.record);
+        notifyItem(item);
+    }
+
+    private void notifyItem(Item item) {
+        listener.onItemUpdated(new ItemProgress(item.record.getPosition(), items.size(), item.uri, item.status,
+                item.record.getDetectedText(), item.record.getTranslatedText(), item.record.getErrorMessage()));
+    }
+
+    private static class ImageListSource implements PageSource {
+        private final List<Uri> uris;
+        private final SampledImageLoader imageLoader;
+
+        ImageListSource(List<Uri> uris, SampledImageLoader imageLoader) {
+            this.uris = new ArrayList<>(uris);
+            this.imageLoader = imageLoader;
+        }
+
+        @Override
+        public int open() {
+            return uris.size();
+        }
+
+        @Override
+        public Uri getUri(int index) {
+            return uris.get(index);
+        }
+
+        @Override
+        public String describe(int index) {
+            return uris.get(index).toString();
+        }
+
+        @Override
+        public Bitmap load(int index) throws IOException {
+            Uri uri = uris.get(index);
+            SampledImageLoader.ImageInfo info = imageLoader.readImageInfo(uri);
+            return imageLoader.decodeRegion(uri, info,
+                    new Rect(0, 0, info.getOrientedWidth(), info.getOrientedHeight()),
+                    SampledImageLoader.OCR_LONG_EDGE);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class PdfSource implements PageSource {
+        private final Context context;
+        private final Uri uri;
+        private final BitmapPool bitmapPool;
+        private PdfPageRenderer renderer;
+
+        PdfSource(Context context, Uri uri, BitmapPool bitmapPool) {
+            this.context = context;
+            this.uri = uri;
+            this.bitmapPool = bitmapPool;
+        }
+
+        @Override
+        public synchronized int open() throws IOException {
+            renderer = new PdfPageRenderer(context, uri, bitmapPool);
+            return renderer.getPageCount();
+        }
+
+        @Override
+        public Uri getUri(int index) {
+            return uri;
+        }
+
+        @Override
+        public String describe(int index) {
+            return uri + "#page=" + (index + 1);
+        }
+
+        @Override
+        public Bitmap load(int index) throws IOException {
+            PdfPageRenderer current;
+            synchronized (this) {
+                current = renderer;
+            }
+            if (current == null) {
+                throw new IOException("PDF not open");
+            }
+            // Serialized inside the renderer; the other decode thread waits here
+            return current.renderPage(index, SampledImageLoader.OCR_LONG_EDGE);
+        }
+
+        @Override
+        public synchronized void close() {
+            if (renderer != null) {
+                renderer.close();
+                renderer = null;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -2,10 +2,12 @@ package com.example.translator.ui.image;
 
 import android.Manifest;
 import android.app.Activity;
+import android.content.ClipData;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
 import android.graphics.Matrix;
+import android.graphics.Rect;
 import android.graphics.RectF;
 import android.net.Uri;
 import android.os.Build;
@@ -29,8 +31,11 @@ import com.example.translator.ui.camera.CropOverlayView;
 import com.example.translator.ui.text.LanguageSpinnerAdapter;
 import com.example.translator.ui.text.LanguageSpinnerAdapter.LanguageSpinnerItem;
 import com.example.translator.services.SpeechService;
+import com.example.translator.services.TextRecognitionService;
 import com.example.translator.services.TextSummarizationService;
-import java.io.IOException;
+import com.example.translator.utils.BitmapPool;
+import com.example.translator.utils.SampledImageLoader;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -42,6 +47,7 @@ public class ImageTranslationActivity extends AppCompatActivity {
     private static final int REQUEST_IMAGE_CAMERA = 1002;
     private static final int CAMERA_PERMISSION_CODE = 100;
     private static final int STORAGE_PERMISSION_CODE = 101;
+    private static final String MIME_TYPE_PDF = "application/pdf";
 
     private ImageTranslationViewModel viewModel;
     private ExecutorService executor;
@@ -70,6 +76,12 @@ public class ImageTranslationActivity extends AppCompatActivity {
     private ProgressBar progressSummarization;
     private ScrollView scrollResults;
 
+    // Batch views
+    private LinearLayout layoutBatchProgress;
+    private TextView tvBatchProgress;
+    private ProgressBar progressBatch;
+    private MaterialButton btnCancelBatch;
+
     // New speech and summary controls
     private MaterialButton btnSpeakDetected;
     private MaterialButton btnSpeakTranslated;
@@ -78,7 +90,18 @@ public class ImageTranslationActivity extends AppCompatActivity {
     private MaterialButton btnSpeechSettings;
 
     private Bitmap selectedImageBitmap;
-    private Bitmap croppedBitmap;
+    // Selected area in the source's coordinates; pixels are only read by the recognizer
+    private Rect selectedCropRegion;
+
+    // Source of the preview when it came from a URI; full resolution is only decoded by region
+    private SampledImageLoader imageLoader;
+    private Uri selectedImageUri;
+    private SampledImageLoader.ImageInfo selectedImageInfo;
+
+    // Bitmaps go back to the pool once replaced; while OCR runs they are held until it finishes
+    private BitmapPool bitmapPool;
+    private boolean processingImage = false;
+    private final List<Bitmap> pendingRelease = new ArrayList<>();
 
     // Touch handling for zoom and pan
     private ScaleGestureDetector scaleGestureDetector;
@@ -97,6 +120,8 @@ public class ImageTranslationActivity extends AppCompatActivity {
         setContentView(R.layout.activity_image_translation);
 
         executor = Executors.newFixedThreadPool(4);
+        bitmapPool = BitmapPool.getInstance();
+        imageLoader = new SampledImageLoader(this, bitmapPool);
         scaleGestureDetector = new ScaleGestureDetector(this, new ScaleListener());
 
         initializeViews();
@@ -134,6 +159,12 @@ public class ImageTranslationActivity extends AppCompatActivity {
         progressSummarization = findViewById(R.id.progress_summarization);
         scrollResults = findViewById(R.id.scroll_results);
 
+        // Batch views
+        layoutBatchProgress = findViewById(R.id.layout_batch_progress);
+        tvBatchProgress = findViewById(R.id.tv_batch_progress);
+        progressBatch = findViewById(R.id.progress_batch);
+        btnCancelBatch = findViewById(R.id.btn_cancel_batch);
+
         // New speech and summary controls
         btnSpeakDetected = findViewById(R.id.btn_speak_detected);
         btnSpeakTranslated = findViewById(R.id.btn_speak_translated);
@@ -158,6 +189,7 @@ public class ImageTranslationActivity extends AppCompatActivity {
                 new ImageTranslationViewModel.ImageTranslationViewModelFactory(
                         application.getUserRepository(),
                         application.getLanguageRepository(),
+                        application.getBatchTranslationRepository(),
                         this
                 );
         viewModel = new ViewModelProvider(this, factory).get(ImageTranslationViewModel.class);
@@ -229,6 +261,12 @@ public class ImageTranslationActivity extends AppCompatActivity {
             showSpeechSettingsDialog();
         });
 
+        btnCancelBatch.setOnClickListener(v -> {
+            Log.d(TAG, "Cancel batch button clicked");
+            btnCancelBatch.setEnabled(false);
+            viewModel.cancelBatch();
+        });
+
         setupImageTouchListeners();
         Log.d(TAG, "Click listeners setup completed");
     }
@@ -328,7 +366,11 @@ public class ImageTranslationActivity extends AppCompatActivity {
         viewModel.isLoading.observe(this, isLoading -> {
             Log.d(TAG, "Loading state: " + isLoading);
             progressBar.setVisibility(isLoading ? View.VISIBLE : View.GONE);
-            btnTranslate.setEnabled(!isLoading && (croppedBitmap != null || selectedImageBitmap != null));
+            if (!isLoading && processingImage) {
+                processingImage = false;
+                flushPendingReleases();
+            }
+            btnTranslate.setEnabled(!isLoading && selectedImageBitmap != null);
             btnConfirmCrop.setEnabled(!isLoading);
         });
 
@@ -348,6 +390,77 @@ public class ImageTranslationActivity extends AppCompatActivity {
         viewModel.speechRate.observe(this, rate -> {
             Log.d(TAG, "Speech rate updated: " + rate);
         });
+
+        viewModel.batchItems.observe(this, this::showBatchProgress);
+
+        viewModel.isBatchRunning.observe(this, running -> {
+            Log.d(TAG, "Batch running: " + running);
+            if (running) {
+                layoutBatchProgress.setVisibility(View.VISIBLE);
+                btnCancelBatch.setEnabled(true);
+            } else {
+                btnCancelBatch.setEnabled(false);
+            }
+            btnCancelBatch.setVisibility(running ? View.VISIBLE : View.GONE);
+            btnSelectImage.setEnabled(!running);
+            btnTakePhoto.setEnabled(!running);
+        });
+    }
+
+    private void showBatchProgress(List<BatchTranslationPipeline.ItemProgress> items) {
+        if (items == null || items.isEmpty()) {
+            progressBatch.setProgress(0);
+            tvBatchProgress.setText("");
+            return;
+        }
+
+        int total = items.size();
+        int finished = 0;
+        int failed = 0;
+        int cancelled = 0;
+        int current = -1;
+        BatchTranslationPipeline.Status currentStatus = null;
+        for (BatchTranslationPipeline.ItemProgress item : items) {
+            if (item == null) continue;
+            total = item.total;
+            if (item.status.isFinished()) {
+                finished++;
+                if (item.status == BatchTranslationPipeline.Status.FAILED) failed++;
+                if (item.status == BatchTranslationPipeline.Status.CANCELLED) cancelled++;
+            } else if (item.status != BatchTranslationPipeline.Status.PENDING && current < 0) {
+                current = item.position;
+                currentStatus = item.status;
+            }
+        }
+
+        progressBatch.setMax(total);
+        progressBatch.setProgress(finished);
+
+        StringBuilder text = new StringBuilder();
+        text.append(finished).append("/").append(total).append(" pages");
+        if (currentStatus != null) {
+            text.append(" - page ").append(current + 1).append(": ").append(describeBatchStatus(currentStatus));
+        }
+        if (failed > 0) {
+            text.append(", ").append(failed).append(" failed");
+        }
+        if (cancelled > 0) {
+            text.append(", ").append(cancelled).append(" cancelled");
+        }
+        tvBatchProgress.setText(text.toString());
+    }
+
+    private String describeBatchStatus(BatchTranslationPipeline.Status status) {
+        switch (status) {
+            case DECODING:
+                return "loading";
+            case RECOGNIZING:
+                return "reading text";
+            case TRANSLATING:
+                return "translating";
+            default:
+                return status.name().toLowerCase();
+        }
     }
 
     private void showSummarizationDialog() {
@@ -355,7 +468,8 @@ public class ImageTranslationActivity extends AppCompatActivity {
                 "Brief Summary (1-2 sentences)",
                 "Detailed Summary (3-5 sentences)",
                 "Key Points (Bullet format)",
-                "Key Phrases"
+                "Key Phrases",
+                "Central Sentences (TextRank)"
         };
 
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
@@ -375,13 +489,18 @@ public class ImageTranslationActivity extends AppCompatActivity {
                         case 3:
                             summaryType = TextSummarizationService.SummaryType.KEY_PHRASES;
                             break;
+                        case 4:
+                            summaryType = TextSummarizationService.SummaryType.TEXT_RANK;
+                            break;
                         default:
                             summaryType = TextSummarizationService.SummaryType.BRIEF;
                     }
 
+                    String sourceLanguage = getSelectedSourceLanguageCode();
                     String targetLanguage = getSelectedTargetLanguageCode();
-                    Log.d(TAG, "Starting summarization with type: " + summaryType + ", language: " + targetLanguage);
-                    viewModel.summarizeDetectedText(summaryType, targetLanguage);
+                    Log.d(TAG, "Starting summarization with type: " + summaryType + ", " + sourceLanguage +
+                            " -> " + targetLanguage);
+                    viewModel.summarizeDetectedText(summaryType, sourceLanguage, targetLanguage);
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
@@ -446,6 +565,19 @@ public class ImageTranslationActivity extends AppCompatActivity {
             spinnerTargetLanguage.setSelection(defaultTargetIndex);
             Log.d(TAG, "Target language set to Vietnamese (index " + defaultTargetIndex + ")");
         }
+
+        // Fires for the default selection too, so the voice is ready before the first translation
+        spinnerTargetLanguage.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                viewModel.prepareSpeech(getSelectedTargetLanguageCode());
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+                // Keep the voice of the last selection
+            }
+        });
     }
 
     private String getSelectedSourceLanguageCode() {
@@ -479,8 +611,12 @@ public class ImageTranslationActivity extends AppCompatActivity {
         scrollResults.setVisibility(View.GONE);
 
         // Clear previous data
+        ivSelectedImage.setImageDrawable(null);
+        selectedCropRegion = null;
+        releaseBitmap(selectedImageBitmap);
         selectedImageBitmap = null;
-        croppedBitmap = null;
+        selectedImageUri = null;
+        selectedImageInfo = null;
         viewModel.clearResults();
         btnTranslate.setEnabled(false);
 
@@ -503,10 +639,18 @@ public class ImageTranslationActivity extends AppCompatActivity {
         layoutImagePreview.setVisibility(View.VISIBLE);
         scrollResults.setVisibility(View.GONE);
 
+        layoutBatchProgress.setVisibility(View.GONE);
+        selectedCropRegion = null;
+        Bitmap previousPreview = selectedImageBitmap;
         selectedImageBitmap = bitmap;
+        selectedImageUri = null;
+        selectedImageInfo = null;
 
         // Set image and fit to ImageView
         ivSelectedImage.setImageBitmap(bitmap);
+        if (previousPreview != bitmap) {
+            releaseBitmap(previousPreview);
+        }
         fitImageToView(bitmap);
 
         // Show crop overlay
@@ -545,9 +689,12 @@ public class ImageTranslationActivity extends AppCompatActivity {
     private void openGallery() {
         try {
             Log.d(TAG, "Opening gallery");
-            Intent intent = new Intent(Intent.ACTION_PICK);
-            intent.setType("image/*");
-            intent.setDataAndType(MediaStore.Images.Media.EXTERNAL_CONTENT_URI, "image/*");
+            // GET_CONTENT honours EXTRA_ALLOW_MULTIPLE, PICK is ignored by most galleries
+            Intent intent = new Intent(Intent.ACTION_GET_CONTENT);
+            intent.setType("*/*");
+            intent.putExtra(Intent.EXTRA_MIME_TYPES, new String[]{"image/*", MIME_TYPE_PDF});
+            intent.addCategory(Intent.CATEGORY_OPENABLE);
+            intent.putExtra(Intent.EXTRA_ALLOW_MULTIPLE, true);
             startActivityForResult(intent, REQUEST_IMAGE_GALLERY);
         } catch (Exception e) {
             Log.e(TAG, "Error opening gallery", e);
@@ -575,10 +722,30 @@ public class ImageTranslationActivity extends AppCompatActivity {
             try {
                 Log.d(TAG, "Confirming crop");
                 RectF cropRect = cropOverlay.getCropRect();
-                croppedBitmap = cropBitmap(selectedImageBitmap, cropRect);
+                Rect previewRect = mapCropRectToBitmap(cropRect, selectedImageBitmap);
+
+                if (previewRect.isEmpty()) {
+                    Log.w(TAG, "Invalid crop area, using whole image");
+                    selectedCropRegion = null;
+                    return;
+                }
+
+                if (selectedImageUri != null && selectedImageInfo != null) {
+                    // The preview is subsampled, scale the crop up to full-resolution coordinates
+                    SampledImageLoader.ImageInfo info = selectedImageInfo;
+                    float scale = (float) info.getOrientedWidth() / selectedImageBitmap.getWidth();
+                    selectedCropRegion = new Rect(
+                            (int) (previewRect.left * scale),
+                            (int) (previewRect.top * scale),
+                            Math.min(info.getOrientedWidth(), (int) Math.ceil(previewRect.right * scale)),
+                            Math.min(info.getOrientedHeight(), (int) Math.ceil(previewRect.bottom * scale))
+                    );
+                } else {
+                    selectedCropRegion = previewRect;
+                }
+
                 Toast.makeText(this, "Area selected. Tap translate to process.", Toast.LENGTH_SHORT).show();
-                Log.d(TAG, "Crop confirmed, cropped bitmap: " +
-                        (croppedBitmap != null ? croppedBitmap.getWidth() + "x" + croppedBitmap.getHeight() : "null"));
+                Log.d(TAG, "Crop confirmed, region: " + selectedCropRegion);
             } catch (Exception e) {
                 Log.e(TAG, "Error cropping image", e);
                 Toast.makeText(this, "Failed to crop image", Toast.LENGTH_SHORT).show();
@@ -586,43 +753,46 @@ public class ImageTranslationActivity extends AppCompatActivity {
         }
     }
 
-    private Bitmap cropBitmap(Bitmap bitmap, RectF cropRect) {
-        try {
-            // Get the current image matrix values
-            float[] values = new float[9];
-            imageMatrix.getValues(values);
-
-            float scaleX = values[Matrix.MSCALE_X];
-            float scaleY = values[Matrix.MSCALE_Y];
-            float transX = values[Matrix.MTRANS_X];
-            float transY = values[Matrix.MTRANS_Y];
-
-            // Convert crop coordinates to bitmap coordinates
-            int x = Math.max(0, (int) ((cropRect.left - transX) / scaleX));
-            int y = Math.max(0, (int) ((cropRect.top - transY) / scaleY));
-            int width = Math.min(bitmap.getWidth() - x, (int) (cropRect.width() / scaleX));
-            int height = Math.min(bitmap.getHeight() - y, (int) (cropRect.height() / scaleY));
-
-            Log.d(TAG, "Crop coordinates: x=" + x + ", y=" + y + ", width=" + width + ", height=" + height);
-
-            if (width > 0 && height > 0) {
-                Bitmap cropped = Bitmap.createBitmap(bitmap, x, y, width, height);
-                Log.d(TAG, "Cropped bitmap created: " + cropped.getWidth() + "x" + cropped.getHeight());
-                return cropped;
-            } else {
-                Log.w(TAG, "Invalid crop area, returning original bitmap");
-                return bitmap;
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error creating cropped bitmap", e);
-            return bitmap;
+    private Rect mapCropRectToBitmap(RectF cropRect, Bitmap bitmap) {
+        // Get the current image matrix values
+        float[] values = new float[9];
+        imageMatrix.getValues(values);
+
+        float scaleX = values[Matrix.MSCALE_X];
+        float scaleY = values[Matrix.MSCALE_Y];
+        float transX = values[Matrix.MTRANS_X];
+        float transY = values[Matrix.MTRANS_Y];
+
+        // Convert crop coordinates to bitmap coordinates
+        int x = Math.max(0, (int) ((cropRect.left - transX) / scaleX));
+        int y = Math.max(0, (int) ((cropRect.top - transY) / scaleY));
+        int width = Math.min(bitmap.getWidth() - x, (int) (cropRect.width() / scaleX));
+        int height = Math.min(bitmap.getHeight() - y, (int) (cropRect.height() / scaleY));
+
+        return new Rect(x, y, x + Math.max(0, width), y + Math.max(0, height));
+    }
+
+    private void releaseBitmap(Bitmap bitmap) {
+        if (bitmap == null) return;
+        if (processingImage) {
+            pendingRelease.add(bitmap);
+        } else {
+            bitmapPool.release(bitmap);
         }
     }
 
-    private void translateImage() {
-        Bitmap bitmapToProcess = croppedBitmap != null ? croppedBitmap : selectedImageBitmap;
+    private void flushPendingReleases() {
+        for (Bitmap bitmap : pendingRelease) {
+            // Still on screen
+            if (bitmap == selectedImageBitmap) continue;
+            bitmapPool.release(bitmap);
+        }
+        pendingRelease.clear();
+        Log.d(TAG, bitmapPool.getStats());
+    }
 
-        if (bitmapToProcess == null) {
+    private void translateImage() {
+        if (selectedImageBitmap == null) {
             Log.e(TAG, "No bitmap available for translation");
             Toast.makeText(this, "Please select an image first", Toast.LENGTH_SHORT).show();
             return;
@@ -631,13 +801,19 @@ public class ImageTranslationActivity extends AppCompatActivity {
         String sourceLanguage = getSelectedSourceLanguageCode();
         String targetLanguage = getSelectedTargetLanguageCode();
 
+        // Without a crop the whole image is recognized; from a URI that means at OCR
+        // resolution rather than the screen-sized preview
+        TextRecognitionService.RegionRequest request = selectedImageUri != null && selectedImageInfo != null
+                ? TextRecognitionService.RegionRequest.forUri(selectedImageUri, selectedImageInfo, selectedCropRegion)
+                : TextRecognitionService.RegionRequest.forBitmap(selectedImageBitmap, selectedCropRegion);
+
         Log.d(TAG, "Starting image translation");
-        Log.d(TAG, "Bitmap to process: " + bitmapToProcess.getWidth() + "x" + bitmapToProcess.getHeight());
+        Log.d(TAG, "Region request: " + request);
         Log.d(TAG, "Languages: " + sourceLanguage + " -> " + targetLanguage);
 
-        executor.execute(() -> {
-            viewModel.processImage(bitmapToProcess, sourceLanguage, targetLanguage);
-        });
+        // The preview may be read by the recognizer, hold releases until it finishes;
+        // nothing is held if it never started
+        processingImage = viewModel.processImageRegion(request, sourceLanguage, targetLanguage);
     }
 
     @Override
@@ -648,22 +824,27 @@ public class ImageTranslationActivity extends AppCompatActivity {
         if (resultCode == Activity.RESULT_OK) {
             switch (requestCode) {
                 case REQUEST_IMAGE_GALLERY:
-                    if (data != null && data.getData() != null) {
-                        Uri uri = data.getData();
-                        Log.d(TAG, "Image selected from gallery: " + uri);
-                        try {
-                            Bitmap bitmap = loadBitmapFromUri(uri);
-                            if (bitmap != null) {
-                                Log.d(TAG, "Loaded bitmap from gallery: " + bitmap.getWidth() + "x" + bitmap.getHeight());
-                                showImagePreviewMode(bitmap);
-                            } else {
-                                Log.e(TAG, "Failed to load bitmap from URI");
-                                Toast.makeText(this, "Failed to load image", Toast.LENGTH_SHORT).show();
+                    ClipData clipData = data != null ? data.getClipData() : null;
+                    if (clipData != null && clipData.getItemCount() > 1) {
+                        List<Uri> uris = new ArrayList<>(clipData.getItemCount());
+                        for (int i = 0; i < clipData.getItemCount(); i++) {
+                            Uri uri = clipData.getItemAt(i).getUri();
+                            if (isPdf(uri)) {
+                                Log.w(TAG, "Skipping PDF in multi-selection: " + uri);
+                                continue;
                             }
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error loading image from gallery", e);
-                            Toast.makeText(this, "Failed to load image", Toast.LENGTH_SHORT).show();
+                            uris.add(uri);
+                        }
+                        Log.d(TAG, uris.size() + " images selected from gallery");
+                        if (!uris.isEmpty()) {
+                            startBatch(uris);
                         }
+                    } else if (clipData != null && clipData.getItemCount() == 1) {
+                        openSelectedUri(clipData.getItemAt(0).getUri());
+                    } else if (data != null && data.getData() != null) {
+                        Uri uri = data.getData();
+                        Log.d(TAG, "Image selected from gallery: " + uri);
+                        openSelectedUri(uri);
                     }
                     break;
 
@@ -689,21 +870,69 @@ public class ImageTranslationActivity extends AppCompatActivity {
         }
     }
 
-    private Bitmap loadBitmapFromUri(Uri uri) {
-        try {
-            Log.d(TAG, "Loading bitmap from URI: " + uri);
-            Bitmap bitmap = MediaStore.Images.Media.getBitmap(getContentResolver(), uri);
-            Log.d(TAG, "Successfully loaded bitmap: " + (bitmap != null ? bitmap.getWidth() + "x" + bitmap.getHeight() : "null"));
-            return bitmap;
-        } catch (IOException e) {
-            Log.e(TAG, "IOException loading bitmap from URI", e);
-            return null;
-        } catch (Exception e) {
-            Log.e(TAG, "Error loading bitmap from URI", e);
-            return null;
+    private void openSelectedUri(Uri uri) {
+        if (isPdf(uri)) {
+            startPdf(uri);
+        } else {
+            loadImageFromUri(uri);
         }
     }
 
+    private boolean isPdf(Uri uri) {
+        return MIME_TYPE_PDF.equals(getContentResolver().getType(uri));
+    }
+
+    private void startBatch(List<Uri> uris) {
+        showBatchMode();
+        viewModel.startBatch(uris, getSelectedSourceLanguageCode(), getSelectedTargetLanguageCode());
+    }
+
+    private void startPdf(Uri uri) {
+        Log.d(TAG, "PDF selected: " + uri);
+        showBatchMode();
+        viewModel.startPdf(uri, getSelectedSourceLanguageCode(), getSelectedTargetLanguageCode());
+    }
+
+    private void showBatchMode() {
+        // The batch replaces whatever single image was being worked on
+        showImageSelectionMode();
+        layoutBatchProgress.setVisibility(View.VISIBLE);
+        scrollResults.setVisibility(View.VISIBLE);
+    }
+
+    private void loadImageFromUri(Uri uri) {
+        Log.d(TAG, "Loading image from URI: " + uri);
+        progressBar.setVisibility(View.VISIBLE);
+
+        // Decode at the size the preview is shown at, never at full resolution
+        int previewWidth = ivSelectedImage.getWidth() > 0 ? ivSelectedImage.getWidth() : getResources().getDisplayMetrics().widthPixels;
+        int previewHeight = ivSelectedImage.getHeight() > 0 ? ivSelectedImage.getHeight() : getResources().getDisplayMetrics().heightPixels;
+
+        executor.execute(() -> {
+            try {
+                SampledImageLoader.Preview preview = imageLoader.decodePreview(uri, previewWidth, previewHeight);
+                Log.d(TAG, "Loaded preview " + preview.bitmap.getWidth() + "x" + preview.bitmap.getHeight() +
+                        (preview.info != null
+                                ? " for " + preview.info.getOrientedWidth() + "x" + preview.info.getOrientedHeight() + " image"
+                                : " with ImageDecoder"));
+
+                runOnUiThread(() -> {
+                    progressBar.setVisibility(View.GONE);
+                    if (isFinishing() || isDestroyed()) return;
+                    showImagePreviewMode(preview.bitmap);
+                    selectedImageUri = uri;
+                    selectedImageInfo = preview.info;
+                });
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading image from gallery", e);
+                runOnUiThread(() -> {
+                    progressBar.setVisibility(View.GONE);
+                    Toast.makeText(this, "Failed to load image", Toast.LENGTH_SHORT).show();
+                });
+            }
+        });
+    }
+
     private boolean checkCameraPermission() {
         boolean hasPermission = ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA) == PackageManager.PERMISSION_GRANTED;
         Log.d(TAG, "Camera permission check: " + hasPermission);
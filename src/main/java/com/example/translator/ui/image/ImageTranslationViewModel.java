@@ -1,7 +1,7 @@
 package com.example.translator.ui.image;
 
 import android.content.Context;
-import android.graphics.Bitmap;
+import android.net.Uri;
 import android.util.Log;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
@@ -9,12 +9,17 @@ import androidx.lifecycle.ViewModel;
 import androidx.lifecycle.ViewModelProvider;
 import com.example.translator.data.model.Language;
 import com.example.translator.data.model.UserPreferences;
+import com.example.translator.data.repository.BatchTranslationRepository;
 import com.example.translator.data.repository.LanguageRepository;
 import com.example.translator.data.repository.UserRepository;
 import com.example.translator.services.TextRecognitionService;
 import com.example.translator.services.TranslationService;
 import com.example.translator.services.TextSummarizationService;
+import com.example.translator.services.SpeechAudioCache;
 import com.example.translator.services.SpeechService;
+import com.example.translator.services.summarization.MapReduceSummarizer;
+import com.example.translator.utils.SampledImageLoader;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -30,6 +35,9 @@ public class ImageTranslationViewModel extends ViewModel {
     private TextSummarizationService summarizationService;
     private SpeechService speechService;
     private ExecutorService executor;
+    private BatchTranslationPipeline batchPipeline;
+    private SampledImageLoader imageLoader;
+    private Context applicationContext;
 
     public final LiveData<List<Language>> supportedLanguages;
     public final LiveData<UserPreferences> userPreferences;
@@ -55,17 +63,41 @@ public class ImageTranslationViewModel extends ViewModel {
     private MutableLiveData<Float> _speechRate = new MutableLiveData<>();
     public final LiveData<Float> speechRate = _speechRate;
 
+    private MutableLiveData<List<BatchTranslationPipeline.ItemProgress>> _batchItems = new MutableLiveData<>();
+    public final LiveData<List<BatchTranslationPipeline.ItemProgress>> batchItems = _batchItems;
+
+    private MutableLiveData<Boolean> _isBatchRunning = new MutableLiveData<>();
+    public final LiveData<Boolean> isBatchRunning = _isBatchRunning;
+
+    // Pages of the current batch, ranked as they finish so summaries are ready early
+    private volatile MapReduceSummarizer.Session pageSummary;
+
+    // Latest state of each batch item, indexed by position
+    private final List<BatchTranslationPipeline.ItemProgress> batchProgress = new ArrayList<>();
+    // Text of the finished items in position order, up to the first unfinished one.
+    // Pages are joined by a blank line without labels, as the text is read aloud
+    // and summarized. Guarded by batchProgress
+    private final StringBuilder batchDetected = new StringBuilder();
+    private final StringBuilder batchTranslated = new StringBuilder();
+    private int batchPublished = 0;
+
     // Speech settings
     private float currentSpeechRate = SpeechService.SPEED_NORMAL;
 
-    public ImageTranslationViewModel(UserRepository userRepository, LanguageRepository languageRepository, Context context) {
+    public ImageTranslationViewModel(UserRepository userRepository, LanguageRepository languageRepository,
+                                     BatchTranslationRepository batchTranslationRepository, Context context) {
         this.userRepository = userRepository;
         this.languageRepository = languageRepository;
-        this.textRecognitionService = new TextRecognitionService();
+        this.textRecognitionService = new TextRecognitionService(context);
         this.translationService = new TranslationService(context);
         this.summarizationService = new TextSummarizationService(context);
         this.speechService = new SpeechService(context);
+        this.speechService.setAudioCache(SpeechAudioCache.getInstance(context));
         this.executor = Executors.newFixedThreadPool(4);
+        this.applicationContext = context.getApplicationContext();
+        this.imageLoader = new SampledImageLoader(context);
+        this.batchPipeline = new BatchTranslationPipeline(textRecognitionService, translationService,
+                imageLoader, batchTranslationRepository, new BatchListener());
 
         this.supportedLanguages = languageRepository.getAllSupportedLanguages();
         this.userPreferences = userRepository.getUserPreferences();
@@ -79,133 +111,239 @@ public class ImageTranslationViewModel extends ViewModel {
         _speechRate.setValue(currentSpeechRate);
         _isLoading.setValue(false);
         _isSummarizing.setValue(false);
+        _isBatchRunning.setValue(false);
 
         Log.d(TAG, "ImageTranslationViewModel initialized");
     }
 
-    public void processImage(Bitmap bitmap, String sourceLanguage, String targetLanguage) {
-        Log.d(TAG, "Starting image processing...");
-        Log.d(TAG, "Languages: " + sourceLanguage + " -> " + targetLanguage);
+    /**
+     * Recognizes and translates the requested region. The recognizer decodes
+     * only that region of the source itself, off the main thread.
+     *
+     * @return false if the languages are missing and nothing was started
+     */
+    public boolean processImageRegion(TextRecognitionService.RegionRequest request, String sourceLanguage, String targetLanguage) {
+        Log.d(TAG, "Starting region processing: " + request);
+
+        if (sourceLanguage == null || targetLanguage == null ||
+                sourceLanguage.isEmpty() || targetLanguage.isEmpty()) {
+            Log.e(TAG, "Invalid languages: " + sourceLanguage + " -> " + targetLanguage);
+            _errorMessage.postValue("Please select source and target languages.");
+            return false;
+        }
 
-        executor.execute(() -> {
-            try {
-                _isLoading.postValue(true);
-                _errorMessage.postValue(null);
-                _detectedText.postValue(null);
-                _translationResult.postValue(null);
+        _isLoading.postValue(true);
+        _errorMessage.postValue(null);
+        _detectedText.postValue(null);
+        _translationResult.postValue(null);
+        pageSummary = null;
+
+        textRecognitionService.recognizeTextInRegion(request, createRecognitionCallback(sourceLanguage, targetLanguage));
+        return true;
+    }
+
+    /**
+     * Translates several images in one go. Progress is published per item on
+     * batchItems; the combined text of finished items, in page order, goes to
+     * detectedText and translationResult so reading and summarizing work on
+     * the whole stack.
+     */
+    public void startBatch(List<Uri> uris, String sourceLanguage, String targetLanguage) {
+        startBatch(BatchTranslationPipeline.forImages(uris, imageLoader), sourceLanguage, targetLanguage);
+    }
+
+    /**
+     * Translates a PDF page by page, with the same progress and results as an
+     * image batch.
+     */
+    public void startPdf(Uri uri, String sourceLanguage, String targetLanguage) {
+        startBatch(BatchTranslationPipeline.forPdf(applicationContext, uri, imageLoader.getBitmapPool()),
+                sourceLanguage, targetLanguage);
+    }
+
+    private void startBatch(BatchTranslationPipeline.PageSource source, String sourceLanguage, String targetLanguage) {
+        if (sourceLanguage == null || targetLanguage == null ||
+                sourceLanguage.isEmpty() || targetLanguage.isEmpty()) {
+            Log.e(TAG, "Invalid languages: " + sourceLanguage + " -> " + targetLanguage);
+            _errorMessage.postValue("Please select source and target languages.");
+            return;
+        }
+
+        synchronized (batchProgress) {
+            batchProgress.clear();
+            batchDetected.setLength(0);
+            batchTranslated.setLength(0);
+            batchPublished = 0;
+        }
+        _batchItems.postValue(new ArrayList<>());
+        _errorMessage.postValue(null);
+        _detectedText.postValue(null);
+        _translationResult.postValue(null);
+        _summaryResult.postValue(null);
+        pageSummary = summarizationService.newPageSession(sourceLanguage);
+
+        if (batchPipeline.start(source, sourceLanguage, targetLanguage)) {
+            _isBatchRunning.postValue(true);
+        } else {
+            _errorMessage.postValue("A batch is already being translated.");
+        }
+    }
+
+    public void cancelBatch() {
+        batchPipeline.cancel();
+    }
+
+    private class BatchListener implements BatchTranslationPipeline.Listener {
+        @Override
+        public void onItemUpdated(BatchTranslationPipeline.ItemProgress progress) {
+            List<BatchTranslationPipeline.ItemProgress> snapshot;
+            boolean textChanged;
+            String detected = null;
+            String translated = null;
+            synchronized (batchProgress) {
+                while (batchProgress.size() <= progress.position) {
+                    batchProgress.add(null);
+                }
+                batchProgress.set(progress.position, progress);
+                snapshot = new ArrayList<>(batchProgress);
+                textChanged = progress.status.isFinished() && appendFinishedText();
+                if (textChanged) {
+                    detected = batchDetected.toString();
+                    translated = batchTranslated.toString();
+                }
+            }
+            _batchItems.postValue(snapshot);
+            if (textChanged) {
+                _detectedText.postValue(detected);
+                _translationResult.postValue(translated);
+            }
+
+            if (progress.status == BatchTranslationPipeline.Status.DONE) {
+                MapReduceSummarizer.Session session = pageSummary;
+                if (session != null && progress.detectedText != null) {
+                    session.addPage(progress.position, progress.detectedText);
+                }
+            }
+        }
 
-                // Step 1: Validate inputs
-                if (!isValidBitmap(bitmap)) {
-                    Log.e(TAG, "Invalid bitmap provided");
-                    _errorMessage.postValue("Invalid image. Please select a different image.");
+        @Override
+        public void onBatchFinished(long batchId, int done, int failed, boolean cancelled) {
+            Log.d(TAG, "Batch " + batchId + " finished: " + done + " done, " + failed + " failed");
+            _isBatchRunning.postValue(false);
+            if (done == 0 && !cancelled) {
+                _errorMessage.postValue("No text could be translated from the selected pages.");
+            }
+        }
+    }
+
+    /**
+     * Appends the items that finished since the last call, in position order
+     * and stopping at the first one still in progress, so each item is added
+     * once. Caller holds batchProgress.
+     *
+     * @return true if any text was added
+     */
+    private boolean appendFinishedText() {
+        boolean appended = false;
+        while (batchPublished < batchProgress.size()) {
+            BatchTranslationPipeline.ItemProgress item = batchProgress.get(batchPublished);
+            if (item == null || !item.status.isFinished()) break;
+            batchPublished++;
+            if (item.status != BatchTranslationPipeline.Status.DONE) continue;
+
+            if (batchDetected.length() > 0) {
+                batchDetected.append("\n\n");
+                batchTranslated.append("\n\n");
+            }
+            batchDetected.append(item.detectedText);
+            batchTranslated.append(item.translatedText);
+            appended = true;
+        }
+        return appended;
+    }
+
+    private TextRecognitionService.TextRecognitionCallback createRecognitionCallback(String sourceLanguage, String targetLanguage) {
+        return new TextRecognitionService.TextRecognitionCallback() {
+            @Override
+            public void onSuccess(String recognizedText) {
+                Log.d(TAG, "Text recognition successful");
+                Log.d(TAG, "Recognized text: '" + recognizedText + "'");
+
+                if (recognizedText == null || recognizedText.trim().isEmpty()) {
+                    Log.w(TAG, "No text detected in image");
+                    _detectedText.postValue("");
+                    _errorMessage.postValue("No text detected in the selected area. Try selecting a different area or image with clearer text.");
                     _isLoading.postValue(false);
                     return;
                 }
 
-                if (sourceLanguage == null || targetLanguage == null ||
-                        sourceLanguage.isEmpty() || targetLanguage.isEmpty()) {
-                    Log.e(TAG, "Invalid languages: " + sourceLanguage + " -> " + targetLanguage);
-                    _errorMessage.postValue("Please select source and target languages.");
+                String cleanText = recognizedText.trim();
+                _detectedText.postValue(cleanText);
+
+                // Step 3: Translate the recognized text if languages are different
+                if (sourceLanguage.equals(targetLanguage)) {
+                    Log.d(TAG, "Source and target languages are the same, skipping translation");
+                    _translationResult.postValue(cleanText);
                     _isLoading.postValue(false);
-                    return;
+                } else {
+                    Log.d(TAG, "Starting translation: " + sourceLanguage + " -> " + targetLanguage);
+                    translationService.translateText(cleanText, sourceLanguage, targetLanguage,
+                            new TranslationService.TranslationCallback() {
+                                @Override
+                                public void onSuccess(String translatedText) {
+                                    Log.d(TAG, "Translation successful");
+                                    Log.d(TAG, "Translated text: '" + translatedText + "'");
+
+                                    if (translatedText == null || translatedText.trim().isEmpty()) {
+                                        Log.w(TAG, "Translation returned empty result");
+                                        _translationResult.postValue("Translation failed - empty result");
+                                        _errorMessage.postValue("Translation failed. Please check your internet connection and try again.");
+                                    } else {
+                                        _translationResult.postValue(translatedText.trim());
+                                    }
+                                    _isLoading.postValue(false);
+                                }
+
+                                @Override
+                                public void onFailure(Exception exception) {
+                                    Log.e(TAG, "Translation failed", exception);
+                                    _translationResult.postValue(null);
+
+                                    String errorMsg = "Translation failed";
+                                    if (exception instanceof TranslationService.NetworkException) {
+                                        errorMsg = "No internet connection. Please check your network and try again.";
+                                    } else if (exception instanceof TranslationService.TranslationException) {
+                                        String msg = exception.getMessage();
+                                        errorMsg = (msg != null && !msg.isEmpty()) ? msg : "Translation service error. Please try again.";
+                                    } else if (exception != null && exception.getMessage() != null) {
+                                        errorMsg = "Translation error: " + exception.getMessage();
+                                    }
+
+                                    _errorMessage.postValue(errorMsg);
+                                    _isLoading.postValue(false);
+                                }
+                            });
                 }
+            }
 
-                Log.d(TAG, "Bitmap info: " + bitmap.getWidth() + "x" + bitmap.getHeight() +
-                        ", Config: " + bitmap.getConfig() + ", Bytes: " + bitmap.getByteCount());
-
-                // Step 2: Recognize text from image
-                Log.d(TAG, "Starting text recognition...");
-                textRecognitionService.recognizeTextFromBitmap(bitmap, new TextRecognitionService.TextRecognitionCallback() {
-                    @Override
-                    public void onSuccess(String recognizedText) {
-                        Log.d(TAG, "Text recognition successful");
-                        Log.d(TAG, "Recognized text: '" + recognizedText + "'");
-
-                        if (recognizedText == null || recognizedText.trim().isEmpty()) {
-                            Log.w(TAG, "No text detected in image");
-                            _detectedText.postValue("");
-                            _errorMessage.postValue("No text detected in the selected area. Try selecting a different area or image with clearer text.");
-                            _isLoading.postValue(false);
-                            return;
-                        }
-
-                        String cleanText = recognizedText.trim();
-                        _detectedText.postValue(cleanText);
-
-                        // Step 3: Translate the recognized text if languages are different
-                        if (sourceLanguage.equals(targetLanguage)) {
-                            Log.d(TAG, "Source and target languages are the same, skipping translation");
-                            _translationResult.postValue(cleanText);
-                            _isLoading.postValue(false);
-                        } else {
-                            Log.d(TAG, "Starting translation: " + sourceLanguage + " -> " + targetLanguage);
-                            translationService.translateText(cleanText, sourceLanguage, targetLanguage,
-                                    new TranslationService.TranslationCallback() {
-                                        @Override
-                                        public void onSuccess(String translatedText) {
-                                            Log.d(TAG, "Translation successful");
-                                            Log.d(TAG, "Translated text: '" + translatedText + "'");
-
-                                            if (translatedText == null || translatedText.trim().isEmpty()) {
-                                                Log.w(TAG, "Translation returned empty result");
-                                                _translationResult.postValue("Translation failed - empty result");
-                                                _errorMessage.postValue("Translation failed. Please check your internet connection and try again.");
-                                            } else {
-                                                _translationResult.postValue(translatedText.trim());
-                                            }
-                                            _isLoading.postValue(false);
-                                        }
-
-                                        @Override
-                                        public void onFailure(Exception exception) {
-                                            Log.e(TAG, "Translation failed", exception);
-                                            _translationResult.postValue(null);
-
-                                            String errorMsg = "Translation failed";
-                                            if (exception instanceof TranslationService.NetworkException) {
-                                                errorMsg = "No internet connection. Please check your network and try again.";
-                                            } else if (exception instanceof TranslationService.TranslationException) {
-                                                String msg = exception.getMessage();
-                                                errorMsg = (msg != null && !msg.isEmpty()) ? msg : "Translation service error. Please try again.";
-                                            } else if (exception != null && exception.getMessage() != null) {
-                                                errorMsg = "Translation error: " + exception.getMessage();
-                                            }
-
-                                            _errorMessage.postValue(errorMsg);
-                                            _isLoading.postValue(false);
-                                        }
-                                    });
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Exception exception) {
-                        Log.e(TAG, "Text recognition failed", exception);
-                        _detectedText.postValue(null);
-
-                        String errorMsg = "Text recognition failed";
-                        if (exception != null && exception.getMessage() != null) {
-                            errorMsg = "Text recognition failed: " + exception.getMessage();
-                        }
-
-                        _errorMessage.postValue(errorMsg);
-                        _isLoading.postValue(false);
-                    }
-                });
+            @Override
+            public void onFailure(Exception exception) {
+                Log.e(TAG, "Text recognition failed", exception);
+                _detectedText.postValue(null);
 
-            } catch (Exception e) {
-                Log.e(TAG, "Unexpected error during image processing", e);
-                String errorMsg = "An unexpected error occurred";
-                if (e.getMessage() != null) {
-                    errorMsg += ": " + e.getMessage();
+                String errorMsg = "Text recognition failed";
+                if (exception != null && exception.getMessage() != null) {
+                    errorMsg = "Text recognition failed: " + exception.getMessage();
                 }
+
                 _errorMessage.postValue(errorMsg);
                 _isLoading.postValue(false);
             }
-        });
+        };
     }
 
-    public void summarizeDetectedText(TextSummarizationService.SummaryType summaryType, String targetLanguage) {
+    public void summarizeDetectedText(TextSummarizationService.SummaryType summaryType, String sourceLanguage,
+                                      String targetLanguage) {
         String textToSummarize = _detectedText.getValue();
 
         if (textToSummarize == null || textToSummarize.trim().isEmpty()) {
@@ -220,7 +358,7 @@ public class ImageTranslationViewModel extends ViewModel {
                 _errorMessage.postValue(null);
 
                 Log.d(TAG, "Starting text summarization...");
-                summarizationService.summarizeText(textToSummarize, summaryType, targetLanguage,
+                TextSummarizationService.SummarizationCallback callback =
                         new TextSummarizationService.SummarizationCallback() {
                             @Override
                             public void onSuccess(TextSummarizationService.SummaryResult.Success result) {
@@ -235,7 +373,17 @@ public class ImageTranslationViewModel extends ViewModel {
                                 _errorMessage.postValue(error.message);
                                 _isSummarizing.postValue(false);
                             }
-                        });
+                        };
+
+                MapReduceSummarizer.Session session = pageSummary;
+                if (session != null && summaryType != TextSummarizationService.SummaryType.KEY_PHRASES) {
+                    // Batch pages were already ranked as they came in; only the merge is left
+                    summarizationService.summarizePages(session, summaryType, targetLanguage, callback);
+                } else {
+                    // Detected text is still in the source language; only the summary gets translated
+                    summarizationService.summarizeText(textToSummarize, summaryType, sourceLanguage, targetLanguage,
+                            callback);
+                }
 
             } catch (Exception e) {
                 Log.e(TAG, "Error during summarization", e);
@@ -246,6 +394,14 @@ public class ImageTranslationViewModel extends ViewModel {
         });
     }
 
+    /**
+     * Gets the voice for {@code languageCode} ready before anything is spoken
+     * in it; safe to call before text-to-speech finished initializing.
+     */
+    public void prepareSpeech(String languageCode) {
+        speechService.warmUp(languageCode);
+    }
+
     public void speakDetectedText(String languageCode) {
         String text = _detectedText.getValue();
         if (text == null || text.trim().isEmpty()) {
@@ -329,26 +485,6 @@ public class ImageTranslationViewModel extends ViewModel {
         }
     }
 
-    private boolean isValidBitmap(Bitmap bitmap) {
-        if (bitmap == null) {
-            Log.e(TAG, "Bitmap is null");
-            return false;
-        }
-        if (bitmap.isRecycled()) {
-            Log.e(TAG, "Bitmap is recycled");
-            return false;
-        }
-        if (bitmap.getWidth() <= 0 || bitmap.getHeight() <= 0) {
-            Log.e(TAG, "Bitmap has invalid dimensions: " + bitmap.getWidth() + "x" + bitmap.getHeight());
-            return false;
-        }
-        if (bitmap.getWidth() > 4096 || bitmap.getHeight() > 4096) {
-            Log.e(TAG, "Bitmap too large: " + bitmap.getWidth() + "x" + bitmap.getHeight());
-            return false;
-        }
-        return true;
-    }
-
     public void clearResults() {
         _detectedText.setValue(null);
         _translationResult.setValue(null);
@@ -379,6 +515,8 @@ public class ImageTranslationViewModel extends ViewModel {
             }
         }
 
+        batchPipeline.shutdown();
+
         // Close services
         try {
             if (textRecognitionService != null) {
@@ -401,18 +539,21 @@ public class ImageTranslationViewModel extends ViewModel {
     public static class ImageTranslationViewModelFactory implements ViewModelProvider.Factory {
         private UserRepository userRepository;
         private LanguageRepository languageRepository;
+        private BatchTranslationRepository batchTranslationRepository;
         private Context context;
 
-        public ImageTranslationViewModelFactory(UserRepository userRepository, LanguageRepository languageRepository, Context context) {
+        public ImageTranslationViewModelFactory(UserRepository userRepository, LanguageRepository languageRepository,
+                                                BatchTranslationRepository batchTranslationRepository, Context context) {
             this.userRepository = userRepository;
             this.languageRepository = languageRepository;
+            this.batchTranslationRepository = batchTranslationRepository;
             this.context = context;
         }
 
         @Override
         public <T extends ViewModel> T create(Class<T> modelClass) {
             if (modelClass.isAssignableFrom(ImageTranslationViewModel.class)) {
-                return (T) new ImageTranslationViewModel(userRepository, languageRepository, context);
+                return (T) new ImageTranslationViewModel(userRepository, languageRepository, batchTranslationRepository, context);
             }
             throw new IllegalArgumentException("Unknown ViewModel class: " + modelClass.getName());
         }
@@ -0,0 +1,278 @@
+package com.example.translator.ui.text;
+
+import android.speech.SpeechRecognizer;
+import android.util.Log;
+import com.example.translator.services.SpeechService;
+import com.example.translator.services.TranslationService;
+import com.example.translator.services.VoiceLatencyTracer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands-free two-way conversation between a speaker of {@code languageA} and
+ * a speaker of {@code languageB}.
+ *
+ * Each turn runs recognition, translation and speech back to back: the final
+ * result goes straight to the translator for that direction, the translation
+ * is spoken as soon as it arrives, and the recognizer listens in the other
+ * language once the speech service reports that playback has completed, so
+ * the microphone never hears the translation. If it cannot be spoken, the
+ * other side is listened to at once. Both translators are warmed up when the
+ * session starts and the recognizer is reused across turns, so no turn pays
+ * for setup. A turn without speech listens again in the same language;
+ * after {@link #MAX_SILENT_TURNS} of those the other side gets the floor.
+ * Recognizer failures are retried after a growing delay, and the session
+ * stops after {@link #MAX_CONSECUTIVE_ERRORS} in a row.
+ *
+ * Call from the main thread; listener methods are called on it too.
+ */
+public class ConversationSession {
+
+    private static final String TAG = "ConversationSession";
+
+    static final int MAX_SILENT_TURNS = 2;
+    static final int MAX_CONSECUTIVE_ERRORS = 3;
+    // Delay before the first retry; each further failure in a row waits that much longer
+    static final long RETRY_DELAY_MS = 1000L;
+
+    public interface Listener {
+        void onListening(String languageCode);
+        void onPartialResult(String languageCode, String text);
+        void onTurnTranslated(String fromLanguage, String toLanguage, String original, String translated);
+        /**
+         * A turn failed; the session carries on.
+         */
+        void onError(String message);
+        /**
+         * The session ended on its own, e.g. the microphone is unavailable.
+         */
+        void onStopped(String reason);
+    }
+
+    private final SpeechService speechService;
+    private final TranslationService translationService;
+    private final Executor mainExecutor;
+    private final String languageA;
+    private final String languageB;
+    private final Listener listener;
+    private final VoiceLatencyTracer latencyTracer = VoiceLatencyTracer.getInstance();
+
+    private boolean active = false;
+    // Bumped for every turn so callbacks of an abandoned turn are ignored
+    private int turn = 0;
+    private int silentTurns = 0;
+    private int consecutiveErrors = 0;
+    private ScheduledExecutorService retryScheduler;
+    // Who speaks after the translation being played, or null when nothing is playing
+    private String nextSpeaker;
+
+    public ConversationSession(SpeechService speechService, TranslationService translationService,
+                               Executor mainExecutor, String languageA, String languageB, Listener listener) {
+        this.speechService = speechService;
+        this.translationService = translationService;
+        this.mainExecutor = mainExecutor;
+        this.languageA = languageA;
+        this.languageB = languageB;
+        this.listener = listener;
+    }
+
+    public void start() {
+        if (active) return;
+        active = true;
+        consecutiveErrors = 0;
+        retryScheduler = Executors.newSingleThreadScheduledExecutor();
+
+        translationService.warmUp(languageA, languageB);
+        translationService.warmUp(languageB, languageA);
+        speechService.setPlaybackListener(new PlaybackListener());
+
+        Log.d(TAG, "Conversation started: " + languageA + " <-> " + languageB);
+        listen(languageA);
+    }
+
+    public void stop() {
+        if (!active) return;
+        active = false;
+        turn++;
+
+        nextSpeaker = null;
+        retryScheduler.shutdownNow();
+        speechService.setPlaybackListener(null);
+        speechService.cancelSpeechRecognition();
+        speechService.stopSpeaking();
+        Log.d(TAG, "Conversation stopped");
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    private String otherLanguage(String languageCode) {
+        return languageCode.equals(languageA) ? languageB : languageA;
+    }
+
+    private void listen(String languageCode) {
+        if (!active) return;
+        final int listenTurn = ++turn;
+        listener.onListening(languageCode);
+
+        speechService.startSpeechRecognition(languageCode, new SpeechService.SpeechRecognitionCallback() {
+            @Override
+            public void onReady() {
+                // Recognizer is listening
+            }
+
+            @Override
+            public void onSpeaking() {
+                // Speaker started talking
+            }
+
+            @Override
+            public void onRmsChanged(float rmsdB) {
+                // Volume level changed
+            }
+
+            @Override
+            public void onPartialResult(String text) {
+                if (listenTurn == turn) {
+                    listener.onPartialResult(languageCode, text);
+                }
+            }
+
+            @Override
+            public void onFinalResult(String text) {
+                if (listenTurn != turn || !active) return;
+                silentTurns = 0;
+                consecutiveErrors = 0;
+                translateAndSpeak(text, languageCode, otherLanguage(languageCode), listenTurn,
+                        speechService.getRecognitionTrace());
+            }
+
+            @Override
+            public void onError(int errorCode) {
+                if (listenTurn != turn || !active) return;
+                onRecognitionError(languageCode, errorCode);
+            }
+        });
+    }
+
+    private void onRecognitionError(String languageCode, int errorCode) {
+        switch (errorCode) {
+            case SpeechRecognizer.ERROR_NO_MATCH:
+            case SpeechRecognizer.ERROR_SPEECH_TIMEOUT:
+                // The recognizer works; nobody said anything
+                consecutiveErrors = 0;
+                silentTurns++;
+                if (silentTurns >= MAX_SILENT_TURNS) {
+                    silentTurns = 0;
+                    listen(otherLanguage(languageCode));
+                } else {
+                    listen(languageCode);
+                }
+                break;
+            case SpeechRecognizer.ERROR_INSUFFICIENT_PERMISSIONS:
+            case SpeechRecognizer.ERROR_AUDIO:
+                stop();
+                listener.onStopped("Microphone not available");
+                break;
+            default:
+                // Network hiccups and a busy recognizer usually clear up on a later attempt.
+                // Some of these errors are reported from inside startSpeechRecognition, so
+                // retrying right away would recurse.
+                consecutiveErrors++;
+                if (consecutiveErrors >= MAX_CONSECUTIVE_ERRORS) {
+                    Log.w(TAG, "Giving up after " + consecutiveErrors + " recognition errors, last " + errorCode);
+                    stop();
+                    listener.onStopped("Speech recognition is not available");
+                    return;
+                }
+                if (consecutiveErrors == 1) {
+                    listener.onError("Speech recognition failed");
+                }
+                listenLater(languageCode, RETRY_DELAY_MS * consecutiveErrors);
+        }
+    }
+
+    private void listenLater(String languageCode, long delayMs) {
+        final int retryTurn = turn;
+        retryScheduler.schedule(() -> mainExecutor.execute(() -> {
+            if (active && retryTurn == turn) listen(languageCode);
+        }), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void translateAndSpeak(String text, String fromLanguage, String toLanguage, int translateTurn,
+                                   long trace) {
+        latencyTracer.mark(trace, VoiceLatencyTracer.Mark.TRANSLATION_START);
+        translationService.translateText(text, fromLanguage, toLanguage, new TranslationService.TranslationCallback() {
+            @Override
+            public void onSuccess(String translatedText) {
+                latencyTracer.mark(trace, VoiceLatencyTracer.Mark.TRANSLATION_END);
+                mainExecutor.execute(() -> {
+                    if (translateTurn != turn || !active) {
+                        latencyTracer.discard(trace);
+                        return;
+                    }
+                    listener.onTurnTranslated(fromLanguage, toLanguage, text, translatedText);
+
+                    if (speechService.isTextToSpeechAvailable()) {
+                        // The playback listener hands the floor over when speech ends;
+                        // the speech service finishes the trace then
+                        nextSpeaker = toLanguage;
+                        if (!speechService.speakText(translatedText, toLanguage, speechService.getSpeechRate(),
+                                trace)) {
+                            // Nothing was queued, so no playback callback will hand the floor over
+                            Log.w(TAG, "Could not speak the translation, listening again");
+                            nextSpeaker = null;
+                            latencyTracer.finish(trace);
+                            listen(toLanguage);
+                        }
+                    } else {
+                        latencyTracer.finish(trace);
+                        listen(toLanguage);
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                Log.w(TAG, "Conversation turn translation failed", exception);
+                latencyTracer.discard(trace);
+                mainExecutor.execute(() -> {
+                    if (translateTurn != turn || !active) return;
+                    listener.onError("Translation failed");
+                    // Let the same speaker try again
+                    listen(fromLanguage);
+                });
+            }
+        });
+    }
+
+    /**
+     * Starts the next turn once the translation has been spoken. Called on
+     * the TTS thread, so the recognizer is started on the main thread.
+     */
+    private class PlaybackListener implements SpeechService.PlaybackListener {
+        @Override
+        public void onChunkStarted(int index, int count, int start, int end) {
+            // Progress is not shown in conversation mode
+        }
+
+        @Override
+        public void onPlaybackCompleted() {
+            mainExecutor.execute(() -> {
+                if (!active || nextSpeaker == null) return;
+                // Whoever just heard the translation answers next
+                String speaker = nextSpeaker;
+                nextSpeaker = null;
+                listen(speaker);
+            });
+        }
+
+        @Override
+        public void onChunkError(int index) {
+            Log.w(TAG, "Could not speak part " + index + " of the translation");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,316 @@
+package com.example.translator.ui.text;
+
+import android.util.Log;
+import com.example.translator.services.TranslationService;
+import com.example.translator.services.summarization.LanguageProfile;
+import com.example.translator.utils.SentenceSegmenter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Translates speech while it is still being recognized.
+ *
+ * Partial recognition results are debounced, and only the part the
+ * recognizer may still revise (the tail) is re-translated on each update.
+ * Text that stayed the same across two partial results is stable; complete
+ * sentences in the stable part are committed, translated once and never
+ * touched again. Speech without punctuation is committed at a word boundary
+ * once the stable tail grows past {@link #MAX_TAIL_WORDS}, so re-translation
+ * cost stays bounded.
+ *
+ * Every update carries an increasing sequence number, and translations that
+ * come back after a newer request are dropped, so the display never steps
+ * backwards. Thread safe; the listener is called on the translation
+ * callback thread.
+ */
+public class StreamingVoiceTranslator {
+
+    private static final String TAG = "StreamingVoiceTranslator";
+
+    public static final long DEFAULT_DEBOUNCE_MS = 250L;
+    static final int MAX_TAIL_WORDS = 12;
+
+    public interface Listener {
+        /**
+         * @param committed translation of the committed sentences; only grows
+         * @param provisional translation of the tail; may change on the next update
+         * @param isFinal true once the final result is fully translated
+         */
+        void onTranslationUpdate(long sequence, String committed, String provisional, boolean isFinal);
+        void onError(Exception exception);
+    }
+
+    /**
+     * A committed piece of source text and, once it arrives, its translation.
+     */
+    private static class Segment {
+        final String source;
+        String translation;
+
+        Segment(String source) {
+            this.source = source;
+        }
+    }
+
+    private final TranslationService translationService;
+    private final ScheduledExecutorService scheduler;
+    private final long debounceMs;
+
+    private String sourceLanguage;
+    private String targetLanguage;
+    private SentenceSegmenter segmenter;
+    private Listener listener;
+    // Bumped on start and cancel so callbacks from an earlier utterance are ignored
+    private int generation = 0;
+
+    private final List<Segment> segments = new ArrayList<>();
+    // Length of the recognized text covered by segments
+    private int committedLength = 0;
+    private String lastPartial = "";
+    private boolean finalReceived = false;
+
+    private String tailTranslation = "";
+    // Commit point the tail translation was made against; it overlaps committed text otherwise
+    private int tailCommittedLength = 0;
+    private long tailRequests = 0L;
+    private long appliedTail = 0L;
+    private ScheduledFuture<?> pendingTail;
+    private long updateSequence = 0L;
+
+    public StreamingVoiceTranslator(TranslationService translationService, ScheduledExecutorService scheduler) {
+        this(translationService, scheduler, DEFAULT_DEBOUNCE_MS);
+    }
+
+    public StreamingVoiceTranslator(TranslationService translationService, ScheduledExecutorService scheduler,
+                                    long debounceMs) {
+        this.translationService = translationService;
+        this.scheduler = scheduler;
+        this.debounceMs = debounceMs;
+    }
+
+    /**
+     * Starts a new utterance, dropping whatever the previous one left behind.
+     */
+    public synchronized void start(String sourceLanguage, String targetLanguage, Listener listener) {
+        cancel();
+        this.sourceLanguage = sourceLanguage;
+        this.targetLanguage = targetLanguage;
+        this.segmenter = SentenceSegmenter.forLanguage(sourceLanguage);
+        this.listener = listener;
+        Log.d(TAG, "Streaming translation started: " + sourceLanguage + " -> " + targetLanguage);
+    }
+
+    public synchronized void onPartialResult(String text) {
+        if (listener == null || finalReceived || text == null) return;
+
+        if (!text.startsWith(lastPartial.substring(0, committedLength))) {
+            // The recognizer rewrote words we already committed; start over from this result
+            Log.d(TAG, "Committed text was revised, re-translating from scratch");
+            resetCommitted();
+        }
+
+        commitStable(text, stableLength(lastPartial, text), false);
+        lastPartial = text;
+        scheduleTail(debounceMs);
+    }
+
+    /**
+     * Commits everything left and reports {@code isFinal} once the last
+     * piece is translated.
+     */
+    public synchronized void onFinalResult(String text) {
+        if (listener == null || finalReceived || text == null) return;
+
+        if (!text.startsWith(lastPartial.substring(0, committedLength))) {
+            resetCommitted();
+        }
+        lastPartial = text;
+        commitStable(text, text.length(), true);
+        // Set after committing: a translation that completes synchronously must not report final early
+        finalReceived = true;
+        cancelPendingTail();
+        tailTranslation = "";
+        emitUpdate();
+    }
+
+    public synchronized void cancel() {
+        generation++;
+        cancelPendingTail();
+        resetCommitted();
+        lastPartial = "";
+        finalReceived = false;
+        listener = null;
+    }
+
+    private void resetCommitted() {
+        segments.clear();
+        committedLength = 0;
+        tailTranslation = "";
+        tailCommittedLength = 0;
+        // Invalidate tail translations in flight; they were made against the old commit point
+        appliedTail = tailRequests;
+    }
+
+    /**
+     * Length of the common prefix of two consecutive results, cut back to the
+     * last word boundary so a word still being spoken is never stable.
+     */
+    static int stableLength(String previous, String current) {
+        int limit = Math.min(previous.length(), current.length());
+        int common = 0;
+        while (common < limit && previous.charAt(common) == current.charAt(common)) common++;
+        if (common == current.length() && common == previous.length()) return common;
+
+        while (common > 0 && !Character.isWhitespace(current.charAt(common - 1))) common--;
+        return common;
+    }
+
+    /**
+     * Commits complete sentences in {@code [committedLength, stable)}. The
+     * last sentence of the range stays open unless {@code all} is set, since
+     * more words may still join it.
+     */
+    private void commitStable(String text, int stable, boolean all) {
+        if (stable <= committedLength) return;
+
+        SentenceSegmenter.Spans spans = segmenter.segment(text, committedLength, stable);
+        int commitCount = all ? spans.size() : spans.size() - 1;
+        for (int i = 0; i < commitCount; i++) {
+            commit(spans.get(i), spans.end(i));
+        }
+
+        if (!all) {
+            // No punctuation in sight: commit at a word boundary once the open tail gets long
+            int wordStart = committedLength;
+            int words = 0;
+            int lastBoundary = -1;
+            for (int i = committedLength; i < stable; i++) {
+                boolean space = Character.isWhitespace(text.charAt(i));
+                if (!space && i == wordStart) words++;
+                if (space) {
+                    wordStart = i + 1;
+                    lastBoundary = i;
+                }
+            }
+            if (words > MAX_TAIL_WORDS && lastBoundary > committedLength) {
+                commit(text.substring(committedLength, lastBoundary).trim(), lastBoundary);
+            }
+        }
+    }
+
+    private void commit(String source, int end) {
+        committedLength = end;
+        if (source.isEmpty()) return;
+
+        Segment segment = new Segment(source);
+        segments.add(segment);
+        final int requestGeneration = generation;
+        translationService.translateText(source, sourceLanguage, targetLanguage,
+                new TranslationService.TranslationCallback() {
+                    @Override
+                    public void onSuccess(String translatedText) {
+                        synchronized (StreamingVoiceTranslator.this) {
+                            if (requestGeneration != generation) return;
+                            segment.translation = translatedText;
+                            emitUpdate();
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Exception exception) {
+                        Listener current;
+                        synchronized (StreamingVoiceTranslator.this) {
+                            if (requestGeneration != generation) return;
+                            // Keep the source so later segments are not held back
+                            segment.translation = segment.source;
+                            current = listener;
+                            emitUpdate();
+                        }
+                        Log.w(TAG, "Segment translation failed", exception);
+                        if (current != null) current.onError(exception);
+                    }
+                });
+    }
+
+    private void scheduleTail(long delayMs) {
+        cancelPendingTail();
+        final int requestGeneration = generation;
+        pendingTail = scheduler.schedule(() -> translateTail(requestGeneration), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelPendingTail() {
+        if (pendingTail != null) {
+            pendingTail.cancel(false);
+            pendingTail = null;
+        }
+    }
+
+    private synchronized void translateTail(int requestGeneration) {
+        if (requestGeneration != generation || finalReceived) return;
+
+        String tail = lastPartial.substring(committedLength).trim();
+        if (tail.isEmpty()) {
+            tailTranslation = "";
+            tailCommittedLength = committedLength;
+            appliedTail = ++tailRequests;
+            emitUpdate();
+            return;
+        }
+
+        final long request = ++tailRequests;
+        final int requestCommitted = committedLength;
+        translationService.translateText(tail, sourceLanguage, targetLanguage,
+                new TranslationService.TranslationCallback() {
+                    @Override
+                    public void onSuccess(String translatedText) {
+                        synchronized (StreamingVoiceTranslator.this) {
+                            // Stale if a newer tail was applied or the commit point moved since
+                            if (requestGeneration != generation || finalReceived
+                                    || request <= appliedTail || requestCommitted != committedLength) {
+                                return;
+                            }
+                            appliedTail = request;
+                            tailTranslation = translatedText;
+                            tailCommittedLength = requestCommitted;
+                            emitUpdate();
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Exception exception) {
+                        // The next partial result retries; only committed text reports errors
+                        Log.w(TAG, "Tail translation failed", exception);
+                    }
+                });
+    }
+
+    /**
+     * Reports committed translations in order up to the first one still
+     * pending, plus the current tail. Caller holds the lock.
+     */
+    private void emitUpdate() {
+        if (listener == null) return;
+
+        List<String> done = new ArrayList<>(segments.size());
+        boolean complete = true;
+        for (Segment segment : segments) {
+            if (segment.translation == null) {
+                complete = false;
+                break;
+            }
+            done.add(segment.translation);
+        }
+
+        String committed = LanguageProfile.forLanguage(targetLanguage).joinSentences(done);
+        String provisional = tailCommittedLength == committedLength ? tailTranslation : "";
+        boolean isFinal = finalReceived && complete;
+        listener.onTranslationUpdate(++updateSequence, committed, provisional, isFinal);
+        if (isFinal) {
+            Log.d(TAG, "Streaming translation finished in " + segments.size() + " segments");
+            listener = null;
+        }
+    }
+}
\ No newline at end of file
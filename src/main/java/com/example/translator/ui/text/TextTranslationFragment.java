@@ -10,6 +10,7 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.*;
+import androidx.appcompat.app.AlertDialog;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
@@ -18,9 +19,12 @@ import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.example.translator.R;
 import com.example.translator.TranslatorApplication;
+import com.example.translator.services.SpeechAudioCache;
 import com.example.translator.services.SpeechService;
+import com.example.translator.services.VoiceLatencyTracer;
 import com.example.translator.ui.text.LanguageSpinnerAdapter.LanguageSpinnerItem;
 import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -41,12 +45,18 @@ public class TextTranslationFragment extends Fragment {
     private MaterialButton btnSpeak;
     private MaterialButton btnCopy;
     private ImageButton btnSwapLanguages;
+    private Switch switchLiveTranslation;
+    private MaterialButton btnConversation;
     private ProgressBar progressBar;
 
     // Voice recognition
     private boolean isListening = false;
     private SpeechService.SpeechRecognitionCallback currentSpeechCallback;
 
+    // Two-way conversation, null when not running
+    private ConversationSession conversation;
+    private boolean startConversationAfterPermission = false;
+
     private static final int RECORD_AUDIO_PERMISSION_CODE = 101;
 
     public TextTranslationFragment() {
@@ -87,6 +97,8 @@ public class TextTranslationFragment extends Fragment {
         btnSpeak = view.findViewById(R.id.btn_speak);
         btnCopy = view.findViewById(R.id.btn_copy);
         btnSwapLanguages = view.findViewById(R.id.btn_swap_languages);
+        switchLiveTranslation = view.findViewById(R.id.switch_live_translation);
+        btnConversation = view.findViewById(R.id.btn_conversation);
         progressBar = view.findViewById(R.id.progress_bar);
     }
 
@@ -102,6 +114,8 @@ public class TextTranslationFragment extends Fragment {
 
     private void setupSpeechService() {
         speechService = new SpeechService(requireContext());
+        // Replays of the same translation play from disk instead of being synthesized again
+        speechService.setAudioCache(SpeechAudioCache.getInstance(requireContext()));
         speechService.initializeTextToSpeech(success -> {
             if (!success) {
                 showToast(getString(R.string.tts_not_available));
@@ -120,8 +134,22 @@ public class TextTranslationFragment extends Fragment {
             }
         });
 
+        btnVoiceInput.setOnLongClickListener(v -> {
+            showVoiceLatencyDialog();
+            return true;
+        });
+
         btnSpeakSource.setOnClickListener(v -> speakSourceText());
 
+        btnConversation.setOnClickListener(v -> {
+            if (conversation != null) {
+                stopConversation();
+            } else {
+                startConversationAfterPermission = true;
+                requestAudioPermissionAndStartRecording();
+            }
+        });
+
         btnSpeak.setOnClickListener(v -> speakTranslation());
 
         btnCopy.setOnClickListener(v -> copyTranslationToClipboard());
@@ -173,6 +201,19 @@ public class TextTranslationFragment extends Fragment {
 
         if (defaultSourceIndex != -1) spinnerSourceLanguage.setSelection(defaultSourceIndex);
         if (defaultTargetIndex != -1) spinnerTargetLanguage.setSelection(defaultTargetIndex);
+
+        spinnerTargetLanguage.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                // Queued until text-to-speech is ready if the languages arrive first
+                speechService.warmUp(getSelectedTargetLanguageCode());
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+                // Nothing to prepare
+            }
+        });
     }
 
     private void performTranslation() {
@@ -227,11 +268,79 @@ public class TextTranslationFragment extends Fragment {
                     new String[]{Manifest.permission.RECORD_AUDIO},
                     RECORD_AUDIO_PERMISSION_CODE
             );
+        } else {
+            startRecordingOrConversation();
+        }
+    }
+
+    private void startRecordingOrConversation() {
+        if (startConversationAfterPermission) {
+            startConversationAfterPermission = false;
+            startConversation();
         } else {
             startVoiceRecording();
         }
     }
 
+    private void startConversation() {
+        String languageA = getSelectedSourceLanguageCode();
+        String languageB = getSelectedTargetLanguageCode();
+        if (languageA.equals(languageB)) {
+            showToast(getString(R.string.conversation_same_language));
+            return;
+        }
+
+        if (isListening) {
+            stopVoiceRecording();
+        }
+        btnVoiceInput.setEnabled(false);
+        btnConversation.setText(getString(R.string.conversation_stop));
+
+        conversation = new ConversationSession(speechService, viewModel.getTranslationService(),
+                ContextCompat.getMainExecutor(requireContext()), languageA, languageB,
+                new ConversationSession.Listener() {
+                    @Override
+                    public void onListening(String languageCode) {
+                        btnVoiceInput.setText(getString(R.string.conversation_listening,
+                                languageCode.toUpperCase(Locale.ROOT)));
+                    }
+
+                    @Override
+                    public void onPartialResult(String languageCode, String text) {
+                        etSourceText.setText(text);
+                    }
+
+                    @Override
+                    public void onTurnTranslated(String fromLanguage, String toLanguage, String original,
+                                                 String translated) {
+                        etSourceText.setText(original);
+                        tvTranslatedText.setText(translated);
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                        showToast(message);
+                    }
+
+                    @Override
+                    public void onStopped(String reason) {
+                        showToast(reason);
+                        stopConversation();
+                    }
+                });
+        conversation.start();
+    }
+
+    private void stopConversation() {
+        if (conversation != null) {
+            conversation.stop();
+            conversation = null;
+        }
+        btnConversation.setText(getString(R.string.conversation));
+        btnVoiceInput.setText(getString(R.string.voice_input));
+        btnVoiceInput.setEnabled(true);
+    }
+
     private void startVoiceRecording() {
         if (isListening) return;
 
@@ -240,6 +349,12 @@ public class TextTranslationFragment extends Fragment {
         btnVoiceInput.setText(getString(R.string.listening));
         btnVoiceInput.setEnabled(false);
 
+        // Live mode translates partial results while the user is still talking
+        boolean streaming = switchLiveTranslation.isChecked();
+        if (streaming) {
+            viewModel.startStreamingTranslation(sourceLanguage, getSelectedTargetLanguageCode());
+        }
+
         currentSpeechCallback = new SpeechService.SpeechRecognitionCallback() {
             @Override
             public void onReady() {
@@ -258,20 +373,30 @@ public class TextTranslationFragment extends Fragment {
 
             @Override
             public void onPartialResult(String text) {
-                // Partial result received
+                if (streaming) {
+                    viewModel.onStreamingPartialResult(text, speechService.getRecognitionTrace());
+                    requireActivity().runOnUiThread(() -> etSourceText.setText(text));
+                }
             }
 
             @Override
             public void onFinalResult(String text) {
+                long trace = speechService.getRecognitionTrace();
                 requireActivity().runOnUiThread(() -> {
                     etSourceText.setText(text);
                     stopVoiceRecording();
 
+                    if (streaming) {
+                        // Only the part not yet committed is translated again
+                        viewModel.onStreamingFinalResult(text, trace);
+                        return;
+                    }
+
                     // Auto-translate if text is recognized
                     String targetLanguage = getSelectedTargetLanguageCode();
                     if (!text.isEmpty()) {
                         executor.execute(() ->
-                                viewModel.translateText(text, sourceLanguage, targetLanguage)
+                                viewModel.translateText(text, sourceLanguage, targetLanguage, trace)
                         );
                     }
                 });
@@ -280,6 +405,9 @@ public class TextTranslationFragment extends Fragment {
             @Override
             public void onError(int errorCode) {
                 requireActivity().runOnUiThread(() -> {
+                    if (streaming) {
+                        viewModel.cancelStreamingTranslation();
+                    }
                     stopVoiceRecording();
                     showToast(getString(R.string.speech_recognition_failed));
                 });
@@ -296,6 +424,21 @@ public class TextTranslationFragment extends Fragment {
         btnVoiceInput.setEnabled(true);
     }
 
+    /**
+     * Latency percentiles of recent voice translations, per step of the way
+     * from the microphone to the speaker.
+     */
+    private void showVoiceLatencyDialog() {
+        VoiceLatencyTracer tracer = VoiceLatencyTracer.getInstance();
+        String stats = tracer.formatStats();
+        new AlertDialog.Builder(requireContext())
+                .setTitle(R.string.voice_latency)
+                .setMessage(stats.isEmpty() ? getString(R.string.voice_latency_empty) : stats)
+                .setPositiveButton(android.R.string.ok, null)
+                .setNeutralButton(R.string.reset, (dialog, which) -> tracer.reset())
+                .show();
+    }
+
     private void speakTranslation() {
         String translatedText = tvTranslatedText.getText() != null ? tvTranslatedText.getText().toString() : "";
 
@@ -372,8 +515,9 @@ public class TextTranslationFragment extends Fragment {
 
         if (requestCode == RECORD_AUDIO_PERMISSION_CODE) {
             if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
-                startVoiceRecording();
+                startRecordingOrConversation();
             } else {
+                startConversationAfterPermission = false;
                 showToast(getString(R.string.audio_permission_required));
             }
         }
@@ -382,6 +526,12 @@ public class TextTranslationFragment extends Fragment {
     @Override
     public void onPause() {
         super.onPause();
+        if (conversation != null) {
+            stopConversation();
+        }
+        if (isListening) {
+            viewModel.cancelStreamingTranslation();
+        }
         stopVoiceRecording();
         if (speechService != null) {
             speechService.stopSpeaking();
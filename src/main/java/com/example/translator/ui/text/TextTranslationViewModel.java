@@ -11,9 +11,12 @@ import com.example.translator.data.model.UserPreferences;
 import com.example.translator.data.repository.LanguageRepository;
 import com.example.translator.data.repository.UserRepository;
 import com.example.translator.services.TranslationService;
+import com.example.translator.services.VoiceLatencyTracer;
+import com.example.translator.services.summarization.LanguageProfile;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 public class TextTranslationViewModel extends ViewModel {
 
@@ -23,6 +26,13 @@ public class TextTranslationViewModel extends ViewModel {
     private LanguageRepository languageRepository;
     private TranslationService translationService;
     private ExecutorService executor;
+    private ScheduledExecutorService streamingScheduler;
+    private StreamingVoiceTranslator streamingTranslator;
+    // Sequence of the last streaming update shown; older ones are dropped
+    private long lastStreamingSequence = 0L;
+    // Voice interaction the streaming translation belongs to
+    private volatile long streamingTrace = VoiceLatencyTracer.NO_INTERACTION;
+    private final VoiceLatencyTracer latencyTracer = VoiceLatencyTracer.getInstance();
 
     public final LiveData<List<Language>> supportedLanguages;
     public final LiveData<UserPreferences> userPreferences;
@@ -41,6 +51,8 @@ public class TextTranslationViewModel extends ViewModel {
         this.languageRepository = languageRepository;
         this.translationService = new TranslationService(context);
         this.executor = Executors.newFixedThreadPool(4);
+        this.streamingScheduler = Executors.newSingleThreadScheduledExecutor();
+        this.streamingTranslator = new StreamingVoiceTranslator(translationService, streamingScheduler);
 
         this.supportedLanguages = languageRepository.getAllSupportedLanguages();
         this.userPreferences = userRepository.getUserPreferences();
@@ -52,6 +64,14 @@ public class TextTranslationViewModel extends ViewModel {
     }
 
     public void translateText(String text, String sourceLanguage, String targetLanguage) {
+        translateText(text, sourceLanguage, targetLanguage, VoiceLatencyTracer.NO_INTERACTION);
+    }
+
+    /**
+     * Translates a recognition result; the translation is the last step of
+     * voice interaction {@code trace}.
+     */
+    public void translateText(String text, String sourceLanguage, String targetLanguage, long trace) {
         Log.d(TAG, "translateText called with: " + text.substring(0, Math.min(50, text.length())) + "...");
         Log.d(TAG, "Languages: " + sourceLanguage + " -> " + targetLanguage);
 
@@ -94,11 +114,14 @@ public class TextTranslationViewModel extends ViewModel {
                 }
 
                 Log.d(TAG, "Starting translation...");
+                latencyTracer.mark(trace, VoiceLatencyTracer.Mark.TRANSLATION_START);
                 translationService.translateText(cleanText, sourceLanguage, targetLanguage,
                         new TranslationService.TranslationCallback() {
                             @Override
                             public void onSuccess(String translatedText) {
                                 Log.d(TAG, "Translation successful");
+                                latencyTracer.mark(trace, VoiceLatencyTracer.Mark.TRANSLATION_END);
+                                latencyTracer.finish(trace);
                                 _translationResult.postValue(translatedText);
                                 _isLoading.postValue(false);
                             }
@@ -106,6 +129,7 @@ public class TextTranslationViewModel extends ViewModel {
                             @Override
                             public void onFailure(Exception exception) {
                                 Log.e(TAG, "Translation failed", exception);
+                                latencyTracer.discard(trace);
                                 String errorMsg = "Translation failed";
 
                                 if (exception instanceof TranslationService.NetworkException) {
@@ -135,6 +159,73 @@ public class TextTranslationViewModel extends ViewModel {
         });
     }
 
+    /**
+     * Starts translating speech as it is recognized. Feed recognition results
+     * through {@link #onStreamingPartialResult} and {@link #onStreamingFinalResult};
+     * updates arrive on {@link #translationResult}.
+     */
+    public void startStreamingTranslation(String sourceLanguage, String targetLanguage) {
+        _errorMessage.setValue(null);
+        streamingTrace = VoiceLatencyTracer.NO_INTERACTION;
+        String separator = LanguageProfile.forLanguage(targetLanguage).usesCharacterTokens() ? "" : " ";
+        streamingTranslator.start(sourceLanguage, targetLanguage, new StreamingVoiceTranslator.Listener() {
+            @Override
+            public void onTranslationUpdate(long sequence, String committed, String provisional, boolean isFinal) {
+                synchronized (TextTranslationViewModel.this) {
+                    if (sequence <= lastStreamingSequence) return;
+                    lastStreamingSequence = sequence;
+                }
+                String text;
+                if (committed.isEmpty()) {
+                    text = provisional;
+                } else if (provisional.isEmpty()) {
+                    text = committed;
+                } else {
+                    text = committed + separator + provisional;
+                }
+                _translationResult.postValue(text);
+                if (isFinal) {
+                    Log.d(TAG, "Streaming translation finished");
+                    latencyTracer.mark(streamingTrace, VoiceLatencyTracer.Mark.TRANSLATION_END);
+                    latencyTracer.finish(streamingTrace);
+                }
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                Log.w(TAG, "Streaming translation error", exception);
+            }
+        });
+    }
+
+    public void onStreamingPartialResult(String text, long trace) {
+        streamingTrace = trace;
+        streamingTranslator.onPartialResult(text);
+    }
+
+    /**
+     * @param trace voice interaction the result belongs to; translation is
+     *              traced from here, where the rest of the text is sent, so
+     *              the time spent talking does not count
+     */
+    public void onStreamingFinalResult(String text, long trace) {
+        streamingTrace = trace;
+        latencyTracer.mark(trace, VoiceLatencyTracer.Mark.TRANSLATION_START);
+        streamingTranslator.onFinalResult(text);
+    }
+
+    public void cancelStreamingTranslation() {
+        streamingTranslator.cancel();
+        latencyTracer.discard(streamingTrace);
+    }
+
+    /**
+     * Shared with the conversation session so both use the same warm translators.
+     */
+    TranslationService getTranslationService() {
+        return translationService;
+    }
+
     public void detectLanguage(String text) {
         if (text == null || text.trim().isEmpty()) {
             return;
@@ -193,6 +284,13 @@ public class TextTranslationViewModel extends ViewModel {
             }
         }
 
+        if (streamingTranslator != null) {
+            streamingTranslator.cancel();
+        }
+        if (streamingScheduler != null) {
+            streamingScheduler.shutdownNow();
+        }
+
         // Close translation service
         if (translationService != null) {
             translationService.closeTranslators();
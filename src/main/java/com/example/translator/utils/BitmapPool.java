@@ -0,0 +1,239 @@
+package com.example.translator.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.Log;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * Pool of mutable bitmaps bucketed by allocation size (powers of two), used
+ * as decode targets via {@code inBitmap} and as crop/rotate targets.
+ *
+ * Bitmaps handed out by {@link #acquire} belong to the caller until they are
+ * given back with {@link #release}; a released bitmap must no longer be drawn
+ * or read. The pool keeps at most {@code maxBytes} of idle bitmaps and recycles
+ * the least recently released ones beyond that.
+ */
+public class BitmapPool {
+
+    private static final String TAG = "BitmapPool";
+
+    // The first bucket holds everything up to 64 KB, each further one twice as much
+    private static final int MIN_BUCKET_SHIFT = 16;
+    private static final int BUCKET_COUNT = 16;
+
+    private static BitmapPool instance;
+
+    private final long maxBytes;
+    private final ArrayDeque<Bitmap>[] buckets;
+    // Release order across all buckets, oldest first, for eviction
+    private final LinkedHashSet<Bitmap> releaseOrder = new LinkedHashSet<>();
+    private long pooledBytes = 0L;
+
+    private long hits = 0L;
+    private long misses = 0L;
+
+    public static synchronized BitmapPool getInstance() {
+        if (instance == null) {
+            // Bounds idle bitmaps only; the preview, crop and decode targets in use
+            // come on top, so an eighth of the heap leaves room for both
+            instance = new BitmapPool(Runtime.getRuntime().maxMemory() / 8);
+        }
+        return instance;
+    }
+
+    @SuppressWarnings("unchecked")
+    public BitmapPool(long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.buckets = new ArrayDeque[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Returns a mutable bitmap of exactly the given size and config. Contents
+     * are undefined unless {@code clear} is set.
+     */
+    public Bitmap acquire(int width, int height, Bitmap.Config config, boolean clear) {
+        Bitmap bitmap = take(requiredBytes(width, height, config));
+        if (bitmap != null) {
+            try {
+                bitmap.reconfigure(width, height, config);
+                if (clear) {
+                    bitmap.eraseColor(Color.TRANSPARENT);
+                }
+                return bitmap;
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "Pooled bitmap could not be reconfigured", e);
+                bitmap.recycle();
+            }
+        }
+        return Bitmap.createBitmap(width, height, config);
+    }
+
+    /**
+     * Gives a bitmap back to the pool. Immutable or recycled bitmaps are ignored.
+     */
+    public void release(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled()) return;
+        if (!bitmap.isMutable()) {
+            // Can't be reused as a target; nothing else references it, free it now
+            bitmap.recycle();
+            return;
+        }
+
+        int size = bitmap.getAllocationByteCount();
+        int bucket = bucketFor(size);
+        if (bucket < 0 || size > maxBytes) {
+            bitmap.recycle();
+            return;
+        }
+
+        synchronized (this) {
+            if (releaseOrder.contains(bitmap)) {
+                Log.w(TAG, "Bitmap released twice");
+                return;
+            }
+            buckets[bucket].addLast(bitmap);
+            releaseOrder.add(bitmap);
+            pooledBytes += size;
+            trimToSize(maxBytes);
+        }
+    }
+
+    /**
+     * Prepares decode options so the decoder writes into a pooled bitmap.
+     * {@code outWidth}/{@code outHeight} must already be known (bounds pass)
+     * and {@code inSampleSize} set.
+     */
+    public void prepareForDecode(BitmapFactory.Options options, int decodedWidth, int decodedHeight) {
+        Bitmap.Config config = options.inPreferredConfig != null ? options.inPreferredConfig : Bitmap.Config.ARGB_8888;
+        options.inMutable = true;
+        options.inBitmap = take(requiredBytes(decodedWidth, decodedHeight, config));
+    }
+
+    /**
+     * Called when a decode with {@code inBitmap} failed, so the target is not lost.
+     */
+    public void onDecodeFailed(BitmapFactory.Options options) {
+        if (options.inBitmap != null) {
+            release(options.inBitmap);
+            options.inBitmap = null;
+        }
+    }
+
+    /**
+     * Copies {@code region} of {@code source} into a pooled bitmap.
+     */
+    public Bitmap crop(Bitmap source, Rect region) {
+        Bitmap.Config config = source.getConfig() != null ? source.getConfig() : Bitmap.Config.ARGB_8888;
+        Bitmap target = acquire(region.width(), region.height(), config, false);
+        Canvas canvas = new Canvas(target);
+        canvas.drawBitmap(source, region, new Rect(0, 0, region.width(), region.height()), null);
+        return target;
+    }
+
+    /**
+     * Rotates {@code source} into a pooled bitmap and releases the source.
+     */
+    public Bitmap rotate(Bitmap source, int rotationDegrees) {
+        if (rotationDegrees % 360 == 0) return source;
+
+        boolean swapped = rotationDegrees == 90 || rotationDegrees == 270;
+        int width = swapped ? source.getHeight() : source.getWidth();
+        int height = swapped ? source.getWidth() : source.getHeight();
+        Bitmap.Config config = source.getConfig() != null ? source.getConfig() : Bitmap.Config.ARGB_8888;
+        Bitmap target = acquire(width, height, config, false);
+
+        Matrix matrix = new Matrix();
+        matrix.postTranslate(-source.getWidth() / 2f, -source.getHeight() / 2f);
+        matrix.postRotate(rotationDegrees);
+        matrix.postTranslate(width / 2f, height / 2f);
+        new Canvas(target).drawBitmap(source, matrix, new Paint(Paint.FILTER_BITMAP_FLAG));
+
+        release(source);
+        return target;
+    }
+
+    public synchronized void clear() {
+        trimToSize(0);
+    }
+
+    /**
+     * Drops half of the idle bitmaps, e.g. from onTrimMemory.
+     */
+    public synchronized void trim() {
+        trimToSize(pooledBytes / 2);
+    }
+
+    public synchronized String getStats() {
+        return "BitmapPool{pooled=" + releaseOrder.size() + " (" + (pooledBytes / 1024) + " KB of " +
+                (maxBytes / 1024) + " KB), hits=" + hits + ", misses=" + misses + '}';
+    }
+
+    private synchronized Bitmap take(int requiredBytes) {
+        int bucket = bucketFor(requiredBytes);
+        if (bucket < 0) {
+            misses++;
+            return null;
+        }
+
+        // Same bucket first, then one size up so we don't pin huge bitmaps for small requests
+        for (int b = bucket; b < Math.min(bucket + 2, BUCKET_COUNT); b++) {
+            Iterator<Bitmap> iterator = buckets[b].iterator();
+            while (iterator.hasNext()) {
+                Bitmap candidate = iterator.next();
+                if (candidate.getAllocationByteCount() >= requiredBytes) {
+                    iterator.remove();
+                    releaseOrder.remove(candidate);
+                    pooledBytes -= candidate.getAllocationByteCount();
+                    hits++;
+                    return candidate;
+                }
+            }
+        }
+        misses++;
+        return null;
+    }
+
+    private void trimToSize(long targetBytes) {
+        Iterator<Bitmap> iterator = releaseOrder.iterator();
+        while (pooledBytes > targetBytes && iterator.hasNext()) {
+            Bitmap oldest = iterator.next();
+            iterator.remove();
+            buckets[bucketFor(oldest.getAllocationByteCount())].remove(oldest);
+            pooledBytes -= oldest.getAllocationByteCount();
+            oldest.recycle();
+        }
+    }
+
+    private static int bucketFor(int bytes) {
+        int shift = 32 - Integer.numberOfLeadingZeros(Math.max(bytes - 1, 1));
+        int bucket = Math.max(0, shift - MIN_BUCKET_SHIFT);
+        return bucket < BUCKET_COUNT ? bucket : -1;
+    }
+
+    private static int requiredBytes(int width, int height, Bitmap.Config config) {
+        int bytesPerPixel;
+        switch (config) {
+            case ALPHA_8:
+                bytesPerPixel = 1;
+                break;
+            case RGB_565:
+            case ARGB_4444:
+                bytesPerPixel = 2;
+                break;
+            default:
+                bytesPerPixel = 4;
+        }
+        return width * height * bytesPerPixel;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.example.translator.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.pdf.PdfRenderer;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Renders pages of a PDF one at a time into pooled bitmaps at OCR resolution.
+ *
+ * PdfRenderer allows only one open page, so rendering is serialized; callers
+ * may render from any thread and must release each bitmap to the pool once it
+ * is no longer needed. Blocks on I/O, call off the main thread.
+ */
+public class PdfPageRenderer implements Closeable {
+
+    private static final String TAG = "PdfPageRenderer";
+
+    private final ParcelFileDescriptor descriptor;
+    private final PdfRenderer renderer;
+    private final BitmapPool bitmapPool;
+    private boolean closed = false;
+
+    public PdfPageRenderer(Context context, Uri uri, BitmapPool bitmapPool) throws IOException {
+        this.bitmapPool = bitmapPool;
+        this.descriptor = context.getContentResolver().openFileDescriptor(uri, "r");
+        if (descriptor == null) {
+            throw new IOException("Unable to open " + uri);
+        }
+
+        try {
+            this.renderer = new PdfRenderer(descriptor);
+        } catch (IOException | SecurityException e) {
+            // Corrupt or password protected
+            descriptor.close();
+            throw new IOException("Unable to read PDF " + uri, e);
+        }
+        Log.d(TAG, "Opened " + uri + " with " + renderer.getPageCount() + " pages");
+    }
+
+    public synchronized int getPageCount() {
+        return closed ? 0 : renderer.getPageCount();
+    }
+
+    /**
+     * Renders a page with its long edge at {@code longEdge} pixels onto a
+     * white background.
+     */
+    public synchronized Bitmap renderPage(int index, int longEdge) throws IOException {
+        if (closed) {
+            throw new IOException("Renderer closed");
+        }
+
+        try (PdfRenderer.Page page = renderer.openPage(index)) {
+            float scale = (float) longEdge / Math.max(page.getWidth(), page.getHeight());
+            int width = Math.max(1, Math.round(page.getWidth() * scale));
+            int height = Math.max(1, Math.round(page.getHeight() * scale));
+
+            Bitmap bitmap = bitmapPool.acquire(width, height, Bitmap.Config.ARGB_8888, false);
+            // Unpainted areas stay transparent; OCR wants dark text on white
+            bitmap.eraseColor(Color.WHITE);
+
+            Matrix matrix = new Matrix();
+            matrix.setScale((float) width / page.getWidth(), (float) height / page.getHeight());
+            page.render(bitmap, null, matrix, PdfRenderer.Page.RENDER_MODE_FOR_DISPLAY);
+
+            Log.d(TAG, "Rendered page " + (index + 1) + " at " + width + "x" + height);
+            return bitmap;
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            throw new IOException("Unable to render page " + (index + 1), e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            renderer.close();
+            descriptor.close();
+        } catch (IOException e) {
+            Log.w(TAG, "Error closing PDF", e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,336 @@
+package com.example.translator.utils;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.ImageDecoder;
+import android.graphics.Rect;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Build;
+import android.util.Log;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes images from content URIs without ever materializing the full
+ * resolution bitmap. Previews are subsampled to the requested size and the
+ * region used for OCR is decoded on its own with {@link BitmapRegionDecoder}.
+ *
+ * Decode and rotate targets come from a {@link BitmapPool}; callers should
+ * release returned bitmaps to the same pool once they are no longer shown.
+ *
+ * All methods block on I/O and must be called off the main thread.
+ */
+public class SampledImageLoader {
+
+    private static final String TAG = "SampledImageLoader";
+
+    // Long edge used for OCR input; ML Kit gains little beyond this
+    public static final int OCR_LONG_EDGE = 2048;
+
+    /**
+     * Encoded size and EXIF rotation of an image. Oriented sizes are what the
+     * user sees, i.e. after the rotation is applied.
+     */
+    public static class ImageInfo {
+        public final int width;
+        public final int height;
+        public final int rotationDegrees;
+
+        ImageInfo(int width, int height, int rotationDegrees) {
+            this.width = width;
+            this.height = height;
+            this.rotationDegrees = rotationDegrees;
+        }
+
+        public int getOrientedWidth() {
+            return isSwapped() ? height : width;
+        }
+
+        public int getOrientedHeight() {
+            return isSwapped() ? width : height;
+        }
+
+        private boolean isSwapped() {
+            return rotationDegrees == 90 || rotationDegrees == 270;
+        }
+    }
+
+    /**
+     * A decoded preview and the image it came from. {@code info} is null when
+     * only ImageDecoder could read the image, in which case regions cannot be
+     * decoded from the URI and the preview is all there is.
+     */
+    public static class Preview {
+        public final Bitmap bitmap;
+        public final ImageInfo info;
+
+        Preview(Bitmap bitmap, ImageInfo info) {
+            this.bitmap = bitmap;
+            this.info = info;
+        }
+    }
+
+    private final ContentResolver contentResolver;
+    private final BitmapPool bitmapPool;
+
+    public SampledImageLoader(Context context) {
+        this(context, BitmapPool.getInstance());
+    }
+
+    public SampledImageLoader(Context context, BitmapPool bitmapPool) {
+        this.contentResolver = context.getApplicationContext().getContentResolver();
+        this.bitmapPool = bitmapPool;
+    }
+
+    public BitmapPool getBitmapPool() {
+        return bitmapPool;
+    }
+
+    /**
+     * Reads the image bounds and EXIF orientation without decoding pixels.
+     */
+    public ImageInfo readImageInfo(Uri uri) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream input = openStream(uri)) {
+            BitmapFactory.decodeStream(input, null, options);
+        }
+
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("Unable to read image bounds for " + uri);
+        }
+        return new ImageInfo(options.outWidth, options.outHeight, readRotation(uri));
+    }
+
+    /**
+     * Decodes a preview no smaller than the requested size (up to a factor of
+     * two), already rotated to match the EXIF orientation.
+     */
+    public Preview decodePreview(Uri uri, int requestedWidth, int requestedHeight) throws IOException {
+        int requestedLong = Math.max(requestedWidth, requestedHeight);
+        int requestedShort = Math.min(requestedWidth, requestedHeight);
+
+        ImageInfo info;
+        try {
+            info = readImageInfo(uri);
+        } catch (IOException e) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+                return new Preview(decodePreviewWithImageDecoder(uri, requestedLong, requestedShort), null);
+            }
+            throw e;
+        }
+
+        // BitmapFactory so the decode can land in a pooled bitmap via inBitmap
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = calculateSampleSize(info.width, info.height, requestedLong, requestedShort);
+        Bitmap bitmap = decodeStreamPooled(uri, options, info.width, info.height);
+
+        if (bitmap == null) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+                return new Preview(decodePreviewWithImageDecoder(uri, requestedLong, requestedShort), null);
+            }
+            throw new IOException("Unable to decode " + uri);
+        }
+
+        Log.d(TAG, "Decoded preview " + bitmap.getWidth() + "x" + bitmap.getHeight() +
+                " (sample " + options.inSampleSize + ", rotation " + info.rotationDegrees + ")");
+        return new Preview(bitmapPool.rotate(bitmap, info.rotationDegrees), info);
+    }
+
+    private Bitmap decodeStreamPooled(Uri uri, BitmapFactory.Options options, int width, int height) throws IOException {
+        int sample = options.inSampleSize;
+        bitmapPool.prepareForDecode(options, ceilDiv(width, sample), ceilDiv(height, sample));
+        try (InputStream input = openStream(uri)) {
+            Bitmap bitmap = BitmapFactory.decodeStream(input, null, options);
+            if (bitmap == null) {
+                bitmapPool.onDecodeFailed(options);
+            }
+            return bitmap;
+        } catch (IllegalArgumentException e) {
+            // inBitmap was not compatible after all, decode into a fresh bitmap
+            Log.w(TAG, "Pooled decode target rejected", e);
+            bitmapPool.onDecodeFailed(options);
+            try (InputStream input = openStream(uri)) {
+                return BitmapFactory.decodeStream(input, null, options);
+            }
+        }
+    }
+
+    private Bitmap decodePreviewWithImageDecoder(Uri uri, int requestedLong, int requestedShort) throws IOException {
+        // Formats BitmapFactory can't read; ImageDecoder applies EXIF orientation itself
+        ImageDecoder.Source source = ImageDecoder.createSource(contentResolver, uri);
+        Bitmap bitmap = ImageDecoder.decodeBitmap(source, (decoder, info, src) -> {
+            decoder.setAllocator(ImageDecoder.ALLOCATOR_SOFTWARE);
+            decoder.setMutableRequired(true);
+            decoder.setTargetSampleSize(calculateSampleSize(
+                    info.getSize().getWidth(), info.getSize().getHeight(), requestedLong, requestedShort));
+        });
+        Log.d(TAG, "Decoded preview with ImageDecoder " + bitmap.getWidth() + "x" + bitmap.getHeight());
+        return bitmap;
+    }
+
+    /**
+     * Decodes only {@code orientedRegion} (in oriented full-resolution
+     * coordinates) with its long edge reduced towards {@code maxLongEdge}.
+     * The result is rotated to match the EXIF orientation.
+     */
+    public Bitmap decodeRegion(Uri uri, ImageInfo info, Rect orientedRegion, int maxLongEdge) throws IOException {
+        Rect region = orientedToEncoded(orientedRegion, info);
+        if (!region.intersect(0, 0, info.width, info.height) || region.isEmpty()) {
+            throw new IOException("Region " + orientedRegion + " is outside the image");
+        }
+
+        Bitmap bitmap;
+        try (InputStream input = openStream(uri)) {
+            BitmapRegionDecoder decoder = newRegionDecoder(input);
+            if (decoder == null) {
+                throw new IOException("Region decoding not supported for " + uri);
+            }
+            bitmap = decodeRegionPooled(decoder, region, maxLongEdge, bitmapPool);
+        }
+        if (bitmap == null) {
+            throw new IOException("Unable to decode region of " + uri);
+        }
+        return bitmapPool.rotate(bitmap, info.rotationDegrees);
+    }
+
+    /**
+     * Decodes {@code region} of an encoded image that is already in memory,
+     * such as a JPEG from ImageCapture, into a pooled bitmap. No rotation is
+     * applied; pass the rotation on to the consumer instead.
+     */
+    public static Bitmap decodeEncodedRegion(byte[] data, int length, Rect region, int maxLongEdge,
+                                             BitmapPool bitmapPool) throws IOException {
+        BitmapRegionDecoder decoder = newRegionDecoder(data, length);
+        if (decoder == null) {
+            throw new IOException("Region decoding not supported for encoded buffer");
+        }
+
+        Rect bounded = new Rect(region);
+        if (!bounded.intersect(0, 0, decoder.getWidth(), decoder.getHeight()) || bounded.isEmpty()) {
+            decoder.recycle();
+            throw new IOException("Region " + region + " is outside the image");
+        }
+
+        Bitmap bitmap = decodeRegionPooled(decoder, bounded, maxLongEdge, bitmapPool);
+        if (bitmap == null) {
+            throw new IOException("Unable to decode region of encoded buffer");
+        }
+        return bitmap;
+    }
+
+    // Recycles the decoder
+    private static Bitmap decodeRegionPooled(BitmapRegionDecoder decoder, Rect region, int maxLongEdge,
+                                             BitmapPool bitmapPool) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = calculateSampleSize(region.width(), region.height(), maxLongEdge, 1);
+
+        int sample = options.inSampleSize;
+        bitmapPool.prepareForDecode(options, ceilDiv(region.width(), sample), ceilDiv(region.height(), sample));
+
+        Bitmap bitmap;
+        try {
+            bitmap = decoder.decodeRegion(region, options);
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Pooled decode target rejected", e);
+            bitmapPool.onDecodeFailed(options);
+            bitmap = decoder.decodeRegion(region, options);
+        } finally {
+            decoder.recycle();
+        }
+
+        if (bitmap == null) {
+            bitmapPool.onDecodeFailed(options);
+            return null;
+        }
+        Log.d(TAG, "Decoded region " + region + " -> " + bitmap.getWidth() + "x" + bitmap.getHeight() +
+                " (sample " + sample + ")");
+        return bitmap;
+    }
+
+    /**
+     * Largest power of two that keeps the image at least as large as the
+     * requested size. Long and short edges are compared separately so the
+     * result does not depend on orientation.
+     */
+    public static int calculateSampleSize(int width, int height, int requestedLong, int requestedShort) {
+        int longEdge = Math.max(width, height);
+        int shortEdge = Math.min(width, height);
+        if (requestedLong <= 0 || requestedShort <= 0) return 1;
+
+        int sampleSize = 1;
+        while (longEdge / (sampleSize * 2) >= requestedLong && shortEdge / (sampleSize * 2) >= requestedShort) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Maps a rectangle in oriented coordinates back to the encoded image.
+     */
+    public static Rect orientedToEncoded(Rect oriented, ImageInfo info) {
+        int w = info.width;
+        int h = info.height;
+        switch (info.rotationDegrees) {
+            case 90:
+                return new Rect(oriented.top, h - oriented.right, oriented.bottom, h - oriented.left);
+            case 180:
+                return new Rect(w - oriented.right, h - oriented.bottom, w - oriented.left, h - oriented.top);
+            case 270:
+                return new Rect(w - oriented.bottom, oriented.left, w - oriented.top, oriented.right);
+            default:
+                return new Rect(oriented);
+        }
+    }
+
+    private InputStream openStream(Uri uri) throws IOException {
+        InputStream input = contentResolver.openInputStream(uri);
+        if (input == null) {
+            throw new IOException("Unable to open " + uri);
+        }
+        return input;
+    }
+
+    private int readRotation(Uri uri) {
+        try (InputStream input = openStream(uri)) {
+            ExifInterface exif = new ExifInterface(input);
+            switch (exif.getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL)) {
+                case ExifInterface.ORIENTATION_ROTATE_90:
+                    return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180:
+                    return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270:
+                    return 270;
+                default:
+                    return 0;
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to read EXIF orientation", e);
+            return 0;
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static BitmapRegionDecoder newRegionDecoder(InputStream input) throws IOException {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            return BitmapRegionDecoder.newInstance(input);
+        }
+        return BitmapRegionDecoder.newInstance(input, false);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static BitmapRegionDecoder newRegionDecoder(byte[] data, int length) throws IOException {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            return BitmapRegionDecoder.newInstance(data, 0, length);
+        }
+        return BitmapRegionDecoder.newInstance(data, 0, length, false);
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,312 @@
+package com.example.translator.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits text into sentences and reports them as offset spans into the
+ * original text, so callers (summaries, speech, translation) can work on
+ * ranges without copying.
+ *
+ * A period ends a sentence unless it belongs to a known abbreviation or an
+ * initial, sits inside a number or domain, or is followed by a lowercase
+ * word. "!" and "?", their full-width forms, 。, the Devanagari danda and
+ * the Arabic question mark end one unless a lowercase word follows, as in
+ * a quote that carries on ("Stop!" she said). Closing quotes and brackets
+ * after a terminator stay with its sentence. Line breaks end sentences too.
+ * Thai has no sentence punctuation, so a space between Thai characters ends
+ * a sentence.
+ *
+ * Instances are immutable and cached per language.
+ */
+public class SentenceSegmenter {
+
+    private static final Map<String, String[]> ABBREVIATIONS = new HashMap<>();
+    private static final Map<String, SentenceSegmenter> CACHE = new HashMap<>();
+
+    static {
+        ABBREVIATIONS.put("en", new String[]{
+                "mr", "mrs", "ms", "dr", "prof", "sr", "jr", "st", "mt", "vs", "etc", "inc", "ltd",
+                "co", "corp", "dept", "est", "approx", "fig", "no", "vol", "p", "pp", "e.g", "i.e",
+                "a.m", "p.m", "u.s", "u.k", "jan", "feb", "mar", "apr", "jun", "jul", "aug", "sep",
+                "sept", "oct", "nov", "dec", "mon", "tue", "wed", "thu", "fri", "sat", "sun"
+        });
+        ABBREVIATIONS.put("de", new String[]{
+                "z.b", "d.h", "u.a", "usw", "bzw", "ca", "nr", "str", "dr", "prof", "hr", "fr",
+                "vgl", "s", "evtl", "ggf", "inkl", "zzgl", "jan", "feb", "okt", "dez"
+        });
+        ABBREVIATIONS.put("fr", new String[]{
+                "m", "mm", "mme", "mlle", "dr", "pr", "etc", "cf", "p", "av", "bd", "env", "n°", "no"
+        });
+        ABBREVIATIONS.put("es", new String[]{
+                "sr", "sra", "srta", "dr", "dra", "ud", "uds", "etc", "p.ej", "pág", "núm", "av", "no"
+        });
+        ABBREVIATIONS.put("it", new String[]{
+                "sig", "sigg", "dott", "prof", "ing", "avv", "ecc", "pag", "n", "es"
+        });
+        ABBREVIATIONS.put("pt", new String[]{
+                "sr", "sra", "dr", "dra", "prof", "etc", "pág", "n", "av"
+        });
+        ABBREVIATIONS.put("ru", new String[]{
+                "г", "гг", "т.е", "т.д", "т.п", "др", "им", "ул", "стр", "см", "тыс", "млн", "млрд"
+        });
+    }
+
+    /**
+     * Sentence boundaries as parallel start/end offsets, whitespace trimmed.
+     */
+    public static class Spans {
+        private final CharSequence text;
+        private int count;
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+
+        Spans(CharSequence text) {
+            this.text = text;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        public int start(int index) {
+            return starts[index];
+        }
+
+        public int end(int index) {
+            return ends[index];
+        }
+
+        public int length(int index) {
+            return ends[index] - starts[index];
+        }
+
+        /**
+         * Copies one sentence out of the text; prefer the offsets where possible.
+         */
+        public String get(int index) {
+            return text.subSequence(starts[index], ends[index]).toString();
+        }
+
+        public List<String> toList() {
+            List<String> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) result.add(get(i));
+            return result;
+        }
+
+        void add(int start, int end) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            starts[count] = start;
+            ends[count] = end;
+            count++;
+        }
+    }
+
+    private final String languageCode;
+    private final Set<String> abbreviations;
+    private final boolean spaceEndsThaiSentence;
+    private final int longestAbbreviation;
+
+    private SentenceSegmenter(String languageCode) {
+        this.languageCode = languageCode;
+        String[] words = ABBREVIATIONS.get(languageCode);
+        this.abbreviations = words != null ? new HashSet<>(Arrays.asList(words)) : new HashSet<>();
+        // English abbreviations are common in any Latin-script text (e.g., etc.)
+        if (!"en".equals(languageCode)) {
+            abbreviations.addAll(Arrays.asList("e.g", "i.e", "etc", "vs"));
+        }
+        int longest = 0;
+        for (String abbreviation : abbreviations) longest = Math.max(longest, abbreviation.length());
+        this.longestAbbreviation = longest;
+        this.spaceEndsThaiSentence = "th".equals(languageCode);
+    }
+
+    public static SentenceSegmenter forLanguage(String languageCode) {
+        String code = languageCode == null || languageCode.isEmpty()
+                ? "en" : languageCode.toLowerCase(Locale.ROOT);
+        int dash = code.indexOf('-');
+        if (dash > 0) code = code.substring(0, dash);
+
+        synchronized (CACHE) {
+            SentenceSegmenter segmenter = CACHE.get(code);
+            if (segmenter == null) {
+                segmenter = new SentenceSegmenter(code);
+                CACHE.put(code, segmenter);
+            }
+            return segmenter;
+        }
+    }
+
+    public String getLanguageCode() {
+        return languageCode;
+    }
+
+    public Spans segment(CharSequence text) {
+        return segment(text, 0, text.length());
+    }
+
+    /**
+     * Sentences of {@code text[from, to)}, offsets relative to {@code text}.
+     */
+    public Spans segment(CharSequence text, int from, int to) {
+        Spans spans = new Spans(text);
+        int start = from;
+        int i = from;
+        while (i < to) {
+            char c = text.charAt(i);
+            int end = -1;
+
+            if (c == '\n' || c == '\r' || c == '\u2029') {
+                end = i;
+            } else if (isHardTerminator(c)) {
+                int after = skipClosers(text, skipTerminators(text, i + 1, to), to);
+                if (!continuesInLowercase(text, after, to)) {
+                    end = after;
+                }
+            } else if (c == '.' || c == '\u2026') {
+                int after = skipClosers(text, skipTerminators(text, i + 1, to), to);
+                if (isPeriodBoundary(text, start, i, after, to)) {
+                    end = after;
+                }
+            } else if (spaceEndsThaiSentence && Character.isWhitespace(c)
+                    && i > from && isThai(text.charAt(i - 1)) && i + 1 < to && isThai(text.charAt(i + 1))) {
+                end = i;
+            }
+
+            if (end >= 0) {
+                addTrimmed(spans, text, start, end);
+                start = end;
+                i = Math.max(end, i + 1);
+            } else {
+                i++;
+            }
+        }
+        addTrimmed(spans, text, start, to);
+        return spans;
+    }
+
+    /**
+     * Convenience for callers that need strings; copies each sentence.
+     */
+    public List<String> split(CharSequence text) {
+        return segment(text).toList();
+    }
+
+    private boolean isPeriodBoundary(CharSequence text, int sentenceStart, int period, int after, int to) {
+        // End of input, or a terminator run like "?." already consumed
+        if (after >= to) return true;
+
+        char next = text.charAt(after);
+        // 3.14, example.com, e.g.: no space after the period
+        if (Character.isLetterOrDigit(next) && after == period + 1) return false;
+
+        // Continuation in lowercase: "approx. three", "... and then"
+        if (continuesInLowercase(text, after, to)) return false;
+
+        // Word before the period: abbreviation or initial
+        int wordEnd = period;
+        int wordStart = wordEnd;
+        while (wordStart > sentenceStart && isAbbreviationChar(text.charAt(wordStart - 1))) wordStart--;
+        int wordLength = wordEnd - wordStart;
+        if (wordLength == 0) return true;
+        if (wordLength == 1 && Character.isUpperCase(text.charAt(wordStart))) {
+            // Initial, as in "J. Smith"
+            return false;
+        }
+        return wordLength > longestAbbreviation || !isAbbreviation(text, wordStart, wordEnd);
+    }
+
+    /**
+     * True when the next word on the same line starts with a lowercase letter.
+     */
+    private static boolean continuesInLowercase(CharSequence text, int after, int to) {
+        int nextWord = after;
+        while (nextWord < to && (text.charAt(nextWord) == ' ' || text.charAt(nextWord) == '\t')) nextWord++;
+        return nextWord < to && Character.isLowerCase(text.charAt(nextWord));
+    }
+
+    private boolean isAbbreviation(CharSequence text, int start, int end) {
+        StringBuilder word = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) word.append(Character.toLowerCase(text.charAt(i)));
+        return abbreviations.contains(word.toString());
+    }
+
+    private static boolean isAbbreviationChar(char c) {
+        // Periods inside, as in "e.g" or "U.S"
+        return Character.isLetter(c) || c == '.' || c == '\u00B0';
+    }
+
+    private static boolean isHardTerminator(char c) {
+        switch (c) {
+            case '!':
+            case '?':
+            case '\u203C': // ‼
+            case '\u3002': // 。
+            case '\uFF01': // ！
+            case '\uFF1F': // ？
+            case '\uFF0E': // ．
+            case '\uFF61': // ｡
+            case '\u0964': // ।
+            case '\u0965': // ॥
+            case '\u061F': // ؟
+            case '\u06D4': // ۔
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static int skipTerminators(CharSequence text, int i, int to) {
+        while (i < to) {
+            char c = text.charAt(i);
+            if (c != '.' && c != '\u2026' && !isHardTerminator(c)) break;
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipClosers(CharSequence text, int i, int to) {
+        while (i < to && isCloser(text.charAt(i))) i++;
+        return i;
+    }
+
+    private static boolean isCloser(char c) {
+        switch (c) {
+            case '"':
+            case '\'':
+            case ')':
+            case ']':
+            case '}':
+            case '\u2019': // ’
+            case '\u201D': // ”
+            case '\u00BB': // »
+            case '\u300D': // 」
+            case '\u300F': // 』
+            case '\u300B': // 》
+            case '\u3011': // 】
+            case '\uFF09': // ）
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isThai(char c) {
+        return c >= '\u0E00' && c <= '\u0E7F';
+    }
+
+    private static void addTrimmed(Spans spans, CharSequence text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) end--;
+        if (start < end) spans.add(start, end);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.example.translator.services;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Levels fed every 50 ms with the default margin (3 dB), hangover (700 ms)
+ * and minimum speech (250 ms).
+ */
+public class RmsEndpointerTest {
+
+    private static final float QUIET = 0f;
+    private static final float VOICE = 10f;
+
+    private final RmsEndpointer endpointer = new RmsEndpointer();
+
+    @Test
+    public void noiseFloorDropsAtOnceAndRisesSlowly() {
+        endpointer.onRms(5f, 0L);
+        assertEquals(5f, endpointer.getNoiseFloor(), 0.001f);
+
+        endpointer.onRms(2f, 50L);
+        assertEquals(2f, endpointer.getNoiseFloor(), 0.001f);
+
+        // 4 dB is within the margin, so it is noise and pulls the floor up a little
+        endpointer.onRms(4f, 100L);
+        assertEquals(2.1f, endpointer.getNoiseFloor(), 0.001f);
+        for (long t = 150L; t < 5_000L; t += 50L) {
+            endpointer.onRms(4f, t);
+        }
+        assertEquals(4f, endpointer.getNoiseFloor(), 0.05f);
+
+        // Louder levels are voice and leave the floor alone
+        endpointer.onRms(VOICE, 5_000L);
+        assertEquals(4f, endpointer.getNoiseFloor(), 0.05f);
+        assertFalse(endpointer.hasEnded());
+    }
+
+    @Test
+    public void endsOnceWhenTheHangoverPasses() {
+        feed(QUIET, 0L, 100L);
+        feed(VOICE, 100L, 550L);
+        assertFalse(endpointer.hasEnded());
+
+        // Last voice at 500 ms
+        assertFalse(endpointer.onRms(QUIET, 550L));
+        assertFalse(endpointer.onRms(QUIET, 1_199L));
+        assertTrue(endpointer.onRms(QUIET, 1_200L));
+        assertTrue(endpointer.hasEnded());
+
+        assertFalse(endpointer.onRms(QUIET, 1_250L));
+        assertFalse(endpointer.onRms(VOICE, 1_300L));
+        assertTrue(endpointer.hasEnded());
+    }
+
+    @Test
+    public void blipFollowedBySilenceIsForgotten() {
+        feed(QUIET, 0L, 100L);
+        endpointer.onRms(VOICE, 100L);
+        feed(QUIET, 150L, 900L);
+
+        // Counted from the blip this would be 300 ms of speech; on its own it is 100 ms
+        feed(VOICE, 900L, 1_000L);
+        feed(QUIET, 1_000L, 3_000L);
+        assertFalse(endpointer.hasEnded());
+    }
+
+    @Test
+    public void shortVoiceEndsOnceTheRecognizerHeardSpeech() {
+        feed(QUIET, 0L, 100L);
+        feed(VOICE, 100L, 200L);
+        endpointer.onSpeechBegin();
+
+        feed(QUIET, 200L, 850L);
+        assertFalse(endpointer.hasEnded());
+        assertTrue(endpointer.onRms(QUIET, 850L));
+    }
+
+    @Test
+    public void speechBeginWithoutVoiceNeverEnds() {
+        endpointer.onSpeechBegin();
+        feed(QUIET, 0L, 5_000L);
+        assertFalse(endpointer.hasEnded());
+    }
+
+    @Test
+    public void resetStartsOver() {
+        feed(QUIET, 0L, 100L);
+        feed(VOICE, 100L, 550L);
+        feed(QUIET, 550L, 1_250L);
+        assertTrue(endpointer.hasEnded());
+
+        endpointer.reset();
+        assertFalse(endpointer.hasEnded());
+        endpointer.onRms(8f, 2_000L);
+        assertEquals(8f, endpointer.getNoiseFloor(), 0.001f);
+    }
+
+    // Every 50 ms in [from, to)
+    private void feed(float rmsdB, long from, long to) {
+        for (long t = from; t < to; t += 50L) {
+            endpointer.onRms(rmsdB, t);
+        }
+    }
+}
\ No newline at end of file
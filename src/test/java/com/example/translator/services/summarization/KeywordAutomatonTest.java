@@ -0,0 +1,73 @@
+package com.example.translator.services.summarization;
+
+import com.example.translator.testing.TextFixtures;
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the automaton against the old lowercase-and-contains scoring.
+ */
+public class KeywordAutomatonTest {
+
+    private final KeywordAutomaton automaton = new KeywordAutomaton(TextFixtures.CUE_WORDS);
+
+    @Test
+    public void countsDistinctKeywordsCaseInsensitively() {
+        assertEquals(0, automaton.countDistinct("Nothing to see here."));
+        assertEquals(1, automaton.countDistinct("This is IMPORTANT."));
+        assertEquals(1, automaton.countDistinct("Important, important, important."));
+        assertEquals(3, automaton.countDistinct("First, the Key Result."));
+    }
+
+    @Test
+    public void matchesSubstringsLikeContains() {
+        // "keys" contains "key", "mainly" contains "main", "resulting" contains "result"
+        assertEquals(3, automaton.countDistinct("Keys were mainly resulting from this."));
+        // Overlapping keywords found through failure links
+        assertEquals(2, new KeywordAutomaton("she", "he").countDistinct("ushers"));
+        assertEquals(2, new KeywordAutomaton("abcd", "bc").countDistinct("xabcdx"));
+    }
+
+    @Test
+    public void scansRangeInPlace() {
+        String text = "Key point here. Nothing else.";
+        assertEquals(1, automaton.countDistinct(text, 0, 15));
+        assertEquals(0, automaton.countDistinct(text, 15, text.length()));
+        assertEquals(0, automaton.countDistinct(text, 1, 15));
+    }
+
+    @Test
+    public void handlesNonAsciiKeywords() {
+        KeywordAutomaton accented = new KeywordAutomaton("résumé", "Über");
+        assertEquals(2, accented.countDistinct("Das RÉSUMÉ war über alles"));
+        assertEquals(0, accented.countDistinct("resume uber"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyKeyword() {
+        new KeywordAutomaton("key", "");
+    }
+
+    @Test
+    public void agreesWithContainsOnRandomText() {
+        String text = TextFixtures.generateText(new Random(7), 20_000,
+                TextFixtures.reportWords(TextFixtures.CUE_WORDS));
+        for (String sentence : TextFixtures.sentences(text, 1)) {
+            assertEquals(sentence, naiveCount(sentence), automaton.countDistinct(sentence));
+        }
+    }
+
+    // The scoring this replaces
+    private static int naiveCount(String sentence) {
+        String lower = sentence.toLowerCase(Locale.ROOT);
+        int count = 0;
+        for (String keyword : TextFixtures.CUE_WORDS) {
+            if (lower.contains(keyword)) count++;
+        }
+        return count;
+    }
+}
\ No newline at end of file
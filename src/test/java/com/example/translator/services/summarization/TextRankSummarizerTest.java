@@ -0,0 +1,117 @@
+package com.example.translator.services.summarization;
+
+import com.example.translator.testing.TextFixtures;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Ranking behaviour and the sparse similarity graph.
+ */
+public class TextRankSummarizerTest {
+
+    private final TextRankSummarizer summarizer = new TextRankSummarizer();
+
+    @Test
+    public void prefersSentencesSharingTheMainTopic() {
+        List<String> sentences = Arrays.asList(
+                "The battery lasts two days on a single charge",
+                "Weather was pleasant during the product launch event",
+                "Battery charging reaches full charge within an hour",
+                "Fast charging keeps the battery cool while charging",
+                "Several journalists arrived late to the venue"
+        );
+
+        List<String> summary = summarizer.summarize(sentences, 2);
+
+        assertEquals(2, summary.size());
+        for (String sentence : summary) {
+            assertTrue(sentence, sentence.toLowerCase(Locale.ROOT).contains("battery"));
+        }
+    }
+
+    @Test
+    public void keepsOriginalOrder() {
+        List<String> sentences = Arrays.asList(
+                "Alpha beta gamma delta",
+                "Unrelated words appear here",
+                "Gamma delta alpha beta epsilon",
+                "Beta gamma alpha delta"
+        );
+
+        List<String> summary = summarizer.summarize(sentences, 2);
+
+        assertEquals(2, summary.size());
+        assertTrue(sentences.indexOf(summary.get(0)) < sentences.indexOf(summary.get(1)));
+    }
+
+    @Test
+    public void returnsEverythingWhenShortEnough() {
+        List<String> sentences = Arrays.asList("One sentence only", "And another one");
+        assertEquals(sentences, summarizer.summarize(sentences, 3));
+    }
+
+    @Test
+    public void tokenVectorsAreCaseInsensitiveAndDistinct() {
+        int[][] vectors = TextRankSummarizer.tokenize(Arrays.asList("Camera camera CAMERA lens", "a an of"));
+        assertEquals(2, vectors[0].length);
+        // Tokens shorter than three characters are ignored
+        assertEquals(0, vectors[1].length);
+    }
+
+    @Test
+    public void graphIsSymmetric() {
+        TextRankSummarizer.Graph graph = TextRankSummarizer.buildGraph(
+                TextRankSummarizer.tokenize(generatedSentences(new Random(3), 5_000)));
+
+        for (int i = 0; i < graph.size; i++) {
+            for (int e = graph.rowStart[i]; e < graph.rowStart[i + 1]; e++) {
+                assertEquals(graph.weights[e], weightOf(graph, graph.columns[e], i), 0f);
+            }
+        }
+    }
+
+    @Test
+    public void iterationCapIsRespected() {
+        List<String> sentences = generatedSentences(new Random(5), 5_000);
+
+        TextRankSummarizer.Ranking capped = new TextRankSummarizer(2, 0).rank(sentences);
+        assertEquals(2, capped.iterations);
+        assertFalse(capped.converged);
+
+        TextRankSummarizer.Ranking full = summarizer.rank(sentences);
+        assertTrue(full.converged);
+        assertTrue(full.iterations <= TextRankSummarizer.DEFAULT_MAX_ITERATIONS);
+    }
+
+    @Test
+    public void summarizesGeneratedTextInOrder() {
+        List<String> sentences = generatedSentences(new Random(42), 50_000);
+
+        List<String> summary = summarizer.summarize(sentences, 5);
+
+        assertEquals(5, summary.size());
+        int previous = -1;
+        for (String sentence : summary) {
+            int index = sentences.indexOf(sentence);
+            assertTrue(index > previous);
+            previous = index;
+        }
+    }
+
+    private static float weightOf(TextRankSummarizer.Graph graph, int row, int column) {
+        for (int e = graph.rowStart[row]; e < graph.rowStart[row + 1]; e++) {
+            if (graph.columns[e] == column) return graph.weights[e];
+        }
+        return -1f;
+    }
+
+    private static List<String> generatedSentences(Random random, int length) {
+        return TextFixtures.sentences(TextFixtures.generateText(random, length, TextFixtures.reviewWords()), 11);
+    }
+}
\ No newline at end of file
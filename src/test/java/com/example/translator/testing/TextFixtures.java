@@ -0,0 +1,108 @@
+package com.example.translator.testing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Generated text for tests that need more input than fits in a literal.
+ */
+public final class TextFixtures {
+
+    /**
+     * The cue words TextSummarizationService scores sentences by.
+     */
+    public static final String[] CUE_WORDS = {
+            "important", "significant", "key", "main", "primary", "essential",
+            "critical", "major", "fundamental", "crucial", "vital", "notable",
+            "first", "second", "third", "finally", "conclusion", "result",
+            "because", "therefore", "however", "although", "moreover"
+    };
+
+    private static final String[] REPORT_FILLER = {
+            "the", "report", "shows", "that", "growth", "was", "steady", "across", "regions",
+            "while", "costs", "rose", "slightly", "during", "winter", "and", "teams", "expect",
+            "demand", "to", "recover", "next", "quarter", "after", "new", "products", "launch"
+    };
+
+    private static final String[] REVIEW_VOCABULARY = {
+            "battery", "charging", "screen", "camera", "network", "signal", "storage", "memory",
+            "update", "software", "display", "sensor", "speaker", "keyboard", "processor", "cooling",
+            "performance", "design", "weight", "price", "warranty", "support", "market", "launch",
+            "review", "quality", "lens", "audio", "wireless", "antenna", "firmware", "security"
+    };
+
+    private TextFixtures() {
+    }
+
+    /**
+     * At least {@code length} characters of words from {@code nextWord}.
+     * Sentences start with a capital letter, run for nine words or more and
+     * end with ". ", or now and then "? ".
+     */
+    public static String generateText(Random random, int length, Function<Random, String> nextWord) {
+        StringBuilder text = new StringBuilder(length + 64);
+        int wordsInSentence = 0;
+        while (text.length() < length) {
+            String word = nextWord.apply(random);
+            if (wordsInSentence == 0 && !word.isEmpty()) {
+                word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+            }
+            text.append(word);
+            wordsInSentence++;
+            if (wordsInSentence > 8 && random.nextInt(6) == 0) {
+                text.append(random.nextInt(10) == 0 ? "? " : ". ");
+                wordsInSentence = 0;
+            } else {
+                text.append(' ');
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Word source drawing uniformly from {@code words}.
+     */
+    public static Function<Random, String> wordsFrom(String... words) {
+        return random -> words[random.nextInt(words.length)];
+    }
+
+    /**
+     * Words of a product review, Zipf-like so some words are common and most
+     * are rare, as in real text.
+     */
+    public static Function<Random, String> reviewWords() {
+        return random -> {
+            if (random.nextInt(3) != 0) return "w" + Integer.toString(random.nextInt(2_000), 36);
+            return REVIEW_VOCABULARY[(int) (REVIEW_VOCABULARY.length * Math.pow(random.nextDouble(), 2))];
+        };
+    }
+
+    /**
+     * Words of a business report with one of {@code keywords} in about one
+     * word of eight, now and then in capitals.
+     */
+    public static Function<Random, String> reportWords(String... keywords) {
+        return random -> {
+            if (random.nextInt(8) != 0) return REPORT_FILLER[random.nextInt(REPORT_FILLER.length)];
+            String keyword = keywords[random.nextInt(keywords.length)];
+            return random.nextInt(10) == 0 ? keyword.toUpperCase(Locale.ROOT) : keyword;
+        };
+    }
+
+    /**
+     * Splits at terminators the way the summarizers did before the sentence
+     * segmenter, keeping trimmed sentences of at least {@code minLength}
+     * characters.
+     */
+    public static List<String> sentences(String text, int minLength) {
+        List<String> result = new ArrayList<>();
+        for (String sentence : text.split("[.!?]+")) {
+            String trimmed = sentence.trim();
+            if (!trimmed.isEmpty() && trimmed.length() >= minLength) result.add(trimmed);
+        }
+        return result;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,250 @@
+package com.example.translator.ui.text;
+
+import com.example.translator.services.TranslationService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Drives the translator with hand-written recognition results. Translations
+ * are the upper-cased source and come back either at once or when the test
+ * releases them; the debounced tail runs when the test runs the scheduler.
+ */
+public class StreamingVoiceTranslatorTest {
+
+    private static class Update {
+        final long sequence;
+        final String committed;
+        final String provisional;
+        final boolean isFinal;
+
+        Update(long sequence, String committed, String provisional, boolean isFinal) {
+            this.sequence = sequence;
+            this.committed = committed;
+            this.provisional = provisional;
+            this.isFinal = isFinal;
+        }
+    }
+
+    private FakeTranslationService translationService;
+    private FakeScheduler scheduler;
+    private StreamingVoiceTranslator translator;
+    private final List<Update> updates = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        translationService = new FakeTranslationService();
+        scheduler = new FakeScheduler();
+        translator = new StreamingVoiceTranslator(translationService, scheduler);
+        translator.start("en", "fr", new StreamingVoiceTranslator.Listener() {
+            @Override
+            public void onTranslationUpdate(long sequence, String committed, String provisional, boolean isFinal) {
+                updates.add(new Update(sequence, committed, provisional, isFinal));
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                fail(exception.toString());
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void stableSentencesAreTranslatedOnce() {
+        translator.onPartialResult("Hello there. How");
+        translator.onPartialResult("Hello there. How are");
+        translator.onPartialResult("Hello there. How are you");
+        scheduler.runPending();
+
+        assertEquals(1, translationService.countRequests("Hello there."));
+        assertEquals("HELLO THERE.", last().committed);
+        assertEquals("HOW ARE YOU", last().provisional);
+        assertFalse(last().isFinal);
+    }
+
+    @Test
+    public void revisedCommittedWordsAreTranslatedAgain() {
+        translator.onPartialResult("Hello there. How");
+        translator.onPartialResult("Hello there. How are");
+        translator.onPartialResult("Hello there. How are you");
+        assertEquals("HELLO THERE.", last().committed);
+
+        translator.onPartialResult("Hello their. How are you doing");
+        translator.onFinalResult("Hello their. How are you doing.");
+
+        assertEquals(1, translationService.countRequests("Hello their."));
+        assertEquals("HELLO THEIR. HOW ARE YOU DOING.", last().committed);
+        assertEquals("", last().provisional);
+        assertTrue(last().isFinal);
+        assertIncreasingSequences();
+    }
+
+    @Test
+    public void staleTailIsDroppedOnceTheCommitPointMoves() {
+        translationService.synchronous = false;
+        translator.onPartialResult("We left early");
+        scheduler.runPending();
+        assertEquals(1, translationService.countRequests("We left early"));
+
+        translator.onPartialResult("We left early. Then");
+        translator.onPartialResult("We left early. Then we");
+        translator.onPartialResult("We left early. Then we went");
+        assertEquals(1, translationService.countRequests("We left early."));
+
+        // Made against the old commit point, it overlaps the committed sentence
+        int updateCount = updates.size();
+        translationService.respond("We left early");
+        assertEquals(updateCount, updates.size());
+        for (Update update : updates) {
+            assertEquals("", update.provisional);
+        }
+
+        translationService.respond("We left early.");
+        assertEquals("WE LEFT EARLY.", last().committed);
+        assertEquals("", last().provisional);
+
+        scheduler.runPending();
+        translationService.respond("Then we went");
+        assertEquals("WE LEFT EARLY.", last().committed);
+        assertEquals("THEN WE WENT", last().provisional);
+        assertIncreasingSequences();
+    }
+
+    @Test
+    public void finalResultWaitsForPendingSegments() {
+        translationService.synchronous = false;
+        translator.onPartialResult("Good morning. How");
+        translator.onPartialResult("Good morning. How are");
+        translator.onPartialResult("Good morning. How are you");
+        translator.onFinalResult("Good morning. How are you?");
+        assertEquals("", last().committed);
+        assertFalse(last().isFinal);
+
+        // The later segment alone cannot be shown ahead of the first
+        translationService.respond("How are you?");
+        assertEquals("", last().committed);
+        assertFalse(last().isFinal);
+
+        translationService.respond("Good morning.");
+        assertEquals("GOOD MORNING. HOW ARE YOU?", last().committed);
+        assertTrue(last().isFinal);
+
+        // The debounced tail was cancelled by the final result
+        int requests = translationService.requests.size();
+        int updateCount = updates.size();
+        scheduler.runPending();
+        assertEquals(requests, translationService.requests.size());
+        assertEquals(updateCount, updates.size());
+    }
+
+    private Update last() {
+        assertFalse(updates.isEmpty());
+        return updates.get(updates.size() - 1);
+    }
+
+    private void assertIncreasingSequences() {
+        for (int i = 1; i < updates.size(); i++) {
+            assertTrue(updates.get(i).sequence > updates.get(i - 1).sequence);
+        }
+    }
+
+    /**
+     * Upper-cases the text, at once or when {@link #respond} is called.
+     */
+    private static class FakeTranslationService extends TranslationService {
+        final List<String> requests = new ArrayList<>();
+        final List<String> pendingText = new ArrayList<>();
+        final List<TranslationCallback> pendingCallbacks = new ArrayList<>();
+        boolean synchronous = true;
+
+        FakeTranslationService() {
+            super(null);
+        }
+
+        @Override
+        public void translateText(String text, String sourceLanguage, String targetLanguage,
+                                  TranslationCallback callback) {
+            requests.add(text);
+            if (synchronous) {
+                callback.onSuccess(text.toUpperCase(Locale.ROOT));
+            } else {
+                pendingText.add(text);
+                pendingCallbacks.add(callback);
+            }
+        }
+
+        void respond(String text) {
+            int index = pendingText.indexOf(text);
+            assertTrue("No pending request for " + text, index >= 0);
+            pendingText.remove(index);
+            pendingCallbacks.remove(index).onSuccess(text.toUpperCase(Locale.ROOT));
+        }
+
+        int countRequests(String text) {
+            int count = 0;
+            for (String request : requests) {
+                if (request.equals(text)) count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Holds scheduled tasks until {@link #runPending}, ignoring the delay.
+     */
+    private static class FakeScheduler extends ScheduledThreadPoolExecutor {
+        private final List<FakeFuture> scheduled = new ArrayList<>();
+
+        FakeScheduler() {
+            super(1);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            FakeFuture future = new FakeFuture(command);
+            scheduled.add(future);
+            return future;
+        }
+
+        void runPending() {
+            List<FakeFuture> due = new ArrayList<>(scheduled);
+            scheduled.clear();
+            for (FakeFuture future : due) {
+                // Does nothing once cancelled
+                future.run();
+            }
+        }
+    }
+
+    private static class FakeFuture extends FutureTask<Object> implements ScheduledFuture<Object> {
+        FakeFuture(Runnable command) {
+            super(command, null);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return 0L;
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,182 @@
+package com.example.translator.utils;
+
+import com.example.translator.testing.TextFixtures;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Segmentation rules checked against a hand-labelled corpus in
+ * {@code sentence_corpus.txt}, plus generated text checked against the regex
+ * split the summarizers used before.
+ */
+public class SentenceSegmenterTest {
+
+    @Test
+    public void corpusIsSegmentedAsLabelled() throws IOException {
+        List<String[]> documents = loadCorpus();
+        assertFalse(documents.isEmpty());
+
+        for (String[] document : documents) {
+            String language = document[0];
+            List<String> expected = Arrays.asList(document).subList(1, document.length);
+            String joiner = "zh".equals(language) || "ja".equals(language) ? "" : " ";
+            String text = String.join(joiner, expected);
+
+            SentenceSegmenter.Spans spans = SentenceSegmenter.forLanguage(language).segment(text);
+            assertEquals(language + ": " + text, expected, spans.toList());
+        }
+    }
+
+    @Test
+    public void spansPointIntoTheOriginalText() {
+        String text = "  First one.   Second one!\n\nThird one?  ";
+        SentenceSegmenter.Spans spans = SentenceSegmenter.forLanguage("en").segment(text);
+
+        assertEquals(3, spans.size());
+        assertEquals(2, spans.start(0));
+        assertEquals("First one.", text.substring(spans.start(0), spans.end(0)));
+        assertEquals("Second one!", text.substring(spans.start(1), spans.end(1)));
+        assertEquals("Third one?", text.substring(spans.start(2), spans.end(2)));
+        assertEquals(10, spans.length(2));
+    }
+
+    @Test
+    public void segmentsOnlyTheRequestedRange() {
+        String text = "Skip this. Keep this. And this. Skip again.";
+        int from = text.indexOf("Keep");
+        int to = text.indexOf("Skip again");
+        SentenceSegmenter.Spans spans = SentenceSegmenter.forLanguage("en").segment(text, from, to);
+
+        assertEquals(Arrays.asList("Keep this.", "And this."), spans.toList());
+        assertEquals(from, spans.start(0));
+    }
+
+    @Test
+    public void abbreviationsDoNotEndSentences() {
+        assertEquals(Arrays.asList("Prof. Lee and Mrs. Park met at 9 a.m. today.", "It went well."),
+                SentenceSegmenter.forLanguage("en").split("Prof. Lee and Mrs. Park met at 9 a.m. today. It went well."));
+    }
+
+    @Test
+    public void unknownWordBeforePeriodEndsSentence() {
+        assertEquals(Arrays.asList("We sold the car.", "Then we left."),
+                SentenceSegmenter.forLanguage("en").split("We sold the car. Then we left."));
+    }
+
+    @Test
+    public void decimalsAndDomainsStayTogether() {
+        assertEquals(Arrays.asList("Pi is 3.14159 and the site is docs.example.org today."),
+                SentenceSegmenter.forLanguage("en").split("Pi is 3.14159 and the site is docs.example.org today."));
+    }
+
+    @Test
+    public void initialsDoNotEndSentences() {
+        assertEquals(Arrays.asList("The book by J. K. Rowling sold well."),
+                SentenceSegmenter.forLanguage("en").split("The book by J. K. Rowling sold well."));
+    }
+
+    @Test
+    public void terminatorRunsAndClosersStayWithSentence() {
+        assertEquals(Arrays.asList("Really?!", "(Yes.)", "\u201CFine.\u201D", "Done."),
+                SentenceSegmenter.forLanguage("en").split("Really?! (Yes.) \u201CFine.\u201D Done."));
+    }
+
+    @Test
+    public void lineBreaksEndSentences() {
+        assertEquals(Arrays.asList("Title without period", "Body text here."),
+                SentenceSegmenter.forLanguage("en").split("Title without period\r\nBody text here."));
+    }
+
+    @Test
+    public void chineseSplitsOnFullWidthMarks() {
+        // 你好。今天很好！真的吗？
+        String text = "\u4F60\u597D\u3002\u4ECA\u5929\u5F88\u597D\uFF01\u771F\u7684\u5417\uFF1F";
+        assertEquals(3, SentenceSegmenter.forLanguage("zh").segment(text).size());
+    }
+
+    @Test
+    public void thaiSplitsOnSpacesBetweenThaiText() {
+        // สวัสดี ครับ, then a space before Latin text that must not split
+        String text = "\u0E2A\u0E27\u0E31\u0E2A\u0E14\u0E35 \u0E04\u0E23\u0E31\u0E1A iPhone 15";
+        assertEquals(2, SentenceSegmenter.forLanguage("th").segment(text).size());
+        assertEquals(1, SentenceSegmenter.forLanguage("en").segment(text).size());
+    }
+
+    @Test
+    public void hindiSplitsOnDanda() {
+        // नमस्ते। आप कैसे हैं?
+        String text = "\u0928\u092E\u0938\u094D\u0924\u0947\u0964 \u0906\u092A \u0915\u0948\u0938\u0947 \u0939\u0948\u0902?";
+        assertEquals(2, SentenceSegmenter.forLanguage("hi").segment(text).size());
+    }
+
+    @Test
+    public void regionSubtagsShareTheLanguageSegmenter() {
+        assertSame(SentenceSegmenter.forLanguage("en"), SentenceSegmenter.forLanguage("en-GB"));
+        assertSame(SentenceSegmenter.forLanguage("en"), SentenceSegmenter.forLanguage(null));
+    }
+
+    @Test
+    public void emptyAndBlankTextHaveNoSentences() {
+        assertEquals(0, SentenceSegmenter.forLanguage("en").segment("").size());
+        assertEquals(0, SentenceSegmenter.forLanguage("en").segment(" \n\t ").size());
+    }
+
+    @Test
+    public void agreesWithRegexSplitWithoutAbbreviations() {
+        String text = TextFixtures.generateText(new Random(7), 20_000, TextFixtures.wordsFrom(
+                "the", "device", "battery", "screen", "works", "version", "update", "camera",
+                "signal", "network", "storage", "quickly"));
+
+        List<String> expected = TextFixtures.sentences(text, 1);
+        List<String> actual = new ArrayList<>();
+        for (String sentence : SentenceSegmenter.forLanguage("en").split(text)) {
+            actual.add(sentence.replaceAll("[.!?]+$", ""));
+        }
+        assertEquals(expected, actual);
+    }
+
+    private static List<String[]> loadCorpus() throws IOException {
+        InputStream in = SentenceSegmenterTest.class.getClassLoader().getResourceAsStream("sentence_corpus.txt");
+        assertNotNull("sentence_corpus.txt missing from test resources", in);
+
+        List<String[]> documents = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String language = null;
+            List<String> current = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("# lang:") || line.trim().isEmpty()) {
+                    addDocument(documents, language, current);
+                    if (line.startsWith("# lang:")) {
+                        language = line.substring("# lang:".length()).trim();
+                    }
+                } else if (!line.startsWith("#")) {
+                    current.add(line);
+                }
+            }
+            addDocument(documents, language, current);
+        }
+        return documents;
+    }
+
+    private static void addDocument(List<String[]> documents, String language, List<String> sentences) {
+        if (language != null && !sentences.isEmpty()) {
+            List<String> document = new ArrayList<>();
+            document.add(language);
+            document.addAll(sentences);
+            documents.add(document.toArray(new String[0]));
+        }
+        sentences.clear();
+    }
+}
\ No newline at end of file